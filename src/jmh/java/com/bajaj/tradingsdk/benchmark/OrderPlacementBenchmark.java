@@ -0,0 +1,139 @@
+package com.bajaj.tradingsdk.benchmark;
+
+import com.bajaj.tradingsdk.dto.OrderRequest;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderStyle;
+import com.bajaj.tradingsdk.model.OrderType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of {@code OrderService.placeOrder} for each order
+ * type and style.
+ *
+ * MARKET orders execute in full. LIMIT orders are priced away from each
+ * other so they rest in the book, measuring book insertion rather than
+ * matching. State is rebuilt every iteration to keep the stores from growing
+ * across the whole run. Multi-threaded variants place orders for different
+ * instruments from each thread, so they spread across sequencer shards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class OrderPlacementBenchmark {
+    
+    private static final int INSTRUMENTS = 16;
+    private static final int PRICE_LEVELS = 100;
+    private static final double MARKET_PRICE = 1000.00;
+    
+    private TradingFixture fixture;
+    
+    private final OrderRequest[][] marketBuys = new OrderRequest[INSTRUMENTS][];
+    private final OrderRequest[][] marketSells = new OrderRequest[INSTRUMENTS][];
+    private final OrderRequest[][] limitBuys = new OrderRequest[INSTRUMENTS][];
+    private final OrderRequest[][] limitSells = new OrderRequest[INSTRUMENTS][];
+    
+    @Setup(Level.Iteration)
+    public void setUp() {
+        fixture = new TradingFixture();
+        for (int i = 0; i < INSTRUMENTS; i++) {
+            String symbol = "BENCH" + i;
+            fixture.addInstrument(symbol, MARKET_PRICE);
+            fixture.addHolding(TradingFixture.USER_ID, symbol, 1_000_000_000, MARKET_PRICE);
+            
+            marketBuys[i] = new OrderRequest[]{request(symbol, OrderType.BUY, OrderStyle.MARKET, null)};
+            marketSells[i] = new OrderRequest[]{request(symbol, OrderType.SELL, OrderStyle.MARKET, null)};
+            limitBuys[i] = new OrderRequest[PRICE_LEVELS];
+            limitSells[i] = new OrderRequest[PRICE_LEVELS];
+            for (int level = 0; level < PRICE_LEVELS; level++) {
+                limitBuys[i][level] = request(symbol, OrderType.BUY, OrderStyle.LIMIT, 900.00 - level * 0.05);
+                limitSells[i][level] = request(symbol, OrderType.SELL, OrderStyle.LIMIT, 1100.00 + level * 0.05);
+            }
+        }
+    }
+    
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        fixture.close();
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public Order marketBuy(Cursor cursor) {
+        return fixture.orderService.placeOrder(TradingFixture.USER_ID, cursor.next(marketBuys));
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public Order marketSell(Cursor cursor) {
+        return fixture.orderService.placeOrder(TradingFixture.USER_ID, cursor.next(marketSells));
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public Order limitBuy(Cursor cursor) {
+        return fixture.orderService.placeOrder(TradingFixture.USER_ID, cursor.next(limitBuys));
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public Order limitSell(Cursor cursor) {
+        return fixture.orderService.placeOrder(TradingFixture.USER_ID, cursor.next(limitSells));
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public Order marketBuyMultiThreaded(Cursor cursor) {
+        return fixture.orderService.placeOrder(TradingFixture.USER_ID, cursor.next(marketBuys));
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public Order marketSellMultiThreaded(Cursor cursor) {
+        return fixture.orderService.placeOrder(TradingFixture.USER_ID, cursor.next(marketSells));
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public Order limitBuyMultiThreaded(Cursor cursor) {
+        return fixture.orderService.placeOrder(TradingFixture.USER_ID, cursor.next(limitBuys));
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public Order limitSellMultiThreaded(Cursor cursor) {
+        return fixture.orderService.placeOrder(TradingFixture.USER_ID, cursor.next(limitSells));
+    }
+    
+    private static OrderRequest request(String symbol, OrderType type, OrderStyle style, Double price) {
+        return OrderRequest.builder()
+                .symbol(symbol).exchange("NSE").orderType(type).orderStyle(style).quantity(1).price(price)
+                .build();
+    }
+    
+    /**
+     * Per-thread position: each thread sticks to one instrument and cycles through its requests
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        
+        private int instrument;
+        private int sequence;
+        
+        @Setup
+        public void setUp(ThreadParams threads) {
+            instrument = threads.getThreadIndex() % INSTRUMENTS;
+        }
+        
+        OrderRequest next(OrderRequest[][] requests) {
+            OrderRequest[] forInstrument = requests[instrument];
+            sequence = (sequence + 1) & Integer.MAX_VALUE;
+            return forInstrument[sequence % forInstrument.length];
+        }
+    }
+}
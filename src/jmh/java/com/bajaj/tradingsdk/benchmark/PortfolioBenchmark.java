@@ -0,0 +1,52 @@
+package com.bajaj.tradingsdk.benchmark;
+
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of {@code PortfolioService.getPortfolio} as the
+ * number of holdings grows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PortfolioBenchmark {
+    
+    @Param({"10", "1000", "10000"})
+    public int holdings;
+    
+    private TradingFixture fixture;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new TradingFixture();
+        for (int i = 0; i < holdings; i++) {
+            String symbol = "BENCH" + i;
+            fixture.addInstrument(symbol, 1000.00 + i);
+            fixture.addHolding(TradingFixture.USER_ID, symbol, 10 + i, 950.00);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        fixture.close();
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public List<PortfolioHolding> getPortfolio() {
+        return fixture.portfolioService.getPortfolio(TradingFixture.USER_ID);
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public List<PortfolioHolding> getPortfolioMultiThreaded() {
+        return fixture.portfolioService.getPortfolio(TradingFixture.USER_ID);
+    }
+}
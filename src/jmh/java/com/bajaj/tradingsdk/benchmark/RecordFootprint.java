@@ -0,0 +1,123 @@
+package com.bajaj.tradingsdk.benchmark;
+
+import com.bajaj.tradingsdk.journal.Journal;
+import com.bajaj.tradingsdk.model.*;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import com.bajaj.tradingsdk.repository.TradeRepository;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Retained heap per finished order and per trade, in the repositories as they
+ * are and in the same indexes holding the model beans (the layout before
+ * {@code CompactOrder} and {@code CompactTrade}), and per portfolio holding.
+ * Sizes are measured with JOL and include each record's own ID strings and
+ * index entries; symbols, exchanges and user IDs are shared by all records
+ * and not counted. The indexes' share is measured on the same maps holding
+ * one shared placeholder instead of records.
+ *
+ * Not a JMH benchmark, as JMH measures time:
+ * {@code mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=com.bajaj.tradingsdk.benchmark.RecordFootprint}
+ */
+public class RecordFootprint {
+    
+    private static final String SYMBOL = "INFY";
+    private static final int USERS = 100;
+    private static final int RECORDS_PER_USER = 1000;
+    private static final int RECORDS = USERS * RECORDS_PER_USER;
+    private static final int HOLDINGS_PER_USER = 10;
+    
+    public static void main(String[] args) {
+        Journal journal = Journal.disabled();
+        OrderRepository orderRepository = new OrderRepository(journal);
+        TradeRepository tradeRepository = new TradeRepository(journal);
+        PortfolioRepository portfolioRepository = new PortfolioRepository(journal);
+        
+        // Bean layout: primary map plus the same secondary indexes the repositories keep
+        Map<String, Order> orders = new ConcurrentHashMap<>();
+        Map<String, ConcurrentNavigableMap<String, Order>> ordersByUser = new ConcurrentHashMap<>();
+        ConcurrentNavigableMap<String, Order> finishedOrders = new ConcurrentSkipListMap<>();
+        ConcurrentNavigableMap<String, Trade> trades = new ConcurrentSkipListMap<>();
+        Map<String, ConcurrentNavigableMap<String, Trade>> tradesByUser = new ConcurrentHashMap<>();
+        Map<String, ConcurrentNavigableMap<String, Trade>> tradesByOrder = new ConcurrentHashMap<>();
+        
+        // Index layout alone: the same maps, every entry pointing at one placeholder
+        Object placeholder = new Object();
+        Map<String, Object> orderIndex = new ConcurrentHashMap<>();
+        Map<String, ConcurrentNavigableMap<String, Object>> orderIndexByUser = new ConcurrentHashMap<>();
+        ConcurrentNavigableMap<String, Object> finishedOrderIndex = new ConcurrentSkipListMap<>();
+        ConcurrentNavigableMap<String, Object> tradeIndex = new ConcurrentSkipListMap<>();
+        Map<String, ConcurrentNavigableMap<String, Object>> tradeIndexByUser = new ConcurrentHashMap<>();
+        Map<String, ConcurrentNavigableMap<String, Object>> tradeIndexByOrder = new ConcurrentHashMap<>();
+        
+        String[] userIds = new String[USERS];
+        LocalDateTime start = LocalDateTime.now();
+        for (int user = 0; user < USERS; user++) {
+            userIds[user] = "USER" + user;
+        }
+        for (int i = 0; i < RECORDS; i++) {
+            String userId = userIds[i % USERS];
+            LocalDateTime time = start.plusNanos(i * 1_000_123L);
+            Order order = Order.builder()
+                    .orderId(String.format("ORD-%016X", i)).symbol(SYMBOL).exchange("NSE").instrumentId(0)
+                    .orderType(OrderType.BUY).orderStyle(OrderStyle.LIMIT).quantity(10).filledQuantity(10)
+                    .averageFillPrice(1499.95).price(1500.00).status(OrderStatus.EXECUTED)
+                    .createdAt(time).updatedAt(time.plusNanos(500_000)).userId(userId)
+                    .build();
+            Trade trade = Trade.builder()
+                    .tradeId(String.format("TRD-%016X", i)).orderId(order.getOrderId()).symbol(SYMBOL)
+                    .exchange("NSE").instrumentId(0).tradeType(OrderType.BUY).quantity(10).executionPrice(1499.95)
+                    .totalValue(14_999.50).executedAt(time.plusNanos(400_000)).userId(userId)
+                    .build();
+            
+            orderRepository.save(order);
+            tradeRepository.save(trade);
+            
+            orders.put(order.getOrderId(), order);
+            ordersByUser.computeIfAbsent(userId, id -> new ConcurrentSkipListMap<>()).put(order.getOrderId(), order);
+            finishedOrders.put(order.getOrderId(), order);
+            trades.put(trade.getTradeId(), trade);
+            tradesByUser.computeIfAbsent(userId, id -> new ConcurrentSkipListMap<>()).put(trade.getTradeId(), trade);
+            tradesByOrder.computeIfAbsent(trade.getOrderId(), id -> new ConcurrentSkipListMap<>()).put(trade.getTradeId(), trade);
+            
+            orderIndex.put(order.getOrderId(), placeholder);
+            orderIndexByUser.computeIfAbsent(userId, id -> new ConcurrentSkipListMap<>()).put(order.getOrderId(), placeholder);
+            finishedOrderIndex.put(order.getOrderId(), placeholder);
+            tradeIndex.put(trade.getTradeId(), placeholder);
+            tradeIndexByUser.computeIfAbsent(userId, id -> new ConcurrentSkipListMap<>()).put(trade.getTradeId(), placeholder);
+            tradeIndexByOrder.computeIfAbsent(trade.getOrderId(), id -> new ConcurrentSkipListMap<>()).put(trade.getTradeId(), placeholder);
+            
+            // One holding per user and instrument: 10 instruments per user
+            if (i < USERS * HOLDINGS_PER_USER) {
+                portfolioRepository.save(PortfolioHolding.builder()
+                        .userId(userId).symbol(SYMBOL).exchange("NSE").instrumentId(i / USERS)
+                        .quantity(10).averagePrice(1499.95).build());
+            }
+        }
+        
+        GraphLayout shared = GraphLayout.parseInstance((Object[]) userIds)
+                .add(GraphLayout.parseInstance(SYMBOL, "NSE", placeholder));
+        report("Order (finished)", size(shared, orders, ordersByUser, finishedOrders), size(shared, orderRepository),
+                size(shared, orderIndex, orderIndexByUser, finishedOrderIndex));
+        report("Trade", size(shared, trades, tradesByUser, tradesByOrder), size(shared, tradeRepository),
+                size(shared, tradeIndex, tradeIndexByUser, tradeIndexByOrder));
+        System.out.printf("%-18s bean:  %4d bytes/record%n", "Portfolio holding",
+                size(shared, portfolioRepository) / (USERS * HOLDINGS_PER_USER));
+    }
+    
+    private static long size(GraphLayout shared, Object... roots) {
+        return GraphLayout.parseInstance(roots).subtract(shared).totalSize();
+    }
+    
+    private static void report(String record, long beanBytes, long compactBytes, long indexBytes) {
+        System.out.printf("%-18s beans: %4d bytes/record   compact: %4d bytes/record   (%.0f%% less)   of which indexes: %4d%n",
+                record, beanBytes / RECORDS, compactBytes / RECORDS, 100.0 * (beanBytes - compactBytes) / beanBytes,
+                indexBytes / RECORDS);
+    }
+}
@@ -0,0 +1,121 @@
+package com.bajaj.tradingsdk.benchmark;
+
+import com.bajaj.tradingsdk.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of each repository's {@code findByUserId} with many
+ * users, looking up a different user on every call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryLookupBenchmark {
+    
+    private static final int USERS = 1000;
+    
+    @Param({"10", "100"})
+    public int entriesPerUser;
+    
+    private TradingFixture fixture;
+    private final String[] userIds = new String[USERS];
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new TradingFixture();
+        int[] instrumentIds = new int[entriesPerUser];
+        for (int i = 0; i < entriesPerUser; i++) {
+            instrumentIds[i] = fixture.addInstrument("BENCH" + i, 1000.00);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (int user = 0; user < USERS; user++) {
+            String userId = "USER" + user;
+            userIds[user] = userId;
+            for (int i = 0; i < entriesPerUser; i++) {
+                int instrumentId = instrumentIds[i];
+                String symbol = fixture.instrumentService.getSymbol(instrumentId);
+                String orderId = "ORD-" + user + "-" + i;
+                
+                fixture.orderRepository.save(Order.builder()
+                        .orderId(orderId).symbol(symbol).exchange("NSE").instrumentId(instrumentId)
+                        .orderType(OrderType.BUY).orderStyle(OrderStyle.MARKET).quantity(10).filledQuantity(10)
+                        .price(1000.00).status(OrderStatus.EXECUTED).createdAt(now).updatedAt(now).userId(userId)
+                        .build());
+                fixture.tradeRepository.save(Trade.builder()
+                        .tradeId("TRD-" + user + "-" + i).orderId(orderId).symbol(symbol).exchange("NSE")
+                        .instrumentId(instrumentId).tradeType(OrderType.BUY).quantity(10).executionPrice(1000.00)
+                        .totalValue(10_000.00).executedAt(now).userId(userId)
+                        .build());
+                fixture.portfolioRepository.save(PortfolioHolding.builder()
+                        .userId(userId).symbol(symbol).exchange("NSE").instrumentId(instrumentId)
+                        .quantity(10).averagePrice(1000.00)
+                        .build());
+            }
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        fixture.close();
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public List<Order> ordersByUser(Cursor cursor) {
+        return fixture.orderRepository.findByUserId(cursor.next(userIds));
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public List<Trade> tradesByUser(Cursor cursor) {
+        return fixture.tradeRepository.findByUserId(cursor.next(userIds));
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public List<PortfolioHolding> holdingsByUser(Cursor cursor) {
+        return fixture.portfolioRepository.findByUserId(cursor.next(userIds));
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public List<Order> ordersByUserMultiThreaded(Cursor cursor) {
+        return fixture.orderRepository.findByUserId(cursor.next(userIds));
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public List<Trade> tradesByUserMultiThreaded(Cursor cursor) {
+        return fixture.tradeRepository.findByUserId(cursor.next(userIds));
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public List<PortfolioHolding> holdingsByUserMultiThreaded(Cursor cursor) {
+        return fixture.portfolioRepository.findByUserId(cursor.next(userIds));
+    }
+    
+    /**
+     * Per-thread walk over the users, striding so consecutive calls hit unrelated entries
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        
+        private static final int STRIDE = 7919;
+        
+        private int position;
+        
+        String next(String[] userIds) {
+            position = (position + STRIDE) % userIds.length;
+            return userIds[position];
+        }
+    }
+}
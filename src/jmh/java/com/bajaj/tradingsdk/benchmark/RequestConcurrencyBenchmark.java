@@ -0,0 +1,93 @@
+package com.bajaj.tradingsdk.benchmark;
+
+import com.bajaj.tradingsdk.TradingSdkApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to serve a burst of concurrent REST requests (portfolio reads and
+ * MARKET orders, half each) as the number of open connections grows, on
+ * Tomcat's platform-thread pool versus virtual threads.
+ *
+ * The virtual-thread runs only differ from the platform runs on a Java 21
+ * build and JVM (-Pjava21); on Java 17 Spring ignores the setting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestConcurrencyBenchmark {
+    
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+    
+    // Tomcat's default pool is 200 platform threads
+    @Param({"100", "400", "1600"})
+    public int connections;
+    
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private HttpRequest portfolioRequest;
+    private HttpRequest orderRequest;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplication(TradingSdkApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--trading.journal.enabled=false",
+                // Every order in every iteration must fill, not fail a cheaper risk check
+                "--trading.risk.starting-cash=1000000000000",
+                "--trading.risk.max-order-value=1000000000000",
+                "--trading.risk.max-position-quantity=1000000000",
+                // A burst opens every connection at once; Tomcat's default backlog of 100 resets the rest
+                "--server.tomcat.accept-count=" + connections,
+                "--logging.level.root=WARN",
+                "--logging.level.com.bajaj.tradingsdk=ERROR");
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1";
+        
+        clientExecutor = Executors.newFixedThreadPool(8);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        portfolioRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/portfolio")).GET().build();
+        orderRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"symbol\":\"INFY\",\"exchange\":\"NSE\",\"orderType\":\"BUY\",\"orderStyle\":\"MARKET\",\"quantity\":1}"))
+                .build();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        clientExecutor.shutdownNow();
+    }
+    
+    @Benchmark
+    public int burst() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            HttpRequest request = (i & 1) == 0 ? portfolioRequest : orderRequest;
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+}
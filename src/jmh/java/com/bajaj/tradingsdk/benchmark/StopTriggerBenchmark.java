@@ -0,0 +1,56 @@
+package com.bajaj.tradingsdk.benchmark;
+
+import com.bajaj.tradingsdk.dto.OrderRequest;
+import com.bajaj.tradingsdk.model.OrderStyle;
+import com.bajaj.tradingsdk.model.OrderType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking a price tick against an instrument's pending stop orders
+ * as the number of pending stops grows. Ticks stay inside the band between
+ * the nearest BUY and SELL triggers, which is where almost every tick falls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StopTriggerBenchmark {
+    
+    @Param({"1000", "100000", "500000"})
+    public int stops;
+    
+    private TradingFixture fixture;
+    private int instrumentId;
+    private long tick;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new TradingFixture();
+        instrumentId = fixture.addInstrument("BENCH", 1000.00);
+        fixture.addHolding(TradingFixture.USER_ID, "BENCH", stops, 900.00);
+        
+        // BUY stops above the price and SELL stops below, spread over 1001-1500 and 500-999
+        for (int i = 0; i < stops; i++) {
+            boolean buy = (i & 1) == 0;
+            double offset = 1 + (i / 2) % 500;
+            fixture.orderService.placeOrder(TradingFixture.USER_ID, OrderRequest.builder()
+                    .symbol("BENCH").exchange("NSE")
+                    .orderType(buy ? OrderType.BUY : OrderType.SELL).orderStyle(OrderStyle.STOP)
+                    .quantity(1).triggerPrice(buy ? 1000.00 + offset : 1000.00 - offset).build());
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        fixture.close();
+    }
+    
+    @Benchmark
+    public void tick() {
+        fixture.triggerEngine.onPriceChanged(instrumentId, 999.50 + (tick++ & 0xFF) / 256.0);
+    }
+}
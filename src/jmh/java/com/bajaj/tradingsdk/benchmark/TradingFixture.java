@@ -0,0 +1,101 @@
+package com.bajaj.tradingsdk.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.bajaj.tradingsdk.audit.OrderAuditLog;
+import com.bajaj.tradingsdk.engine.MarketOrderSlicer;
+import com.bajaj.tradingsdk.engine.MatchingEngine;
+import com.bajaj.tradingsdk.engine.OrderSequencer;
+import com.bajaj.tradingsdk.engine.TriggerEngine;
+import com.bajaj.tradingsdk.journal.HistoryArchive;
+import com.bajaj.tradingsdk.journal.Journal;
+import com.bajaj.tradingsdk.metrics.TradingMetrics;
+import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.model.InstrumentType;
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import com.bajaj.tradingsdk.pnl.PnlEngine;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import com.bajaj.tradingsdk.repository.TradeRepository;
+import com.bajaj.tradingsdk.risk.RiskEngine;
+import com.bajaj.tradingsdk.service.ClientOrderIdCache;
+import com.bajaj.tradingsdk.service.InstrumentService;
+import com.bajaj.tradingsdk.service.OrderService;
+import com.bajaj.tradingsdk.service.PortfolioService;
+import com.bajaj.tradingsdk.service.TradeService;
+import com.bajaj.tradingsdk.stream.EventStreamService;
+import com.bajaj.tradingsdk.util.IdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The order placement stack wired by hand, without Spring or the journal,
+ * so benchmarks measure the services and repositories themselves
+ */
+class TradingFixture {
+    
+    static final String USER_ID = "USER001";
+    
+    static {
+        // Only Spring loads logback-spring.xml and its async appenders; synchronous console
+        // logging, including the audit log, would dominate every measurement
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+    
+    final InstrumentRepository instrumentRepository;
+    final OrderRepository orderRepository;
+    final TradeRepository tradeRepository;
+    final PortfolioRepository portfolioRepository;
+    
+    final InstrumentService instrumentService;
+    final PortfolioService portfolioService;
+    final OrderService orderService;
+    final TriggerEngine triggerEngine;
+    
+    private final OrderSequencer orderSequencer;
+    
+    TradingFixture() {
+        Journal journal = Journal.disabled();
+        instrumentRepository = new InstrumentRepository(journal);
+        orderRepository = new OrderRepository(journal);
+        tradeRepository = new TradeRepository(journal);
+        portfolioRepository = new PortfolioRepository(journal);
+        
+        PnlEngine pnlEngine = new PnlEngine(portfolioRepository, instrumentRepository);
+        instrumentService = new InstrumentService(instrumentRepository, pnlEngine);
+        portfolioService = new PortfolioService(portfolioRepository, instrumentService, pnlEngine);
+        orderSequencer = new OrderSequencer(0, 65536);
+        IdGenerator idGenerator = new IdGenerator(0);
+        triggerEngine = new TriggerEngine(orderSequencer, instrumentRepository);
+        // Never started and never subscribed to: publishing is a map lookup
+        EventStreamService eventStreamService = new EventStreamService(pnlEngine, 1024, 1, 15, 10_000, 30);
+        // Recording stays on, as in production, so its cost is part of every measurement
+        TradingMetrics metrics = new TradingMetrics(new SimpleMeterRegistry());
+        // Checks run on every order, with limits no benchmark reaches
+        HistoryArchive historyArchive = HistoryArchive.disabled();
+        RiskEngine riskEngine = new RiskEngine(orderRepository, tradeRepository, historyArchive, portfolioRepository,
+                true, 1e13, 1e13, Long.MAX_VALUE / 2, 10);
+        orderService = new OrderService(orderRepository, historyArchive, instrumentService,
+                new TradeService(tradeRepository, historyArchive, idGenerator, eventStreamService),
+                portfolioService, new MatchingEngine(), new MarketOrderSlicer(1000), orderSequencer, triggerEngine,
+                riskEngine, idGenerator, eventStreamService, metrics, new OrderAuditLog(1.0),
+                new ClientOrderIdCache(orderRepository, 600, 1_000_000));
+        orderService.registerTriggerHandler();
+    }
+    
+    int addInstrument(String symbol, double price) {
+        instrumentService.saveInstrument(Instrument.builder()
+                .symbol(symbol).exchange("NSE").instrumentType(InstrumentType.EQUITY).lastTradedPrice(price).build());
+        return instrumentService.resolveId(symbol, "NSE");
+    }
+    
+    void addHolding(String userId, String symbol, int quantity, double averagePrice) {
+        portfolioService.saveHolding(PortfolioHolding.builder()
+                .userId(userId).symbol(symbol).exchange("NSE").quantity(quantity).averagePrice(averagePrice).build());
+    }
+    
+    void close() throws InterruptedException {
+        orderSequencer.shutdown();
+    }
+}
@@ -0,0 +1,60 @@
+package com.bajaj.tradingsdk.audit;
+
+import com.bajaj.tradingsdk.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Structured audit trail of order status changes, one key=value line per
+ * event on the {@code trading.audit} logger (see logback-spring.xml).
+ *
+ * Orders are sampled by ID rather than per event, so every status change of
+ * a sampled order is logged, and an order that is not sampled costs a hash
+ * and a compare.
+ */
+@Component
+public class OrderAuditLog {
+    
+    private static final Logger AUDIT = LoggerFactory.getLogger("trading.audit");
+    
+    // Orders whose mixed ID hash, as an unsigned int, falls below this are sampled
+    private final long sampleThreshold;
+    
+    public OrderAuditLog(@Value("${trading.audit.sample-rate:1.0}") double sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("trading.audit.sample-rate must be between 0 and 1: " + sampleRate);
+        }
+        this.sampleThreshold = (long) (sampleRate * (1L << 32));
+    }
+    
+    /**
+     * Record that an order reached its current status
+     */
+    public void orderEvent(Order order) {
+        if (!AUDIT.isInfoEnabled() || !isSampled(order.getOrderId())) {
+            return;
+        }
+        AUDIT.info("event=order orderId={} userId={} symbol={} exchange={} side={} style={} status={} quantity={} filled={} avgFillPrice={} price={} triggerPrice={}",
+                order.getOrderId(), order.getUserId(), order.getSymbol(), order.getExchange(), order.getOrderType(),
+                order.getOrderStyle(), order.getStatus(), order.getQuantity(), order.getFilledQuantity(),
+                order.getAverageFillPrice(), order.getPrice(), order.getTriggerPrice());
+    }
+    
+    boolean isSampled(String orderId) {
+        return (mix(orderId.hashCode()) & 0xFFFFFFFFL) < sampleThreshold;
+    }
+    
+    /**
+     * Murmur3 finalizer, so IDs that differ only in their last digits spread evenly
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -5,8 +5,8 @@ import com.bajaj.tradingsdk.model.InstrumentType;
 import com.bajaj.tradingsdk.model.PortfolioHolding;
 import com.bajaj.tradingsdk.service.InstrumentService;
 import com.bajaj.tradingsdk.service.PortfolioService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -14,14 +14,21 @@ import org.springframework.stereotype.Component;
  * Initializes sample data on application startup
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
     
     private final InstrumentService instrumentService;
     private final PortfolioService portfolioService;
     
-    private static final String MOCK_USER_ID = "USER001";
+    // Sample holdings belong to the user that requests without X-User-Id act as
+    private final String defaultUserId;
+    
+    public DataInitializer(InstrumentService instrumentService, PortfolioService portfolioService,
+                           @Value("${trading.default-user-id:USER001}") String defaultUserId) {
+        this.instrumentService = instrumentService;
+        this.portfolioService = portfolioService;
+        this.defaultUserId = defaultUserId;
+    }
     
     @Override
     public void run(String... args) {
@@ -39,6 +46,12 @@ public class DataInitializer implements CommandLineRunner {
     }
     
     private void initializeInstruments() {
+        // Instruments recovered from a snapshot keep their latest prices
+        if (!instrumentService.getAllInstruments().isEmpty()) {
+            log.info("Instruments already present, skipping sample instruments");
+            return;
+        }
+        
         log.info("Loading sample instruments...");
         
         // NSE Stocks
@@ -108,25 +121,31 @@ public class DataInitializer implements CommandLineRunner {
     }
     
     private void initializePortfolio() {
+        // Holdings recovered from the journal take precedence over the sample data
+        if (!portfolioService.getPortfolio(defaultUserId).isEmpty()) {
+            log.info("Portfolio holdings already present, skipping sample holdings");
+            return;
+        }
+        
         log.info("Loading sample portfolio holdings...");
         
         // Add some initial holdings for the mock user
         portfolioService.saveHolding(PortfolioHolding.builder()
                 .symbol("RELIANCE").exchange("NSE").quantity(50)
-                .averagePrice(2400.00).userId(MOCK_USER_ID).build());
+                .averagePrice(2400.00).userId(defaultUserId).build());
         
         portfolioService.saveHolding(PortfolioHolding.builder()
                 .symbol("TCS").exchange("NSE").quantity(25)
-                .averagePrice(3750.00).userId(MOCK_USER_ID).build());
+                .averagePrice(3750.00).userId(defaultUserId).build());
         
         portfolioService.saveHolding(PortfolioHolding.builder()
                 .symbol("INFY").exchange("NSE").quantity(100)
-                .averagePrice(1500.00).userId(MOCK_USER_ID).build());
+                .averagePrice(1500.00).userId(defaultUserId).build());
         
         portfolioService.saveHolding(PortfolioHolding.builder()
                 .symbol("NIFTYBEES").exchange("NSE").quantity(200)
-                .averagePrice(240.00).userId(MOCK_USER_ID).build());
+                .averagePrice(240.00).userId(defaultUserId).build());
         
-        log.info("Loaded {} portfolio holdings", portfolioService.getPortfolio(MOCK_USER_ID).size());
+        log.info("Loaded {} portfolio holdings", portfolioService.getPortfolio(defaultUserId).size());
     }
 }
@@ -0,0 +1,52 @@
+package com.bajaj.tradingsdk.config;
+
+import com.bajaj.tradingsdk.controller.CurrentUser;
+import com.bajaj.tradingsdk.controller.CurrentUserArgumentResolver;
+import io.swagger.v3.oas.models.media.StringSchema;
+import io.swagger.v3.oas.models.parameters.HeaderParameter;
+import lombok.RequiredArgsConstructor;
+import org.springdoc.core.customizers.OperationCustomizer;
+import org.springdoc.core.utils.SpringDocUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registers per-request user resolution and documents its header in the API docs
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+    
+    static {
+        // Documented as a header below rather than as a query parameter
+        SpringDocUtils.getConfig().addAnnotationsToIgnore(CurrentUser.class);
+    }
+    
+    private final CurrentUserArgumentResolver currentUserArgumentResolver;
+    
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
+    
+    @Bean
+    public OperationCustomizer currentUserHeaderCustomizer() {
+        return (operation, handlerMethod) -> {
+            boolean perUser = Arrays.stream(handlerMethod.getMethodParameters())
+                    .anyMatch(parameter -> parameter.hasParameterAnnotation(CurrentUser.class));
+            if (perUser) {
+                operation.addParametersItem(new HeaderParameter()
+                        .name(CurrentUserArgumentResolver.USER_ID_HEADER)
+                        .description("User the request acts for; defaults to trading.default-user-id")
+                        .required(false)
+                        .schema(new StringSchema()));
+            }
+            return operation;
+        };
+    }
+}
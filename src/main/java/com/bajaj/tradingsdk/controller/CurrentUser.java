@@ -0,0 +1,15 @@
+package com.bajaj.tradingsdk.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a controller parameter to the requesting user's ID, taken from the
+ * {@code X-User-Id} header (see {@link CurrentUserArgumentResolver})
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
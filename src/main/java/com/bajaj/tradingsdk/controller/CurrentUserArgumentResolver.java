@@ -0,0 +1,49 @@
+package com.bajaj.tradingsdk.controller;
+
+import com.bajaj.tradingsdk.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.regex.Pattern;
+
+/**
+ * Resolves {@link CurrentUser} parameters from the {@code X-User-Id} header.
+ * Requests without the header act as the default user, so single-user
+ * clients keep working unchanged.
+ */
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+    
+    public static final String USER_ID_HEADER = "X-User-Id";
+    
+    private static final Pattern USER_ID_PATTERN = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+    
+    private final String defaultUserId;
+    
+    public CurrentUserArgumentResolver(@Value("${trading.default-user-id:USER001}") String defaultUserId) {
+        this.defaultUserId = defaultUserId;
+    }
+    
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class) && parameter.getParameterType() == String.class;
+    }
+    
+    @Override
+    public String resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        String userId = webRequest.getHeader(USER_ID_HEADER);
+        if (userId == null) {
+            return defaultUserId;
+        }
+        if (!USER_ID_PATTERN.matcher(userId).matches()) {
+            throw new ValidationException(USER_ID_HEADER + " must be 1-64 letters, digits, '_', '.' or '-'");
+        }
+        return userId;
+    }
+}
@@ -0,0 +1,32 @@
+package com.bajaj.tradingsdk.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Response body that writes a stream as newline-delimited JSON, one element
+ * per line, so large histories are sent in chunks as they are read instead of
+ * being collected and serialised as one document
+ */
+final class NdjsonBody {
+    
+    private NdjsonBody() {
+    }
+    
+    static StreamingResponseBody of(ObjectMapper objectMapper, Stream<?> elements) {
+        ObjectWriter writer = objectMapper.writer();
+        return out -> {
+            try (elements) {
+                Iterator<?> iterator = elements.iterator();
+                while (iterator.hasNext()) {
+                    out.write(writer.writeValueAsBytes(iterator.next()));
+                    out.write('\n');
+                }
+            }
+        };
+    }
+}
\ No newline at end of file
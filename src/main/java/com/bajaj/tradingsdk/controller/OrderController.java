@@ -1,21 +1,29 @@
 package com.bajaj.tradingsdk.controller;
 
 import com.bajaj.tradingsdk.dto.ApiResponse;
+import com.bajaj.tradingsdk.dto.BatchOrderRequest;
+import com.bajaj.tradingsdk.dto.BatchOrderResult;
+import com.bajaj.tradingsdk.dto.CursorPage;
+import com.bajaj.tradingsdk.dto.HistoryFilter;
 import com.bajaj.tradingsdk.dto.OrderRequest;
 import com.bajaj.tradingsdk.dto.OrderResponse;
 import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderStatus;
 import com.bajaj.tradingsdk.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * REST Controller for Order Management APIs
@@ -28,50 +36,96 @@ import java.util.stream.Collectors;
 public class OrderController {
     
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
     
     /**
      * POST /api/v1/orders - Place a new order
      */
     @PostMapping
-    @Operation(summary = "Place a new order", description = "Place a new BUY or SELL order (MARKET or LIMIT)")
-    public ResponseEntity<ApiResponse<OrderResponse>> placeOrder(@Valid @RequestBody OrderRequest request) {
-        log.info("POST /api/v1/orders - Placing order: {} {} {} shares of {}", 
-                request.getOrderType(), request.getOrderStyle(), request.getQuantity(), request.getSymbol());
+    @Operation(summary = "Place a new order", description = "Place a new BUY or SELL order (MARKET, LIMIT, STOP or STOP_LIMIT)")
+    public ResponseEntity<ApiResponse<OrderResponse>> placeOrder(@CurrentUser String userId,
+            @Valid @RequestBody OrderRequest request) {
+        if (log.isDebugEnabled()) {
+            log.debug("POST /api/v1/orders - Placing order: {} {} {} shares of {}",
+                    request.getOrderType(), request.getOrderStyle(), request.getQuantity(), request.getSymbol());
+        }
         
-        Order order = orderService.placeOrder(request);
+        Order order = orderService.placeOrder(userId, request);
         OrderResponse response = OrderResponse.fromOrder(order);
         
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success("Order placed successfully", response));
     }
     
+    /**
+     * POST /api/v1/orders/batch - Place several orders in one call
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Place a batch of orders",
+            description = "Place up to 10000 orders in one call. Each order is validated and executed independently; "
+                    + "results are returned in request order")
+    public ResponseEntity<ApiResponse<List<BatchOrderResult>>> placeOrders(
+            @CurrentUser String userId,
+            @Valid @RequestBody BatchOrderRequest request) {
+        log.debug("POST /api/v1/orders/batch - Placing {} orders", request.getOrders().size());
+        
+        List<BatchOrderResult> results = orderService.placeOrders(userId, request.getOrders());
+        long placed = results.stream().filter(BatchOrderResult::isSuccess).count();
+        
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(String.format("Placed %d of %d orders", placed, results.size()), results));
+    }
+    
     /**
      * GET /api/v1/orders/{orderId} - Fetch order status
      */
     @GetMapping("/{orderId}")
     @Operation(summary = "Get order by ID", description = "Fetch order details and status by order ID")
-    public ResponseEntity<ApiResponse<OrderResponse>> getOrder(@PathVariable String orderId) {
+    public ResponseEntity<ApiResponse<OrderResponse>> getOrder(@CurrentUser String userId, @PathVariable String orderId) {
         log.info("GET /api/v1/orders/{} - Fetching order", orderId);
         
-        Order order = orderService.getOrder(orderId);
+        Order order = orderService.getOrder(userId, orderId);
         OrderResponse response = OrderResponse.fromOrder(order);
         
         return ResponseEntity.ok(ApiResponse.success(response));
     }
     
     /**
-     * GET /api/v1/orders - Fetch all orders
+     * GET /api/v1/orders - Fetch orders, one page at a time
      */
     @GetMapping
-    @Operation(summary = "Get all orders", description = "Fetch all orders for the current user")
-    public ResponseEntity<ApiResponse<List<OrderResponse>>> getAllOrders() {
-        log.info("GET /api/v1/orders - Fetching all orders");
+    @Operation(summary = "Get orders",
+            description = "Fetch the current user's orders newest first, optionally filtered by symbol, exchange, "
+                    + "status and creation time. Pass a page's nextCursor as cursor to fetch the next page")
+    public ResponseEntity<ApiResponse<CursorPage<OrderResponse>>> getAllOrders(
+            @CurrentUser String userId,
+            @ParameterObject HistoryFilter filter,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.info("GET /api/v1/orders - Fetching orders (cursor {}, limit {})", cursor, limit);
+        
+        CursorPage<OrderResponse> orders = orderService.getOrders(userId, filter, status, cursor, limit)
+                .map(OrderResponse::fromOrder);
         
-        List<OrderResponse> orders = orderService.getAllOrders().stream()
-                .map(OrderResponse::fromOrder)
-                .collect(Collectors.toList());
+        return ResponseEntity.ok(ApiResponse.success("Fetched " + orders.getItems().size() + " orders", orders));
+    }
+    
+    /**
+     * GET /api/v1/orders/export - Stream all matching orders as NDJSON
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export orders",
+            description = "Stream all of the current user's matching orders, newest first, as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @CurrentUser String userId,
+            @ParameterObject HistoryFilter filter,
+            @RequestParam(required = false) OrderStatus status) {
+        log.info("GET /api/v1/orders/export - Exporting orders");
         
-        return ResponseEntity.ok(ApiResponse.success("Fetched " + orders.size() + " orders", orders));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonBody.of(objectMapper, orderService.streamOrders(userId, filter, status).map(OrderResponse::fromOrder)));
     }
     
     /**
@@ -79,10 +133,10 @@ public class OrderController {
      */
     @DeleteMapping("/{orderId}")
     @Operation(summary = "Cancel an order", description = "Cancel a pending order by order ID")
-    public ResponseEntity<ApiResponse<OrderResponse>> cancelOrder(@PathVariable String orderId) {
-        log.info("DELETE /api/v1/orders/{} - Cancelling order", orderId);
+    public ResponseEntity<ApiResponse<OrderResponse>> cancelOrder(@CurrentUser String userId, @PathVariable String orderId) {
+        log.debug("DELETE /api/v1/orders/{} - Cancelling order", orderId);
         
-        Order order = orderService.cancelOrder(orderId);
+        Order order = orderService.cancelOrder(userId, orderId);
         OrderResponse response = OrderResponse.fromOrder(order);
         
         return ResponseEntity.ok(ApiResponse.success("Order cancelled successfully", response));
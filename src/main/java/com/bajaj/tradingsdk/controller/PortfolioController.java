@@ -1,8 +1,9 @@
 package com.bajaj.tradingsdk.controller;
 
 import com.bajaj.tradingsdk.dto.ApiResponse;
+import com.bajaj.tradingsdk.dto.PortfolioSummary;
 import com.bajaj.tradingsdk.model.PortfolioHolding;
-import com.bajaj.tradingsdk.service.OrderService;
+import com.bajaj.tradingsdk.risk.RiskEngine;
 import com.bajaj.tradingsdk.service.PortfolioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -24,34 +25,55 @@ import java.util.List;
 public class PortfolioController {
     
     private final PortfolioService portfolioService;
-    private final OrderService orderService;
+    private final RiskEngine riskEngine;
     
     /**
      * GET /api/v1/portfolio - Fetch current portfolio holdings
      */
     @GetMapping
     @Operation(summary = "Get portfolio holdings", description = "Fetch current portfolio holdings for the user")
-    public ResponseEntity<ApiResponse<List<PortfolioHolding>>> getPortfolio() {
+    public ResponseEntity<ApiResponse<List<PortfolioHolding>>> getPortfolio(@CurrentUser String userId) {
         log.info("GET /api/v1/portfolio - Fetching portfolio");
         
-        String userId = orderService.getMockUserId();
         List<PortfolioHolding> holdings = portfolioService.getPortfolio(userId);
         
         return ResponseEntity.ok(ApiResponse.success("Fetched " + holdings.size() + " holdings", holdings));
     }
     
+    /**
+     * GET /api/v1/portfolio/summary - Fetch aggregate P&L
+     */
+    @GetMapping("/summary")
+    @Operation(summary = "Get portfolio summary", description = "Fetch total invested value, current value and P&L for the user")
+    public ResponseEntity<ApiResponse<PortfolioSummary>> getSummary(@CurrentUser String userId) {
+        log.info("GET /api/v1/portfolio/summary - Fetching portfolio summary");
+        
+        return ResponseEntity.ok(ApiResponse.success(portfolioService.getSummary(userId)));
+    }
+    
+    /**
+     * GET /api/v1/portfolio/buying-power - Fetch cash available for new BUY orders
+     */
+    @GetMapping("/buying-power")
+    @Operation(summary = "Get buying power",
+            description = "Fetch the cash the user can still commit to new BUY orders, after open BUY orders' reservations")
+    public ResponseEntity<ApiResponse<Double>> getBuyingPower(@CurrentUser String userId) {
+        log.info("GET /api/v1/portfolio/buying-power - Fetching buying power");
+        
+        return ResponseEntity.ok(ApiResponse.success(riskEngine.getBuyingPower(userId)));
+    }
+    
     /**
      * GET /api/v1/portfolio/{symbol} - Fetch specific holding
      */
     @GetMapping("/{symbol}")
     @Operation(summary = "Get holding by symbol", description = "Fetch specific portfolio holding by symbol")
     public ResponseEntity<ApiResponse<PortfolioHolding>> getHolding(
+            @CurrentUser String userId,
             @PathVariable String symbol,
             @RequestParam(defaultValue = "NSE") String exchange) {
         log.info("GET /api/v1/portfolio/{} - Fetching holding from {}", symbol, exchange);
         
-        String userId = orderService.getMockUserId();
-        
         return portfolioService.getHolding(userId, symbol, exchange)
                 .map(holding -> ResponseEntity.ok(ApiResponse.success(holding)))
                 .orElse(ResponseEntity.notFound().build());
@@ -0,0 +1,38 @@
+package com.bajaj.tradingsdk.controller;
+
+import com.bajaj.tradingsdk.stream.EventStreamService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST Controller for streaming updates
+ */
+@RestController
+@RequestMapping("/api/v1/stream")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "5. Streaming APIs", description = "Server-Sent Events for order, trade and portfolio updates")
+public class StreamController {
+    
+    private final EventStreamService eventStreamService;
+    
+    /**
+     * GET /api/v1/stream - Subscribe to order, trade and portfolio updates
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream updates",
+            description = "Server-Sent Events: 'order' on every status or fill change, 'trade' for each new trade, " +
+                    "'portfolio' with the valued holdings and summary, and 'resync' if a slow client missed events")
+    public SseEmitter stream(@CurrentUser String userId) {
+        log.info("GET /api/v1/stream - Opening event stream");
+        
+        return eventStreamService.subscribe(userId);
+    }
+}
\ No newline at end of file
@@ -1,15 +1,22 @@
 package com.bajaj.tradingsdk.controller;
 
 import com.bajaj.tradingsdk.dto.ApiResponse;
+import com.bajaj.tradingsdk.dto.CursorPage;
+import com.bajaj.tradingsdk.dto.HistoryFilter;
+import com.bajaj.tradingsdk.model.Order;
 import com.bajaj.tradingsdk.model.Trade;
 import com.bajaj.tradingsdk.service.OrderService;
 import com.bajaj.tradingsdk.service.TradeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,30 +32,54 @@ public class TradeController {
     
     private final TradeService tradeService;
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
     
     /**
-     * GET /api/v1/trades - Fetch all executed trades for the user
+     * GET /api/v1/trades - Fetch executed trades for the user, one page at a time
      */
     @GetMapping
-    @Operation(summary = "Get all trades", description = "Fetch list of all executed trades for the current user")
-    public ResponseEntity<ApiResponse<List<Trade>>> getAllTrades() {
-        log.info("GET /api/v1/trades - Fetching all trades");
+    @Operation(summary = "Get trades",
+            description = "Fetch the current user's executed trades newest first, optionally filtered by symbol, "
+                    + "exchange and execution time. Pass a page's nextCursor as cursor to fetch the next page")
+    public ResponseEntity<ApiResponse<CursorPage<Trade>>> getAllTrades(
+            @CurrentUser String userId,
+            @ParameterObject HistoryFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.info("GET /api/v1/trades - Fetching trades (cursor {}, limit {})", cursor, limit);
         
-        String userId = orderService.getMockUserId();
-        List<Trade> trades = tradeService.getTradesForUser(userId);
+        CursorPage<Trade> trades = tradeService.getTrades(userId, filter, cursor, limit);
         
-        return ResponseEntity.ok(ApiResponse.success("Fetched " + trades.size() + " trades", trades));
+        return ResponseEntity.ok(ApiResponse.success("Fetched " + trades.getItems().size() + " trades", trades));
+    }
+    
+    /**
+     * GET /api/v1/trades/export - Stream all matching trades as NDJSON
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export trades",
+            description = "Stream all of the current user's matching trades, newest first, as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportTrades(@CurrentUser String userId,
+                                                              @ParameterObject HistoryFilter filter) {
+        log.info("GET /api/v1/trades/export - Exporting trades");
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonBody.of(objectMapper, tradeService.streamTrades(userId, filter)));
     }
     
     /**
      * GET /api/v1/trades/{tradeId} - Fetch specific trade
      */
     @GetMapping("/order/{orderId}")
-    @Operation(summary = "Get trades by order ID", description = "Fetch all trades for a specific order")
-    public ResponseEntity<ApiResponse<List<Trade>>> getTradesByOrder(@PathVariable String orderId) {
+    @Operation(summary = "Get trades by order ID", description = "Fetch all trades for one of the current user's orders")
+    public ResponseEntity<ApiResponse<List<Trade>>> getTradesByOrder(@CurrentUser String userId,
+                                                                     @PathVariable String orderId) {
         log.info("GET /api/v1/trades/order/{} - Fetching trades for order", orderId);
         
-        List<Trade> trades = tradeService.getTradesForOrder(orderId);
+        // Not found unless the order is the user's
+        Order order = orderService.getOrder(userId, orderId);
+        List<Trade> trades = tradeService.getTradesForOrder(order);
         
         return ResponseEntity.ok(ApiResponse.success("Fetched " + trades.size() + " trades", trades));
     }
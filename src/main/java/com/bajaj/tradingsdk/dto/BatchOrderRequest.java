@@ -0,0 +1,25 @@
+package com.bajaj.tradingsdk.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for placing several orders in one call
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderRequest {
+    
+    @NotEmpty(message = "At least one order is required")
+    @Size(max = 10000, message = "A batch can contain at most 10000 orders")
+    private List<@Valid OrderRequest> orders;
+}
@@ -0,0 +1,38 @@
+package com.bajaj.tradingsdk.dto;
+
+import com.bajaj.tradingsdk.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of one order in a batch
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOrderResult {
+    
+    private int index;              // Position of the order in the request
+    private boolean success;
+    private OrderResponse order;    // Present if the order was placed
+    private String error;           // Present if the order was rejected
+    
+    public static BatchOrderResult success(int index, Order order) {
+        return BatchOrderResult.builder()
+                .index(index)
+                .success(true)
+                .order(OrderResponse.fromOrder(order))
+                .build();
+    }
+    
+    public static BatchOrderResult failure(int index, String error) {
+        return BatchOrderResult.builder()
+                .index(index)
+                .success(false)
+                .error(error)
+                .build();
+    }
+}
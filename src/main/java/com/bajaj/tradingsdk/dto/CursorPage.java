@@ -0,0 +1,42 @@
+package com.bajaj.tradingsdk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * DTO for one page of a cursor-paginated list
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    public static final int MAX_LIMIT = 1000;
+    
+    private List<T> items;
+    private String nextCursor;      // Pass as cursor to fetch the next page; null on the last page
+    
+    /**
+     * Take one page from an ordered stream, reading a single element past it to see whether more follow
+     */
+    public static <T> CursorPage<T> of(Stream<T> stream, int limit, Function<T, String> idOf) {
+        List<T> items = stream.limit(limit + 1L).collect(Collectors.toList());
+        if (items.size() <= limit) {
+            return new CursorPage<>(items, null);
+        }
+        items.remove(limit);
+        return new CursorPage<>(items, idOf.apply(items.get(limit - 1)));
+    }
+    
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(items.stream().map(mapper).collect(Collectors.toList()), nextCursor);
+    }
+}
\ No newline at end of file
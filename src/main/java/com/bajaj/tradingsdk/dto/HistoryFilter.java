@@ -0,0 +1,64 @@
+package com.bajaj.tradingsdk.dto;
+
+import com.bajaj.tradingsdk.util.IdGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * DTO for filtering order and trade history.
+ *
+ * Order and trade IDs are time-ordered, so the time range is also turned into
+ * ID bounds that let repositories seek straight to it. IDs can run slightly
+ * ahead of the wall clock, so the bounds are widened and the exact range is
+ * still checked against each record's own timestamp.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryFilter {
+    
+    private static final long ID_CLOCK_SLACK_MILLIS = 1_000;
+    
+    private String symbol;
+    private String exchange;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;     // Inclusive
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;       // Exclusive
+    
+    /**
+     * Lowest ID a matching record can have, or null if unbounded
+     */
+    public String fromId(String idPrefix) {
+        return from == null ? null : IdGenerator.firstIdAt(idPrefix, epochMillis(from) - ID_CLOCK_SLACK_MILLIS);
+    }
+    
+    /**
+     * Exclusive upper ID bound: the tighter of the cursor and the end of the time range, or null if unbounded
+     */
+    public String beforeId(String idPrefix, String cursor) {
+        String toId = to == null ? null : IdGenerator.firstIdAt(idPrefix, epochMillis(to) + ID_CLOCK_SLACK_MILLIS);
+        if (cursor == null || toId == null) {
+            return cursor != null ? cursor : toId;
+        }
+        return cursor.compareTo(toId) < 0 ? cursor : toId;
+    }
+    
+    public boolean matches(String recordSymbol, String recordExchange, LocalDateTime time) {
+        return (symbol == null || symbol.equalsIgnoreCase(recordSymbol))
+                && (exchange == null || exchange.equalsIgnoreCase(recordExchange))
+                && (from == null || (time != null && !time.isBefore(from)))
+                && (to == null || (time != null && time.isBefore(to)));
+    }
+    
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.bajaj.tradingsdk.model.OrderType;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,6 +20,10 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class OrderRequest {
     
+    // Optional; a retry with the same ID returns the original order instead of placing a new one
+    @Size(min = 1, max = 64, message = "Client order ID must be 1-64 characters")
+    private String clientOrderId;
+    
     @NotBlank(message = "Symbol is required")
     private String symbol;
     
@@ -28,12 +33,14 @@ public class OrderRequest {
     @NotNull(message = "Order type is required (BUY/SELL)")
     private OrderType orderType;
     
-    @NotNull(message = "Order style is required (MARKET/LIMIT)")
+    @NotNull(message = "Order style is required (MARKET/LIMIT/STOP/STOP_LIMIT)")
     private OrderStyle orderStyle;
     
     @NotNull(message = "Quantity is required")
     @Min(value = 1, message = "Quantity must be greater than 0")
     private Integer quantity;
     
-    private Double price;  // Required for LIMIT orders
+    private Double price;  // Required for LIMIT and STOP_LIMIT orders
+    
+    private Double triggerPrice;  // Required for STOP and STOP_LIMIT orders
 }
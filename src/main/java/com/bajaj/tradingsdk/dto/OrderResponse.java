@@ -21,28 +21,40 @@ import java.time.LocalDateTime;
 public class OrderResponse {
     
     private String orderId;
+    private String clientOrderId;
     private String symbol;
     private String exchange;
     private OrderType orderType;
     private OrderStyle orderStyle;
     private Integer quantity;
+    private Integer filledQuantity;
+    private Integer remainingQuantity;
+    private Double averageFillPrice;
     private Double price;
+    private Double triggerPrice;
     private OrderStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private LocalDateTime triggeredAt;
     
     public static OrderResponse fromOrder(Order order) {
         return OrderResponse.builder()
                 .orderId(order.getOrderId())
+                .clientOrderId(order.getClientOrderId())
                 .symbol(order.getSymbol())
                 .exchange(order.getExchange())
                 .orderType(order.getOrderType())
                 .orderStyle(order.getOrderStyle())
                 .quantity(order.getQuantity())
+                .filledQuantity(order.getFilledQuantity())
+                .remainingQuantity(order.getRemainingQuantity())
+                .averageFillPrice(order.getAverageFillPrice())
                 .price(order.getPrice())
+                .triggerPrice(order.getTriggerPrice())
                 .status(order.getStatus())
                 .createdAt(order.getCreatedAt())
                 .updatedAt(order.getUpdatedAt())
+                .triggeredAt(order.getTriggeredAt())
                 .build();
     }
 }
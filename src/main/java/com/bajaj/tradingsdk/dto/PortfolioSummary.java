@@ -0,0 +1,25 @@
+package com.bajaj.tradingsdk.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a user's aggregate portfolio P&L
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioSummary {
+    
+    private int holdingCount;
+    private double investedValue;       // sum of quantity * averagePrice
+    private double currentValue;        // sum of quantity * currentPrice
+    private double profitLoss;          // currentValue - investedValue
+    private double profitLossPercentage;
+    private LocalDateTime valuedAt;     // When these prices were read
+}
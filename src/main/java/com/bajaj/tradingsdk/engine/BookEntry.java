@@ -0,0 +1,45 @@
+package com.bajaj.tradingsdk.engine;
+
+import com.bajaj.tradingsdk.model.Order;
+
+/**
+ * A resting order together with its working (unfilled) quantity
+ */
+class BookEntry {
+    
+    private final Order order;
+    private final PriceLevel level;
+    private int remaining;
+    private boolean cancelled;
+    
+    BookEntry(Order order, PriceLevel level, int remaining) {
+        this.order = order;
+        this.level = level;
+        this.remaining = remaining;
+    }
+    
+    Order getOrder() {
+        return order;
+    }
+    
+    PriceLevel getLevel() {
+        return level;
+    }
+    
+    int getRemaining() {
+        return remaining;
+    }
+    
+    boolean isCancelled() {
+        return cancelled;
+    }
+    
+    void reduce(int quantity) {
+        remaining -= quantity;
+    }
+    
+    void cancel() {
+        cancelled = true;
+        remaining = 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.bajaj.tradingsdk.engine;
+
+import com.bajaj.tradingsdk.model.Order;
+import lombok.Value;
+
+/**
+ * A match between an incoming order and a resting order in the book.
+ * Fills always execute at the resting order's price.
+ */
+@Value
+public class Fill {
+    
+    Order restingOrder;
+    int quantity;
+    double price;
+}
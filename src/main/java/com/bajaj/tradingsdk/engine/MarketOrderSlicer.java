@@ -0,0 +1,32 @@
+package com.bajaj.tradingsdk.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits MARKET order execution into slices of at most a fixed quantity,
+ * so a large order is filled by several trades, each at the price current
+ * when its slice executes
+ */
+@Component
+public class MarketOrderSlicer {
+    
+    private final int sliceQuantity;
+    
+    /**
+     * @param sliceQuantity largest quantity per trade, or 0 to fill every order in one trade
+     */
+    public MarketOrderSlicer(@Value("${trading.execution.market-slice-quantity:1000}") int sliceQuantity) {
+        if (sliceQuantity < 0) {
+            throw new IllegalArgumentException("trading.execution.market-slice-quantity must not be negative: " + sliceQuantity);
+        }
+        this.sliceQuantity = sliceQuantity;
+    }
+    
+    /**
+     * Quantity of the next slice of an order with the given quantity left to fill
+     */
+    public int nextSlice(int remainingQuantity) {
+        return sliceQuantity == 0 ? remainingQuantity : Math.min(sliceQuantity, remainingQuantity);
+    }
+}
\ No newline at end of file
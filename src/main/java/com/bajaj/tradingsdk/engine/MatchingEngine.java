@@ -0,0 +1,34 @@
+package com.bajaj.tradingsdk.engine;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Holds one limit order book per instrument, indexed by instrument ID
+ */
+@Component
+public class MatchingEngine {
+    
+    // Indexed by instrument ID; grown on write, as books are created once per instrument
+    private volatile OrderBook[] books = new OrderBook[0];
+    
+    public OrderBook getBook(int instrumentId) {
+        OrderBook[] current = books;
+        if (instrumentId < current.length && current[instrumentId] != null) {
+            return current[instrumentId];
+        }
+        return createBook(instrumentId);
+    }
+    
+    private synchronized OrderBook createBook(int instrumentId) {
+        OrderBook[] current = books;
+        if (instrumentId < current.length && current[instrumentId] != null) {
+            return current[instrumentId];
+        }
+        OrderBook[] grown = Arrays.copyOf(current, Math.max(current.length, instrumentId + 1));
+        grown[instrumentId] = new OrderBook(instrumentId);
+        books = grown;
+        return grown[instrumentId];
+    }
+}
@@ -0,0 +1,189 @@
+package com.bajaj.tradingsdk.engine;
+
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Price-time priority limit order book for a single instrument.
+ *
+ * Bids and asks are kept as sorted maps of price levels, each level holding
+ * a FIFO queue of resting orders. Matching only ever touches the best levels,
+ * and cancellation is O(1) via an order ID index.
+ *
+ * Not thread-safe: all access to a book must be serialized by the caller.
+ */
+public class OrderBook {
+    
+    // Prices are stored as integer ticks (paise) to avoid floating point keys
+    private static final double TICKS_PER_UNIT = 100.0;
+    
+    private final int instrumentId;
+    
+    // Bids: highest price first; Asks: lowest price first
+    private final TreeMap<Long, PriceLevel> bids = new TreeMap<>(Comparator.reverseOrder());
+    private final TreeMap<Long, PriceLevel> asks = new TreeMap<>();
+    
+    private final Map<String, BookEntry> restingOrders = new HashMap<>();
+    
+    public OrderBook(int instrumentId) {
+        this.instrumentId = instrumentId;
+    }
+    
+    public int getInstrumentId() {
+        return instrumentId;
+    }
+    
+    /**
+     * Decides, as a resting order reaches the head of the book, whether it can still take a fill
+     */
+    @FunctionalInterface
+    public interface FillCheck {
+        
+        /**
+         * @return false to pull the resting order from the book without filling it
+         */
+        boolean canFill(Order resting, int quantity);
+    }
+    
+    /**
+     * Match an incoming LIMIT order against the opposite side of the book.
+     * Any unfilled remainder rests in the book at the order's limit price.
+     *
+     * @param incoming   the incoming order (its price is the limit price)
+     * @param quantity   the quantity still to be worked for this order
+     * @return fills in execution order, empty if nothing crossed
+     */
+    public List<Fill> match(Order incoming, int quantity) {
+        return match(incoming, quantity, (resting, fillQuantity) -> true);
+    }
+    
+    /**
+     * Match an incoming LIMIT order as {@link #match(Order, int)}, pulling
+     * resting orders that fail the check instead of filling them
+     */
+    public List<Fill> match(Order incoming, int quantity, FillCheck check) {
+        boolean buy = incoming.getOrderType() == OrderType.BUY;
+        TreeMap<Long, PriceLevel> opposite = buy ? asks : bids;
+        long limitTicks = toTicks(incoming.getPrice());
+        
+        List<Fill> fills = Collections.emptyList();
+        int remaining = quantity;
+        
+        while (remaining > 0 && !opposite.isEmpty()) {
+            PriceLevel level = opposite.firstEntry().getValue();
+            if (buy ? level.getPriceTicks() > limitTicks : level.getPriceTicks() < limitTicks) {
+                break;
+            }
+            
+            while (remaining > 0 && !level.isEmpty()) {
+                BookEntry head = level.peek();
+                int fillQuantity = Math.min(remaining, head.getRemaining());
+                if (!check.canFill(head.getOrder(), fillQuantity)) {
+                    restingOrders.remove(head.getOrder().getOrderId());
+                    level.cancel(head);
+                    continue;
+                }
+                
+                if (fills.isEmpty()) {
+                    fills = new ArrayList<>();
+                }
+                fills.add(new Fill(head.getOrder(), fillQuantity, head.getOrder().getPrice()));
+                
+                remaining -= fillQuantity;
+                level.fillHead(head, fillQuantity);
+                if (head.getRemaining() == 0) {
+                    restingOrders.remove(head.getOrder().getOrderId());
+                }
+            }
+            
+            if (level.isEmpty()) {
+                opposite.pollFirstEntry();
+            }
+        }
+        
+        if (remaining > 0) {
+            add(incoming, remaining);
+        }
+        
+        return fills;
+    }
+    
+    /**
+     * Rest an order in the book without matching (e.g. when rebuilding state)
+     */
+    public void add(Order order, int remaining) {
+        long priceTicks = toTicks(order.getPrice());
+        TreeMap<Long, PriceLevel> side = order.getOrderType() == OrderType.BUY ? bids : asks;
+        
+        PriceLevel level = side.computeIfAbsent(priceTicks, PriceLevel::new);
+        BookEntry entry = new BookEntry(order, level, remaining);
+        level.add(entry);
+        restingOrders.put(order.getOrderId(), entry);
+    }
+    
+    /**
+     * Remove a resting order from the book
+     *
+     * @return true if the order was resting in this book
+     */
+    public boolean cancel(String orderId) {
+        BookEntry entry = restingOrders.remove(orderId);
+        if (entry == null) {
+            return false;
+        }
+        
+        PriceLevel level = entry.getLevel();
+        level.cancel(entry);
+        if (level.isEmpty()) {
+            TreeMap<Long, PriceLevel> side = entry.getOrder().getOrderType() == OrderType.BUY ? bids : asks;
+            side.remove(level.getPriceTicks(), level);
+        }
+        return true;
+    }
+    
+    public boolean contains(String orderId) {
+        return restingOrders.containsKey(orderId);
+    }
+    
+    /**
+     * Best bid price, or null if there are no bids
+     */
+    public Double getBestBid() {
+        return bids.isEmpty() ? null : fromTicks(bids.firstKey());
+    }
+    
+    /**
+     * Best ask price, or null if there are no asks
+     */
+    public Double getBestAsk() {
+        return asks.isEmpty() ? null : fromTicks(asks.firstKey());
+    }
+    
+    /**
+     * Total open quantity resting at a price on the given side
+     */
+    public long getQuantityAt(OrderType side, double price) {
+        PriceLevel level = (side == OrderType.BUY ? bids : asks).get(toTicks(price));
+        return level == null ? 0 : level.getOpenQuantity();
+    }
+    
+    public int getRestingOrderCount() {
+        return restingOrders.size();
+    }
+    
+    private static long toTicks(double price) {
+        return Math.round(price * TICKS_PER_UNIT);
+    }
+    
+    private static double fromTicks(long ticks) {
+        return ticks / TICKS_PER_UNIT;
+    }
+}
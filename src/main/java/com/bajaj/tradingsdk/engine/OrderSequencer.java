@@ -0,0 +1,95 @@
+package com.bajaj.tradingsdk.engine;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer sequencer for order execution.
+ *
+ * Each instrument is pinned to one shard, and every state change for that
+ * instrument (holdings check, order book, trades, portfolio updates) runs on
+ * the shard's thread in arrival order. This removes check-then-act races
+ * without locks, while different instruments execute in parallel across shards.
+ */
+@Component
+@Slf4j
+public class OrderSequencer {
+    
+    private final SequencerShard[] shards;
+    
+    public OrderSequencer(@Value("${trading.sequencer.shards:0}") int shardCount,
+                          @Value("${trading.sequencer.ring-size:65536}") int ringSize) {
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new SequencerShard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new SequencerShard("order-sequencer-" + i, ringSize);
+            shards[i].start();
+        }
+        log.info("Started order sequencer with {} shards", count);
+    }
+    
+    /**
+     * Run a task on the sequencer for the given instrument and wait for its result.
+     * Exceptions thrown by the task are rethrown to the caller unchanged.
+     */
+    public <T> T execute(int instrumentId, Supplier<T> task) {
+        SequencerShard shard = shardFor(instrumentId);
+        if (shard.isSequencerThread()) {
+            return task.get();
+        }
+        
+        try {
+            return submit(shard, task).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Run a task on the sequencer for the given instrument without waiting for it
+     */
+    public <T> CompletableFuture<T> submit(int instrumentId, Supplier<T> task) {
+        return submit(shardFor(instrumentId), task);
+    }
+    
+    public int getShardCount() {
+        return shards.length;
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (SequencerShard shard : shards) {
+            shard.shutdown(5_000);
+        }
+    }
+    
+    private <T> CompletableFuture<T> submit(SequencerShard shard, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        shard.publish(() -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+    
+    private SequencerShard shardFor(int instrumentId) {
+        // Instrument IDs are dense, so this spreads instruments evenly across shards
+        return shards[Math.floorMod(instrumentId, shards.length)];
+    }
+}
@@ -0,0 +1,73 @@
+package com.bajaj.tradingsdk.engine;
+
+import java.util.ArrayDeque;
+
+/**
+ * FIFO queue of resting orders at a single price
+ */
+class PriceLevel {
+    
+    private final long priceTicks;
+    private final ArrayDeque<BookEntry> entries = new ArrayDeque<>();
+    private long openQuantity;
+    private int liveOrders;
+    
+    PriceLevel(long priceTicks) {
+        this.priceTicks = priceTicks;
+    }
+    
+    long getPriceTicks() {
+        return priceTicks;
+    }
+    
+    long getOpenQuantity() {
+        return openQuantity;
+    }
+    
+    int getLiveOrders() {
+        return liveOrders;
+    }
+    
+    boolean isEmpty() {
+        return liveOrders == 0;
+    }
+    
+    void add(BookEntry entry) {
+        entries.addLast(entry);
+        openQuantity += entry.getRemaining();
+        liveOrders++;
+    }
+    
+    /**
+     * Oldest live entry at this level, discarding cancelled entries left at the head
+     */
+    BookEntry peek() {
+        BookEntry head = entries.peekFirst();
+        while (head != null && head.isCancelled()) {
+            entries.pollFirst();
+            head = entries.peekFirst();
+        }
+        return head;
+    }
+    
+    /**
+     * Reduce the head entry by a fill, removing it once fully filled
+     */
+    void fillHead(BookEntry head, int quantity) {
+        head.reduce(quantity);
+        openQuantity -= quantity;
+        if (head.getRemaining() == 0) {
+            entries.pollFirst();
+            liveOrders--;
+        }
+    }
+    
+    /**
+     * Cancellation is lazy: the entry stays in the queue and is skipped by {@link #peek()}
+     */
+    void cancel(BookEntry entry) {
+        openQuantity -= entry.getRemaining();
+        liveOrders--;
+        entry.cancel();
+    }
+}
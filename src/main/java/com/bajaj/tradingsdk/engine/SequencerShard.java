@@ -0,0 +1,84 @@
+package com.bajaj.tradingsdk.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single consumer thread draining its own ring buffer of tasks.
+ * Every task routed to a shard runs on the same thread, in submission order.
+ */
+@Slf4j
+class SequencerShard implements Runnable {
+    
+    private static final int SPIN_TRIES = 100;
+    
+    private final MpscRingBuffer<Runnable> ringBuffer;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean sleeping;
+    
+    SequencerShard(String name, int capacity) {
+        this.ringBuffer = new MpscRingBuffer<>(capacity);
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+    
+    void start() {
+        thread.start();
+    }
+    
+    boolean isSequencerThread() {
+        return Thread.currentThread() == thread;
+    }
+    
+    /**
+     * Enqueue a task, applying backpressure to the caller while the ring is full
+     */
+    void publish(Runnable task) {
+        while (!ringBuffer.offer(task)) {
+            if (!running) {
+                throw new IllegalStateException("Sequencer " + thread.getName() + " is shut down");
+            }
+            LockSupport.parkNanos(1_000);
+        }
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+    
+    @Override
+    public void run() {
+        int idleSpins = 0;
+        while (running || !ringBuffer.isEmpty()) {
+            Runnable task = ringBuffer.poll();
+            if (task != null) {
+                idleSpins = 0;
+                runSafely(task);
+            } else if (idleSpins < SPIN_TRIES) {
+                idleSpins++;
+                Thread.onSpinWait();
+            } else {
+                sleeping = true;
+                if (ringBuffer.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                sleeping = false;
+            }
+        }
+    }
+    
+    void shutdown(long timeoutMillis) throws InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(timeoutMillis);
+    }
+    
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("Unhandled error in sequencer task on {}", thread.getName(), e);
+        }
+    }
+}
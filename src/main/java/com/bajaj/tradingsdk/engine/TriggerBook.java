@@ -0,0 +1,166 @@
+package com.bajaj.tradingsdk.engine;
+
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pending stop orders for a single instrument, sorted by trigger price.
+ *
+ * BUY stops fire once the price trades at or above their trigger and SELL
+ * stops once it trades at or below, so the next stop to fire on each side is
+ * always the first key. Ticks only compare against those two published
+ * thresholds, and firing polls just the levels the price crossed.
+ *
+ * Not thread-safe, except for {@link #onTick(double)}: everything else must
+ * be serialized by the caller.
+ */
+class TriggerBook {
+    
+    // Trigger prices are stored as integer ticks (paise), like the order book
+    private static final double TICKS_PER_UNIT = 100.0;
+    
+    private static final long NO_HIGH = Double.doubleToRawLongBits(Double.NEGATIVE_INFINITY);
+    private static final long NO_LOW = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+    
+    // BUY stops: lowest trigger first; SELL stops: highest trigger first
+    private final TreeMap<Long, Map<String, Order>> buyStops = new TreeMap<>();
+    private final TreeMap<Long, Map<String, Order>> sellStops = new TreeMap<>(Comparator.reverseOrder());
+    
+    private final Map<String, Order> pendingOrders = new HashMap<>();
+    
+    // Next trigger on each side, read by ticks without locking
+    private volatile double lowestBuyTrigger = Double.POSITIVE_INFINITY;
+    private volatile double highestSellTrigger = Double.NEGATIVE_INFINITY;
+    
+    // Price extremes seen since the last fire, so a spike that reverses before
+    // the fire task runs still triggers the stops it crossed
+    private final AtomicLong highSinceFire = new AtomicLong(NO_HIGH);
+    private final AtomicLong lowSinceFire = new AtomicLong(NO_LOW);
+    private final AtomicBoolean fireScheduled = new AtomicBoolean();
+    
+    /**
+     * Record a price update; safe to call from any thread.
+     *
+     * @return true if the price crossed a pending stop and the caller should
+     *         schedule {@link #takeTriggered()}; only one caller is told so
+     *         until that runs
+     */
+    boolean onTick(double price) {
+        boolean crossed = false;
+        if (price >= lowestBuyTrigger) {
+            highSinceFire.accumulateAndGet(Double.doubleToRawLongBits(price), TriggerBook::higher);
+            crossed = true;
+        }
+        if (price <= highestSellTrigger) {
+            lowSinceFire.accumulateAndGet(Double.doubleToRawLongBits(price), TriggerBook::lower);
+            crossed = true;
+        }
+        return crossed && !fireScheduled.get() && fireScheduled.compareAndSet(false, true);
+    }
+    
+    /**
+     * Remove and return every stop crossed by the prices recorded since the last call,
+     * in trigger price order, then time order within a price
+     */
+    List<Order> takeTriggered() {
+        // Cleared first: a tick recorded after this schedules a new fire
+        fireScheduled.set(false);
+        double high = Double.longBitsToDouble(highSinceFire.getAndSet(NO_HIGH));
+        double low = Double.longBitsToDouble(lowSinceFire.getAndSet(NO_LOW));
+        
+        List<Order> triggered = Collections.emptyList();
+        while (!buyStops.isEmpty() && fromTicks(buyStops.firstKey()) <= high) {
+            triggered = drain(buyStops.pollFirstEntry().getValue(), triggered);
+        }
+        while (!sellStops.isEmpty() && fromTicks(sellStops.firstKey()) >= low) {
+            triggered = drain(sellStops.pollFirstEntry().getValue(), triggered);
+        }
+        
+        if (!triggered.isEmpty()) {
+            publishThresholds();
+        }
+        return triggered;
+    }
+    
+    void add(Order order) {
+        long triggerTicks = toTicks(order.getTriggerPrice());
+        side(order).computeIfAbsent(triggerTicks, ticks -> new LinkedHashMap<>()).put(order.getOrderId(), order);
+        pendingOrders.put(order.getOrderId(), order);
+        publishThresholds();
+    }
+    
+    /**
+     * Remove a pending stop
+     *
+     * @return true if the order was pending in this book
+     */
+    boolean cancel(String orderId) {
+        Order order = pendingOrders.remove(orderId);
+        if (order == null) {
+            return false;
+        }
+        
+        TreeMap<Long, Map<String, Order>> side = side(order);
+        long triggerTicks = toTicks(order.getTriggerPrice());
+        Map<String, Order> level = side.get(triggerTicks);
+        level.remove(orderId);
+        if (level.isEmpty()) {
+            side.remove(triggerTicks);
+            publishThresholds();
+        }
+        return true;
+    }
+    
+    boolean contains(String orderId) {
+        return pendingOrders.containsKey(orderId);
+    }
+    
+    int getPendingCount() {
+        return pendingOrders.size();
+    }
+    
+    private List<Order> drain(Map<String, Order> level, List<Order> triggered) {
+        List<Order> result = triggered.isEmpty() ? new ArrayList<>() : triggered;
+        for (Order order : level.values()) {
+            pendingOrders.remove(order.getOrderId());
+            result.add(order);
+        }
+        return result;
+    }
+    
+    private TreeMap<Long, Map<String, Order>> side(Order order) {
+        return order.getOrderType() == OrderType.BUY ? buyStops : sellStops;
+    }
+    
+    private void publishThresholds() {
+        lowestBuyTrigger = buyStops.isEmpty() ? Double.POSITIVE_INFINITY : fromTicks(buyStops.firstKey());
+        highestSellTrigger = sellStops.isEmpty() ? Double.NEGATIVE_INFINITY : fromTicks(sellStops.firstKey());
+    }
+    
+    private static long higher(long a, long b) {
+        return Double.longBitsToDouble(b) > Double.longBitsToDouble(a) ? b : a;
+    }
+    
+    private static long lower(long a, long b) {
+        return Double.longBitsToDouble(b) < Double.longBitsToDouble(a) ? b : a;
+    }
+    
+    private static long toTicks(double price) {
+        return Math.round(price * TICKS_PER_UNIT);
+    }
+    
+    private static double fromTicks(long ticks) {
+        return ticks / TICKS_PER_UNIT;
+    }
+}
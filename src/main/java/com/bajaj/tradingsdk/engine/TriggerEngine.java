@@ -0,0 +1,133 @@
+package com.bajaj.tradingsdk.engine;
+
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Holds one {@link TriggerBook} of pending stop orders per instrument and
+ * fires them as prices cross their triggers.
+ *
+ * A tick costs two volatile reads when it crosses nothing, however many stops
+ * are pending. Crossing ticks are coalesced into a single task on the
+ * instrument's {@link OrderSequencer} shard, which hands each triggered order
+ * to the trigger handler in the same place orders are placed and cancelled.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TriggerEngine {
+    
+    private final OrderSequencer orderSequencer;
+    private final InstrumentRepository instrumentRepository;
+    
+    // Indexed by instrument ID; grown on write, as books are created once per instrument
+    private volatile TriggerBook[] books = new TriggerBook[0];
+    private volatile Consumer<Order> triggerHandler = order -> { };
+    
+    /**
+     * Set what runs for each triggered order; it is called on the instrument's sequencer
+     */
+    public void setTriggerHandler(Consumer<Order> triggerHandler) {
+        this.triggerHandler = triggerHandler;
+    }
+    
+    /**
+     * Check a price update against the instrument's pending stops; called for every tick, from any thread
+     */
+    public void onPriceChanged(int instrumentId, double price) {
+        // Pairs with the fence in add(): either this tick sees a new stop, or add() sees this price
+        VarHandle.fullFence();
+        TriggerBook[] current = books;
+        if (instrumentId >= current.length || current[instrumentId] == null) {
+            return;
+        }
+        
+        TriggerBook book = current[instrumentId];
+        if (book.onTick(price)) {
+            orderSequencer.submit(instrumentId, () -> {
+                fire(book.takeTriggered());
+                return null;
+            });
+        }
+    }
+    
+    /**
+     * Add a stop order, firing it straight away if the current price already
+     * crosses its trigger; runs on the instrument's sequencer
+     */
+    public void add(Order order) {
+        TriggerBook book = getBook(order.getInstrumentId());
+        book.add(order);
+        
+        VarHandle.fullFence();
+        if (book.onTick(instrumentRepository.getPrice(order.getInstrumentId()))) {
+            fire(book.takeTriggered());
+        }
+    }
+    
+    /**
+     * Put a pending stop order back without checking the price, e.g. when rebuilding
+     * state; it fires on the first tick that crosses it
+     */
+    public void restore(Order order) {
+        getBook(order.getInstrumentId()).add(order);
+    }
+    
+    /**
+     * Remove a pending stop order; runs on the instrument's sequencer
+     *
+     * @return true if the order was still waiting for its trigger
+     */
+    public boolean cancel(Order order) {
+        TriggerBook[] current = books;
+        int instrumentId = order.getInstrumentId();
+        return instrumentId < current.length && current[instrumentId] != null
+                && current[instrumentId].cancel(order.getOrderId());
+    }
+    
+    /**
+     * Number of stop orders waiting for their trigger across all instruments
+     */
+    public int getPendingCount() {
+        return Arrays.stream(books).filter(Objects::nonNull).mapToInt(TriggerBook::getPendingCount).sum();
+    }
+    
+    private void fire(List<Order> triggered) {
+        Consumer<Order> handler = triggerHandler;
+        for (Order order : triggered) {
+            try {
+                handler.accept(order);
+            } catch (RuntimeException e) {
+                log.error("Failed to execute triggered order {}", order.getOrderId(), e);
+            }
+        }
+    }
+    
+    private TriggerBook getBook(int instrumentId) {
+        TriggerBook[] current = books;
+        if (instrumentId < current.length && current[instrumentId] != null) {
+            return current[instrumentId];
+        }
+        return createBook(instrumentId);
+    }
+    
+    private synchronized TriggerBook createBook(int instrumentId) {
+        TriggerBook[] current = books;
+        if (instrumentId < current.length && current[instrumentId] != null) {
+            return current[instrumentId];
+        }
+        TriggerBook[] grown = Arrays.copyOf(current, Math.max(current.length, instrumentId + 1));
+        grown[instrumentId] = new TriggerBook();
+        books = grown;
+        return grown[instrumentId];
+    }
+}
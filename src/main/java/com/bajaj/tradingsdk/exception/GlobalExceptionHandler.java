@@ -59,6 +59,16 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
     
+    /**
+     * Handle RiskLimitException - 400 Bad Request
+     */
+    @ExceptionHandler(RiskLimitException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRiskLimitException(RiskLimitException ex) {
+        log.error("Risk check failed: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+    
     /**
      * Handle validation errors from @Valid annotation - 400 Bad Request
      */
@@ -0,0 +1,11 @@
+package com.bajaj.tradingsdk.exception;
+
+/**
+ * Exception thrown when an order fails a pre-trade risk check
+ */
+public class RiskLimitException extends RuntimeException {
+    
+    public RiskLimitException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,359 @@
+package com.bajaj.tradingsdk.journal;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable archive file of orders or trades.
+ *
+ * Layout: {@code [int magic][int version][byte record type][blocks][index][long index offset][int magic]}.
+ * Each block holds up to {@value #BLOCK_RECORDS} of one user's records in ID
+ * order, framed as in {@link JournalCodec} and deflated on its own, so a read
+ * only inflates the blocks it needs. The index lists every block's user, ID
+ * range and location; it is loaded when the segment is opened. No file is
+ * held open between reads, so idle segments cost no file descriptors.
+ */
+final class ArchiveSegment {
+    
+    static final int MAGIC = 0x54534152;  // "TSAR"
+    static final int FORMAT_VERSION = 1;
+    static final int BLOCK_RECORDS = 256;
+    
+    private static final int HEADER_SIZE = 9;
+    private static final int FOOTER_SIZE = 12;  // index offset + magic
+    private static final int BLOCK_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_RECORD_SIZE = 16 * 1024;
+    
+    private final Path path;
+    private final JournalRecordType type;
+    private final Map<String, List<Block>> blocksByUser;
+    private final long records;
+    private final String lowestId;
+    private final String highestId;
+    
+    private ArchiveSegment(Path path, JournalRecordType type, Map<String, List<Block>> blocksByUser,
+                           long records, String lowestId, String highestId) {
+        this.path = path;
+        this.type = type;
+        this.blocksByUser = blocksByUser;
+        this.records = records;
+        this.lowestId = lowestId;
+        this.highestId = highestId;
+    }
+    
+    /**
+     * A run of one user's records, from the first to the last ID inclusive
+     */
+    static final class Block {
+        
+        final String firstId;
+        final String lastId;
+        final long offset;
+        final int compressedLength;
+        final int length;
+        final int records;
+        
+        Block(String firstId, String lastId, long offset, int compressedLength, int length, int records) {
+            this.firstId = firstId;
+            this.lastId = lastId;
+            this.offset = offset;
+            this.compressedLength = compressedLength;
+            this.length = length;
+            this.records = records;
+        }
+        
+        /**
+         * Whether any ID in this block can be at or above {@code fromId} and below {@code beforeId}
+         */
+        boolean overlaps(String fromId, String beforeId) {
+            return (fromId == null || lastId.compareTo(fromId) >= 0)
+                    && (beforeId == null || firstId.compareTo(beforeId) < 0);
+        }
+    }
+    
+    // ==================== Writing ====================
+    
+    /**
+     * Write a segment through a temporary file, so a segment file is always complete
+     *
+     * @param users     the users to write, in order
+     * @param recordsOf a user's records, sorted by ID; asked for once per user, so
+     *                  only one user's records need to be in memory at a time
+     */
+    static <T> ArchiveSegment write(Path path, JournalRecordType type, Collection<String> users,
+                                    Function<String, List<T>> recordsOf, Function<T, String> idOf,
+                                    BiConsumer<ByteBuffer, T> encoder) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        List<String> blockUsers = new ArrayList<>();
+        List<Block> blocks = new ArrayList<>();
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_BUFFER_SIZE);
+        ByteBuffer compressed = ByteBuffer.allocate(BLOCK_BUFFER_SIZE);
+        Deflater deflater = new Deflater();
+        
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putInt(FORMAT_VERSION).put(type.getCode()).flip());
+            long offset = HEADER_SIZE;
+            
+            for (String userId : users) {
+                List<T> userRecords = recordsOf.apply(userId);
+                int first = 0;
+                while (first < userRecords.size()) {
+                    block.clear();
+                    int end = first;
+                    while (end < userRecords.size() && end - first < BLOCK_RECORDS
+                            && block.remaining() >= MAX_RECORD_SIZE) {
+                        int start = JournalCodec.beginRecord(block, type);
+                        encoder.accept(block, userRecords.get(end));
+                        JournalCodec.endRecord(block, start);
+                        end++;
+                    }
+                    
+                    int length = block.position();
+                    int compressedLength = deflate(deflater, block.flip(), compressed, channel);
+                    blockUsers.add(userId);
+                    blocks.add(new Block(idOf.apply(userRecords.get(first)), idOf.apply(userRecords.get(end - 1)),
+                            offset, compressedLength, length, end - first));
+                    offset += compressedLength;
+                    first = end;
+                }
+            }
+            
+            writeIndex(channel, offset, blockUsers, blocks);
+            channel.force(true);
+        } finally {
+            deflater.end();
+        }
+        
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(path.getParent());
+        return open(path);
+    }
+    
+    /**
+     * Make a rename in the directory durable
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows can't open a directory; its file system journals renames itself
+        }
+    }
+    
+    private static int deflate(Deflater deflater, ByteBuffer input, ByteBuffer output,
+                               FileChannel channel) throws IOException {
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        int written = 0;
+        while (!deflater.finished()) {
+            output.clear();
+            deflater.deflate(output);
+            written += writeFully(channel, output.flip());
+        }
+        return written;
+    }
+    
+    private static void writeIndex(FileChannel channel, long indexOffset, List<String> users,
+                                   List<Block> blocks) throws IOException {
+        // Strings are written as UTF-8, at most 3 bytes per char
+        int size = 4 + FOOTER_SIZE;
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            size += 26 + 3 * (users.get(i).length() + block.firstId.length() + block.lastId.length());
+        }
+        
+        ByteBuffer index = ByteBuffer.allocate(size);
+        index.putInt(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            Block block = blocks.get(i);
+            JournalCodec.putString(index, users.get(i));
+            JournalCodec.putString(index, block.firstId);
+            JournalCodec.putString(index, block.lastId);
+            index.putLong(block.offset).putInt(block.compressedLength).putInt(block.length).putInt(block.records);
+        }
+        index.putLong(indexOffset).putInt(MAGIC);
+        writeFully(channel, index.flip());
+    }
+    
+    private static int writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        return written;
+    }
+    
+    // ==================== Reading ====================
+    
+    /**
+     * Load a segment's index
+     */
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = read(channel, 0, HEADER_SIZE);
+            if (size < HEADER_SIZE + FOOTER_SIZE || header.getInt(0) != MAGIC) {
+                throw new IllegalStateException("Archive segment " + path + " has an invalid header");
+            }
+            ByteBuffer footer = read(channel, size - FOOTER_SIZE, FOOTER_SIZE);
+            if (footer.getInt(8) != MAGIC) {
+                throw new IllegalStateException("Archive segment " + path + " has an invalid footer");
+            }
+            
+            long indexOffset = footer.getLong(0);
+            ByteBuffer index = read(channel, indexOffset, (int) (size - FOOTER_SIZE - indexOffset));
+            int count = index.getInt();
+            Map<String, List<Block>> blocksByUser = new HashMap<>();
+            long records = 0;
+            String lowestId = null;
+            String highestId = null;
+            for (int i = 0; i < count; i++) {
+                String userId = JournalCodec.getString(index);
+                Block block = new Block(JournalCodec.getString(index), JournalCodec.getString(index),
+                        index.getLong(), index.getInt(), index.getInt(), index.getInt());
+                blocksByUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(block);
+                records += block.records;
+                if (lowestId == null || block.firstId.compareTo(lowestId) < 0) {
+                    lowestId = block.firstId;
+                }
+                if (highestId == null || block.lastId.compareTo(highestId) > 0) {
+                    highestId = block.lastId;
+                }
+            }
+            return new ArchiveSegment(path, JournalRecordType.fromCode(header.get(8)), blocksByUser,
+                    records, lowestId, highestId);
+        }
+    }
+    
+    /**
+     * Read and inflate one block; safe to call from any number of threads
+     *
+     * @return the block's framed records
+     */
+    ByteBuffer read(Block block) {
+        Inflater inflater = new Inflater();
+        try {
+            ByteBuffer compressed;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                compressed = read(channel, block.offset, block.compressedLength);
+            }
+            inflater.setInput(compressed);
+            ByteBuffer data = ByteBuffer.allocate(block.length);
+            while (data.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(data) == 0 && inflater.needsInput()) {
+                    break;
+                }
+            }
+            if (data.hasRemaining()) {
+                throw new IllegalStateException("Archive segment " + path + " has a truncated block at offset " + block.offset);
+            }
+            return data.flip();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Archive segment " + path + " has a damaged block at offset " + block.offset, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read archive segment " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of archive segment at " + (position + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+    
+    // ==================== Index ====================
+    
+    JournalRecordType getType() {
+        return type;
+    }
+    
+    String getName() {
+        return path.getFileName().toString();
+    }
+    
+    long getRecords() {
+        return records;
+    }
+    
+    /**
+     * Highest record ID in the segment, or null if it is empty
+     */
+    String getHighestId() {
+        return highestId;
+    }
+    
+    /**
+     * Whether the segment's ID range includes an ID
+     */
+    boolean spans(String id) {
+        return lowestId != null && id.compareTo(lowestId) >= 0 && id.compareTo(highestId) <= 0;
+    }
+    
+    Set<String> getUsers() {
+        return blocksByUser.keySet();
+    }
+    
+    /**
+     * A user's blocks in ID order
+     */
+    List<Block> getBlocks(String userId) {
+        return blocksByUser.getOrDefault(userId, Collections.emptyList());
+    }
+    
+    /**
+     * The user's block whose ID range includes an ID, or null
+     */
+    Block getBlock(String userId, String id) {
+        List<Block> blocks = getBlocks(userId);
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Block block = blocks.get(middle);
+            if (block.lastId.compareTo(id) < 0) {
+                low = middle + 1;
+            } else if (block.firstId.compareTo(id) > 0) {
+                high = middle - 1;
+            } else {
+                return block;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Delete the segment's file; reads fail from then on
+     */
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
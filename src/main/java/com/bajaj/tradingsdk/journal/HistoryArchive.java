@@ -0,0 +1,495 @@
+package com.bajaj.tradingsdk.journal;
+
+import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import com.bajaj.tradingsdk.model.Trade;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import com.bajaj.tradingsdk.util.NewestFirst;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compressed on-disk archive of the orders and trades that
+ * {@link RetentionManager} moves out of memory, still readable by the history APIs.
+ *
+ * Every archiving pass writes one {@link ArchiveSegment} per record type next
+ * to the journal. Only the segments' block indexes stay in memory; queries
+ * inflate just the blocks whose user and ID range they touch, newest first,
+ * and stop reading once a page is full.
+ *
+ * Segments are merged by size tier: once {@value #MERGE_FACTOR} of the newest
+ * segments are no bigger than the newest one's tier (a power of
+ * {@value #MERGE_FACTOR} records), they are rewritten as one, so the segment
+ * count grows with the logarithm of the archive rather than with the number
+ * of passes. A merged file is named after the range of segment numbers it
+ * replaces ({@code archive-00000001-00000010.orders}); the replaced files
+ * are deleted {@value #DELETE_DELAY_SECONDS} seconds later, so queries already
+ * reading them can finish, and on open if a crash left them behind.
+ */
+@Component
+@Slf4j
+public class HistoryArchive {
+    
+    private static final String SEGMENT_PREFIX = "archive-";
+    private static final String ORDERS_SUFFIX = ".orders";
+    private static final String TRADES_SUFFIX = ".trades";
+    private static final int MERGE_FACTOR = 10;
+    private static final long DELETE_DELAY_SECONDS = 60;
+    
+    private final InstrumentRepository instrumentRepository;
+    private final boolean enabled;
+    private final Path directory;
+    
+    private final List<ArchiveSegment> orderSegments = new CopyOnWriteArrayList<>();
+    private final List<ArchiveSegment> tradeSegments = new CopyOnWriteArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private int nextSegment = 1;   // Guarded by writeLock
+    
+    // Segments a merge replaced, waiting to be deleted, and when; guarded by writeLock
+    private final Map<ArchiveSegment, Long> replaced = new LinkedHashMap<>();
+    
+    @Autowired
+    public HistoryArchive(Journal journal, InstrumentRepository instrumentRepository,
+                          @Value("${trading.archive.enabled:true}") boolean enabled) {
+        this.instrumentRepository = instrumentRepository;
+        // Archived records are only dropped from memory safely when the journal records it
+        this.enabled = enabled && journal.isEnabled();
+        this.directory = journal.getDirectory();
+    }
+    
+    /**
+     * An archive that holds nothing (e.g. for benchmarks and tests)
+     */
+    public static HistoryArchive disabled() {
+        Journal journal = Journal.disabled();
+        return new HistoryArchive(journal, new InstrumentRepository(journal), false);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                // Names embed the zero-padded segment number, so name order is write order
+                files = listing.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            
+            List<Path> orderFiles = new ArrayList<>();
+            List<Path> tradeFiles = new ArrayList<>();
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(ORDERS_SUFFIX)) {
+                    orderFiles.add(file);
+                } else if (name.endsWith(TRADES_SUFFIX)) {
+                    tradeFiles.add(file);
+                } else {
+                    // Left over from a pass or merge that did not finish
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                nextSegment = Math.max(nextSegment, lastNumber(name) + 1);
+            }
+            orderSegments.addAll(openLive(orderFiles));
+            tradeSegments.addAll(openLive(tradeFiles));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open archive at " + directory, e);
+        }
+        
+        if (!orderSegments.isEmpty() || !tradeSegments.isEmpty()) {
+            log.info("Opened archive with {} orders and {} trades in {} segments",
+                    getOrderCount(), getTradeCount(), getSegmentCount());
+        }
+    }
+    
+    /**
+     * Open the segments of one record type, deleting those a merged segment replaced
+     */
+    private static List<ArchiveSegment> openLive(List<Path> files) throws IOException {
+        // By first segment number, widest range first, so a merged file comes before those it replaced
+        files.sort(Comparator.comparingInt((Path file) -> firstNumber(file.getFileName().toString()))
+                .thenComparing(file -> -lastNumber(file.getFileName().toString())));
+        List<ArchiveSegment> live = new ArrayList<>(files.size());
+        int covered = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (lastNumber(name) <= covered) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            live.add(ArchiveSegment.open(file));
+            covered = lastNumber(name);
+        }
+        return live;
+    }
+    
+    @PreDestroy
+    public void close() {
+        writeLock.lock();
+        try {
+            deleteReplaced(Long.MAX_VALUE);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    // ==================== Writing ====================
+    
+    /**
+     * Write orders to a new segment; they are readable from the archive once this returns
+     */
+    public void archiveOrders(Collection<Order> orders) {
+        if (enabled && !orders.isEmpty()) {
+            writeSegment(orderSegments, JournalRecordType.ORDER, ORDERS_SUFFIX, orders,
+                    Order::getUserId, Order::getOrderId, JournalCodec::writeOrder);
+        }
+    }
+    
+    /**
+     * Write trades to a new segment; they are readable from the archive once this returns
+     */
+    public void archiveTrades(Collection<Trade> trades) {
+        if (enabled && !trades.isEmpty()) {
+            writeSegment(tradeSegments, JournalRecordType.TRADE, TRADES_SUFFIX, trades,
+                    Trade::getUserId, Trade::getTradeId, JournalCodec::writeTrade);
+        }
+    }
+    
+    private <T> void writeSegment(List<ArchiveSegment> segments, JournalRecordType type, String suffix,
+                                  Collection<T> records, Function<T, String> userOf, Function<T, String> idOf,
+                                  BiConsumer<ByteBuffer, T> encoder) {
+        Map<String, List<T>> byUser = records.stream()
+                .sorted(Comparator.comparing(idOf))
+                .collect(Collectors.groupingBy(userOf, TreeMap::new, Collectors.toList()));
+        
+        writeLock.lock();
+        try {
+            deleteReplaced(System.nanoTime() - TimeUnit.SECONDS.toNanos(DELETE_DELAY_SECONDS));
+            Path path = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, nextSegment++, suffix));
+            segments.add(ArchiveSegment.write(path, type, byUser.keySet(), byUser::get, idOf, encoder));
+            mergeNewest(segments, type, suffix, idOf, encoder);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write archive segment to " + directory, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Merge the newest segments while {@value #MERGE_FACTOR} of them share a size tier; called holding writeLock
+     */
+    private <T> void mergeNewest(List<ArchiveSegment> segments, JournalRecordType type, String suffix,
+                                 Function<T, String> idOf, BiConsumer<ByteBuffer, T> encoder) throws IOException {
+        while (true) {
+            int last = segments.size() - 1;
+            int tier = tier(segments.get(last));
+            int first = last;
+            while (first > 0 && tier(segments.get(first - 1)) <= tier) {
+                first--;
+            }
+            if (last - first + 1 < MERGE_FACTOR) {
+                return;
+            }
+            
+            long start = System.nanoTime();
+            List<ArchiveSegment> inputs = new ArrayList<>(segments.subList(first, last + 1));
+            Set<String> users = new TreeSet<>();
+            inputs.forEach(segment -> users.addAll(segment.getUsers()));
+            Path path = directory.resolve(String.format("%s%08d-%08d%s", SEGMENT_PREFIX,
+                    firstNumber(inputs.get(0).getName()), lastNumber(inputs.get(inputs.size() - 1).getName()), suffix));
+            ArchiveSegment merged = ArchiveSegment.write(path, type, users,
+                    userId -> this.<T>readUser(inputs, userId, idOf), idOf, encoder);
+            
+            // Queries in between see records in both; their merge keeps one copy
+            segments.add(merged);
+            segments.removeAll(inputs);
+            long now = System.nanoTime();
+            inputs.forEach(segment -> replaced.put(segment, now));
+            log.info("Merged {} archive segments into {} ({} records) in {} ms", inputs.size(), merged.getName(),
+                    merged.getRecords(), (now - start) / 1_000_000);
+        }
+    }
+    
+    /**
+     * A user's records from several segments in ID order, each ID once
+     */
+    private <T> List<T> readUser(List<ArchiveSegment> segments, String userId, Function<T, String> idOf) {
+        Map<String, T> byId = new TreeMap<>();
+        for (ArchiveSegment segment : segments) {
+            for (ArchiveSegment.Block block : segment.getBlocks(userId)) {
+                for (T record : this.<T>decode(segment, block)) {
+                    byId.put(idOf.apply(record), record);
+                }
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+    
+    /**
+     * Delete the files of segments replaced before a time; called holding writeLock
+     */
+    private void deleteReplaced(long replacedBefore) {
+        Iterator<Map.Entry<ArchiveSegment, Long>> entries = replaced.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<ArchiveSegment, Long> entry = entries.next();
+            if (entry.getValue() - replacedBefore > 0) {
+                return;
+            }
+            try {
+                entry.getKey().delete();
+            } catch (IOException e) {
+                // Deleted on the next open instead, as a merged file covers it
+                log.warn("Unable to delete archive segment {}", entry.getKey().getName(), e);
+            }
+            entries.remove();
+        }
+    }
+    
+    private static int tier(ArchiveSegment segment) {
+        int tier = 0;
+        for (long records = segment.getRecords(); records >= MERGE_FACTOR; records /= MERGE_FACTOR) {
+            tier++;
+        }
+        return tier;
+    }
+    
+    // ==================== Reading ====================
+    
+    /**
+     * An archived order by ID, only if it belongs to the user
+     */
+    public Optional<Order> findOrder(String userId, String orderId) {
+        for (ArchiveSegment segment : orderSegments) {
+            ArchiveSegment.Block block = segment.spans(orderId) ? segment.getBlock(userId, orderId) : null;
+            if (block != null) {
+                for (Order order : this.<Order>decode(segment, block)) {
+                    if (order.getOrderId().equals(orderId)) {
+                        return Optional.of(order);
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Merge a user's archived orders into their newest-first in-memory orders
+     *
+     * @param fromId   lowest order ID to include, or null
+     * @param beforeId only include orders with a lower ID, or null
+     */
+    public Stream<Order> mergeOrders(Stream<Order> inMemory, String userId, String fromId, String beforeId) {
+        return merge(inMemory, orderSegments, userId, fromId, beforeId, Order::getOrderId);
+    }
+    
+    /**
+     * Merge a user's archived trades into their newest-first in-memory trades
+     *
+     * @param fromId   lowest trade ID to include, or null
+     * @param beforeId only include trades with a lower ID, or null
+     */
+    public Stream<Trade> mergeTrades(Stream<Trade> inMemory, String userId, String fromId, String beforeId) {
+        return merge(inMemory, tradeSegments, userId, fromId, beforeId, Trade::getTradeId);
+    }
+    
+    /**
+     * Visit every archived trade once, user by user
+     */
+    public void forEachTrade(Consumer<Trade> action) {
+        Set<String> users = new TreeSet<>();
+        for (ArchiveSegment segment : tradeSegments) {
+            users.addAll(segment.getUsers());
+        }
+        for (String userId : users) {
+            mergeTrades(Stream.empty(), userId, null, null).forEach(action);
+        }
+    }
+    
+    private <T> Stream<T> merge(Stream<T> inMemory, List<ArchiveSegment> segments, String userId,
+                                String fromId, String beforeId, Function<T, String> idOf) {
+        List<NewestFirst.Source<T>> sources = new ArrayList<>();
+        for (ArchiveSegment segment : segments) {
+            for (ArchiveSegment.Block block : segment.getBlocks(userId)) {
+                if (block.overlaps(fromId, beforeId)) {
+                    sources.add(NewestFirst.Source.of(block.lastId,
+                            () -> newestFirst(this.<T>decode(segment, block), idOf, fromId, beforeId)));
+                }
+            }
+        }
+        if (sources.isEmpty()) {
+            return inMemory;
+        }
+        // A record archived just before it was dropped from memory is in both; the merge keeps one
+        sources.add(NewestFirst.Source.of(inMemory));
+        return NewestFirst.merge(idOf, sources);
+    }
+    
+    private static <T> Iterator<T> newestFirst(List<T> block, Function<T, String> idOf, String fromId, String beforeId) {
+        List<T> matching = new ArrayList<>(block.size());
+        for (int i = block.size() - 1; i >= 0; i--) {
+            String id = idOf.apply(block.get(i));
+            if ((fromId == null || id.compareTo(fromId) >= 0) && (beforeId == null || id.compareTo(beforeId) < 0)) {
+                matching.add(block.get(i));
+            }
+        }
+        return matching.iterator();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> List<T> decode(ArchiveSegment segment, ArchiveSegment.Block block) {
+        BlockReader reader = new BlockReader(block.records);
+        JournalCodec.readRecords(segment.read(block), 0, reader, "Archive segment " + segment.getName());
+        return (List<T>) reader.records;
+    }
+    
+    /**
+     * Highest archived order ID, or null if none are archived
+     */
+    public String getHighestOrderId() {
+        return highestId(orderSegments);
+    }
+    
+    /**
+     * Highest archived trade ID, or null if none are archived
+     */
+    public String getHighestTradeId() {
+        return highestId(tradeSegments);
+    }
+    
+    private static String highestId(List<ArchiveSegment> segments) {
+        String highest = null;
+        for (ArchiveSegment segment : segments) {
+            String id = segment.getHighestId();
+            if (id != null && (highest == null || id.compareTo(highest) > 0)) {
+                highest = id;
+            }
+        }
+        return highest;
+    }
+    
+    public long getOrderCount() {
+        return orderSegments.stream().mapToLong(ArchiveSegment::getRecords).sum();
+    }
+    
+    public long getTradeCount() {
+        return tradeSegments.stream().mapToLong(ArchiveSegment::getRecords).sum();
+    }
+    
+    public int getSegmentCount() {
+        return orderSegments.size() + tradeSegments.size();
+    }
+    
+    /**
+     * First segment number a file holds: {@code archive-00000003.orders} holds 3,
+     * {@code archive-00000001-00000010.orders} holds 1 to 10
+     */
+    private static int firstNumber(String name) {
+        String numbers = segmentNumbers(name);
+        int dash = numbers.indexOf('-');
+        return Integer.parseInt(dash < 0 ? numbers : numbers.substring(0, dash));
+    }
+    
+    private static int lastNumber(String name) {
+        String numbers = segmentNumbers(name);
+        return Integer.parseInt(numbers.substring(numbers.indexOf('-') + 1));
+    }
+    
+    private static String segmentNumbers(String name) {
+        return name.substring(SEGMENT_PREFIX.length(), name.indexOf('.'));
+    }
+    
+    /**
+     * Collects a block's records, re-resolving instrument IDs as recovery does
+     * (IDs are only assigned for the current run)
+     */
+    private class BlockReader implements JournalHandler {
+        
+        private final List<Object> records;
+        
+        BlockReader(int expectedRecords) {
+            this.records = new ArrayList<>(expectedRecords);
+        }
+        
+        @Override
+        public void onOrder(Order order) {
+            int instrumentId = instrumentRepository.resolveId(order.getSymbol(), order.getExchange());
+            if (instrumentId != InstrumentRepository.UNKNOWN_ID) {
+                order.setInstrumentId(instrumentId);
+                order.setSymbol(instrumentRepository.getSymbol(instrumentId));
+                order.setExchange(instrumentRepository.getExchange(instrumentId));
+            }
+            records.add(order);
+        }
+        
+        @Override
+        public void onTrade(Trade trade) {
+            int instrumentId = instrumentRepository.resolveId(trade.getSymbol(), trade.getExchange());
+            if (instrumentId != InstrumentRepository.UNKNOWN_ID) {
+                trade.setInstrumentId(instrumentId);
+                trade.setSymbol(instrumentRepository.getSymbol(instrumentId));
+                trade.setExchange(instrumentRepository.getExchange(instrumentId));
+            }
+            records.add(trade);
+        }
+        
+        @Override
+        public void onHolding(PortfolioHolding holding) {
+        }
+        
+        @Override
+        public void onHoldingDeleted(String userId, String symbol, String exchange) {
+        }
+        
+        @Override
+        public void onInstrument(Instrument instrument) {
+        }
+        
+        @Override
+        public void onOrderEvicted(String orderId) {
+        }
+        
+        @Override
+        public void onTradeEvicted(String tradeId) {
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.bajaj.tradingsdk.journal;
+
+import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import com.bajaj.tradingsdk.model.Trade;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only write-ahead journal of repository changes.
+ *
+ * Records are appended to fixed-size memory-mapped segment files using the
+ * framing in {@link JournalCodec}. Appends only copy
+ * into the mapped region; a background thread forces dirty segments to disk
+ * every flush interval, so one fsync covers every record written in that
+ * window (group commit).
+ *
+ * Every run writes to a new segment, so replay never has to find the end of a
+ * previous run's (possibly torn) last segment.
+ */
+@Component
+@Slf4j
+public class Journal {
+    
+    static final int MAGIC = 0x54534A4C;  // "TSJL"
+    static final int FORMAT_VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 8;
+    
+    private static final int MAX_RECORD_SIZE = 16 * 1024;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalNanos;
+    
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ThreadLocal<ByteBuffer> scratchBuffers =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(MAX_RECORD_SIZE));
+    
+    // Guarded by writeLock
+    private FileChannel channel;
+    private int segmentIndex;
+    private int writeOffset;
+    
+    private volatile MappedByteBuffer segment;
+    private volatile long writePosition;
+    private volatile long flushedPosition;
+    private volatile boolean running;
+    private int firstWriteSegment;
+    private Thread flusher;
+    
+    @Autowired
+    public Journal(@Value("${trading.journal.enabled:false}") boolean enabled,
+                   @Value("${trading.journal.dir:data/journal}") String directory,
+                   @Value("${trading.journal.segment-size-mb:64}") int segmentSizeMb,
+                   @Value("${trading.journal.flush-interval-ms:2}") long flushIntervalMs) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+    }
+    
+    /**
+     * A journal that records nothing (e.g. for benchmarks and tests)
+     */
+    public static Journal disabled() {
+        return new Journal(false, "", 0, 1);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            log.info("Journal is disabled - state will not survive a restart");
+            return;
+        }
+        
+        try {
+            Files.createDirectories(directory);
+            List<Integer> existing = listSegments();
+            firstWriteSegment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+            
+            writeLock.lock();
+            try {
+                openSegment(firstWriteSegment);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open journal at " + directory, e);
+        }
+        
+        running = true;
+        flusher = new Thread(this::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        
+        log.info("Journal opened at {} (writing segment {})", directory.toAbsolutePath(), firstWriteSegment);
+    }
+    
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (!enabled || !running) {
+            return;
+        }
+        
+        running = false;
+        LockSupport.unpark(flusher);
+        flusher.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) * 10 + 1_000);
+        
+        writeLock.lock();
+        try {
+            segment.force();
+            flushedPosition = writePosition;
+            channel.close();
+        } catch (IOException e) {
+            log.error("Error closing journal", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    // ==================== Appending ====================
+    
+    public void appendOrder(Order order) {
+        if (enabled) {
+            ByteBuffer buffer = scratchBuffer();
+            JournalCodec.beginRecord(buffer, JournalRecordType.ORDER);
+            JournalCodec.writeOrder(buffer, order);
+            append(buffer);
+        }
+    }
+    
+    public void appendTrade(Trade trade) {
+        if (enabled) {
+            ByteBuffer buffer = scratchBuffer();
+            JournalCodec.beginRecord(buffer, JournalRecordType.TRADE);
+            JournalCodec.writeTrade(buffer, trade);
+            append(buffer);
+        }
+    }
+    
+    public void appendHolding(PortfolioHolding holding) {
+        if (enabled) {
+            ByteBuffer buffer = scratchBuffer();
+            JournalCodec.beginRecord(buffer, JournalRecordType.HOLDING);
+            JournalCodec.writeHolding(buffer, holding);
+            append(buffer);
+        }
+    }
+    
+    public void appendInstrument(Instrument instrument) {
+        if (enabled) {
+            ByteBuffer buffer = scratchBuffer();
+            JournalCodec.beginRecord(buffer, JournalRecordType.INSTRUMENT);
+            JournalCodec.writeInstrument(buffer, instrument);
+            append(buffer);
+        }
+    }
+    
+    public void appendHoldingDelete(String userId, String symbol, String exchange) {
+        if (enabled) {
+            ByteBuffer buffer = scratchBuffer();
+            JournalCodec.beginRecord(buffer, JournalRecordType.HOLDING_DELETE);
+            JournalCodec.writeHoldingDelete(buffer, userId, symbol, exchange);
+            append(buffer);
+        }
+    }
+    
+    public void appendOrderEvict(String orderId) {
+        if (enabled) {
+            ByteBuffer buffer = scratchBuffer();
+            JournalCodec.beginRecord(buffer, JournalRecordType.ORDER_EVICT);
+            JournalCodec.putString(buffer, orderId);
+            append(buffer);
+        }
+    }
+    
+    public void appendTradeEvict(String tradeId) {
+        if (enabled) {
+            ByteBuffer buffer = scratchBuffer();
+            JournalCodec.beginRecord(buffer, JournalRecordType.TRADE_EVICT);
+            JournalCodec.putString(buffer, tradeId);
+            append(buffer);
+        }
+    }
+    
+    /**
+     * Position just after the last appended record, as {@code segment << 32 | offset}
+     */
+    public long getPosition() {
+        return writePosition;
+    }
+    
+    /**
+     * Position up to which records are known to be on disk
+     */
+    public long getFlushedPosition() {
+        return flushedPosition;
+    }
+    
+    /**
+     * Force everything appended so far to disk
+     */
+    public void flush() {
+        long target = writePosition;
+        if (target == flushedPosition) {
+            return;
+        }
+        // A segment rolled after reading target was already forced when it was rolled
+        segment.force();
+        flushedPosition = target;
+    }
+    
+    private ByteBuffer scratchBuffer() {
+        ByteBuffer buffer = scratchBuffers.get();
+        buffer.clear();
+        return buffer;
+    }
+    
+    private void append(ByteBuffer buffer) {
+        JournalCodec.endRecord(buffer, 0);
+        int frameLength = buffer.position();
+        
+        writeLock.lock();
+        try {
+            if (writeOffset + frameLength > segmentSize) {
+                rollSegment();
+            }
+            segment.put(writeOffset, buffer, 0, frameLength);
+            writeOffset += frameLength;
+            writePosition = position(segmentIndex, writeOffset);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    private void rollSegment() {
+        try {
+            segment.force();
+            channel.close();
+            openSegment(segmentIndex + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to roll journal segment", e);
+        }
+    }
+    
+    private void openSegment(int index) throws IOException {
+        channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        mapped.putInt(0, MAGIC);
+        mapped.putInt(4, FORMAT_VERSION);
+        
+        segmentIndex = index;
+        writeOffset = SEGMENT_HEADER_SIZE;
+        segment = mapped;
+        writePosition = position(segmentIndex, writeOffset);
+    }
+    
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Journal flush failed", e);
+            }
+        }
+    }
+    
+    // ==================== Replay ====================
+    
+    /**
+     * Replay every record written by previous runs
+     *
+     * @return number of records replayed
+     */
+    public long replay(JournalHandler handler) {
+        return replay(0L, handler);
+    }
+    
+    /**
+     * Replay records written by previous runs, starting at the given position
+     *
+     * @return number of records replayed
+     */
+    public long replay(long fromPosition, JournalHandler handler) {
+        if (!enabled) {
+            return 0;
+        }
+        
+        long records = 0;
+        try {
+            for (int index : listSegments()) {
+                if (index >= firstWriteSegment || index < segmentOf(fromPosition)) {
+                    continue;
+                }
+                int startOffset = index == segmentOf(fromPosition)
+                        ? Math.max(SEGMENT_HEADER_SIZE, offsetOf(fromPosition))
+                        : SEGMENT_HEADER_SIZE;
+                records += replaySegment(index, startOffset, handler);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to replay journal at " + directory, e);
+        }
+        return records;
+    }
+    
+    private long replaySegment(int index, int startOffset, JournalHandler handler) throws IOException {
+        try (FileChannel readChannel = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            if (mapped.limit() < SEGMENT_HEADER_SIZE || mapped.getInt(0) != MAGIC) {
+                log.warn("Skipping journal segment {} with an invalid header", index);
+                return 0;
+            }
+            return JournalCodec.readRecords(mapped, startOffset, handler, "Journal segment " + index);
+        }
+    }
+    
+    // ==================== Segment files ====================
+    
+    /**
+     * Delete segments that lie entirely before the given position, once a
+     * snapshot covers everything they contain
+     *
+     * @return number of segments deleted
+     */
+    public int deleteSegmentsBefore(long position) {
+        if (!enabled) {
+            return 0;
+        }
+        
+        int deleted = 0;
+        try {
+            for (int index : listSegments()) {
+                if (index < segmentOf(position)) {
+                    Files.deleteIfExists(segmentPath(index));
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to delete old journal segments in " + directory, e);
+        }
+        return deleted;
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    private List<Integer> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+    
+    static long position(int segment, int offset) {
+        return ((long) segment << 32) | (offset & 0xFFFFFFFFL);
+    }
+    
+    static int segmentOf(long position) {
+        return (int) (position >>> 32);
+    }
+    
+    static int offsetOf(long position) {
+        return (int) position;
+    }
+}
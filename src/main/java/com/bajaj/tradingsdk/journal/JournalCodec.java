@@ -0,0 +1,305 @@
+package com.bajaj.tradingsdk.journal;
+
+import com.bajaj.tradingsdk.model.*;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary encoding of journal and snapshot records.
+ *
+ * Records are framed as {@code [int length][byte type][payload][int crc32c]},
+ * where the checksum covers the type and payload. A zero length marks the end
+ * of the written data.
+ *
+ * Nullable values use sentinels instead of presence flags: strings and enums
+ * use a length/ordinal of -1, integers {@link Integer#MIN_VALUE}, doubles NaN
+ * and timestamps {@link Long#MIN_VALUE}. Derived fields (e.g. portfolio
+ * P&L) are not written since they are recomputed on read.
+ */
+@Slf4j
+final class JournalCodec {
+    
+    static final int FRAME_HEADER_SIZE = 5;  // length + type
+    static final int CHECKSUM_SIZE = 4;
+    
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    private static final OrderStyle[] ORDER_STYLES = OrderStyle.values();
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
+    private static final InstrumentType[] INSTRUMENT_TYPES = InstrumentType.values();
+    
+    private static final ThreadLocal<CRC32C> CHECKSUMS = ThreadLocal.withInitial(CRC32C::new);
+    
+    private JournalCodec() {
+    }
+    
+    // ==================== Framing ====================
+    
+    /**
+     * Start a record at the buffer's position; the buffer must be heap-backed
+     *
+     * @return the record's start offset, to pass to {@link #endRecord}
+     */
+    static int beginRecord(ByteBuffer buffer, JournalRecordType type) {
+        int start = buffer.position();
+        buffer.putInt(0);
+        buffer.put(type.getCode());
+        return start;
+    }
+    
+    /**
+     * Fill in the length and append the checksum of a record started with {@link #beginRecord}
+     */
+    static void endRecord(ByteBuffer buffer, int start) {
+        int payloadLength = buffer.position() - start - FRAME_HEADER_SIZE;
+        buffer.putInt(start, payloadLength);
+        
+        CRC32C checksum = CHECKSUMS.get();
+        checksum.reset();
+        checksum.update(buffer.array(), buffer.arrayOffset() + start + 4, payloadLength + 1);
+        buffer.putInt((int) checksum.getValue());
+    }
+    
+    /**
+     * Decode framed records from {@code offset} until the end marker, the end of
+     * the data or a record with a bad checksum (a torn write)
+     *
+     * @return the number of records decoded
+     */
+    static long readRecords(ByteBuffer data, int offset, JournalHandler handler, String source) {
+        CRC32C checksum = CHECKSUMS.get();
+        long records = 0;
+        while (offset + FRAME_HEADER_SIZE + CHECKSUM_SIZE <= data.limit()) {
+            int payloadLength = data.getInt(offset);
+            if (payloadLength <= 0 || offset + FRAME_HEADER_SIZE + payloadLength + CHECKSUM_SIZE > data.limit()) {
+                break;
+            }
+            
+            checksum.reset();
+            checksum.update(data.slice(offset + 4, payloadLength + 1));
+            if ((int) checksum.getValue() != data.getInt(offset + FRAME_HEADER_SIZE + payloadLength)) {
+                log.warn("{} has a torn record at offset {} - ignoring the rest of it", source, offset);
+                break;
+            }
+            
+            JournalRecordType type = JournalRecordType.fromCode(data.get(offset + 4));
+            dispatch(type, data.slice(offset + FRAME_HEADER_SIZE, payloadLength), handler);
+            records++;
+            offset += FRAME_HEADER_SIZE + payloadLength + CHECKSUM_SIZE;
+        }
+        return records;
+    }
+    
+    private static void dispatch(JournalRecordType type, ByteBuffer payload, JournalHandler handler) {
+        switch (type) {
+            case ORDER -> handler.onOrder(readOrder(payload));
+            case TRADE -> handler.onTrade(readTrade(payload));
+            case HOLDING -> handler.onHolding(readHolding(payload));
+            case HOLDING_DELETE -> handler.onHoldingDeleted(getString(payload), getString(payload), getString(payload));
+            case INSTRUMENT -> handler.onInstrument(readInstrument(payload));
+            case ORDER_EVICT -> handler.onOrderEvicted(getString(payload));
+            case TRADE_EVICT -> handler.onTradeEvicted(getString(payload));
+        }
+    }
+    
+    // ==================== Orders ====================
+    
+    static void writeOrder(ByteBuffer buffer, Order order) {
+        putString(buffer, order.getOrderId());
+        putString(buffer, order.getSymbol());
+        putString(buffer, order.getExchange());
+        putEnum(buffer, order.getOrderType());
+        putEnum(buffer, order.getOrderStyle());
+        putInteger(buffer, order.getQuantity());
+        putInteger(buffer, order.getFilledQuantity());
+        putDouble(buffer, order.getPrice());
+        putEnum(buffer, order.getStatus());
+        putTime(buffer, order.getCreatedAt());
+        putTime(buffer, order.getUpdatedAt());
+        putString(buffer, order.getUserId());
+        putDouble(buffer, order.getTriggerPrice());
+        putTime(buffer, order.getTriggeredAt());
+        putString(buffer, order.getClientOrderId());
+        putDouble(buffer, order.getAverageFillPrice());
+    }
+    
+    static Order readOrder(ByteBuffer buffer) {
+        return Order.builder()
+                .orderId(getString(buffer))
+                .symbol(getString(buffer))
+                .exchange(getString(buffer))
+                .orderType(getEnum(buffer, ORDER_TYPES))
+                .orderStyle(getEnum(buffer, ORDER_STYLES))
+                .quantity(getInteger(buffer))
+                .filledQuantity(getInteger(buffer))
+                .price(getDouble(buffer))
+                .status(getEnum(buffer, ORDER_STATUSES))
+                .createdAt(getTime(buffer))
+                .updatedAt(getTime(buffer))
+                .userId(getString(buffer))
+                // Fields appended later (stop orders, client order ID, average fill price) are absent from older records
+                .triggerPrice(buffer.hasRemaining() ? getDouble(buffer) : null)
+                .triggeredAt(buffer.hasRemaining() ? getTime(buffer) : null)
+                .clientOrderId(buffer.hasRemaining() ? getString(buffer) : null)
+                .averageFillPrice(buffer.hasRemaining() ? getDouble(buffer) : null)
+                .build();
+    }
+    
+    // ==================== Trades ====================
+    
+    static void writeTrade(ByteBuffer buffer, Trade trade) {
+        putString(buffer, trade.getTradeId());
+        putString(buffer, trade.getOrderId());
+        putString(buffer, trade.getSymbol());
+        putString(buffer, trade.getExchange());
+        putEnum(buffer, trade.getTradeType());
+        putInteger(buffer, trade.getQuantity());
+        putDouble(buffer, trade.getExecutionPrice());
+        putDouble(buffer, trade.getTotalValue());
+        putTime(buffer, trade.getExecutedAt());
+        putString(buffer, trade.getUserId());
+    }
+    
+    static Trade readTrade(ByteBuffer buffer) {
+        return Trade.builder()
+                .tradeId(getString(buffer))
+                .orderId(getString(buffer))
+                .symbol(getString(buffer))
+                .exchange(getString(buffer))
+                .tradeType(getEnum(buffer, ORDER_TYPES))
+                .quantity(getInteger(buffer))
+                .executionPrice(getDouble(buffer))
+                .totalValue(getDouble(buffer))
+                .executedAt(getTime(buffer))
+                .userId(getString(buffer))
+                .build();
+    }
+    
+    // ==================== Holdings ====================
+    
+    static void writeHolding(ByteBuffer buffer, PortfolioHolding holding) {
+        putString(buffer, holding.getUserId());
+        putString(buffer, holding.getSymbol());
+        putString(buffer, holding.getExchange());
+        putInteger(buffer, holding.getQuantity());
+        putDouble(buffer, holding.getAveragePrice());
+    }
+    
+    static PortfolioHolding readHolding(ByteBuffer buffer) {
+        return PortfolioHolding.builder()
+                .userId(getString(buffer))
+                .symbol(getString(buffer))
+                .exchange(getString(buffer))
+                .quantity(getInteger(buffer))
+                .averagePrice(getDouble(buffer))
+                .build();
+    }
+    
+    static void writeHoldingDelete(ByteBuffer buffer, String userId, String symbol, String exchange) {
+        putString(buffer, userId);
+        putString(buffer, symbol);
+        putString(buffer, exchange);
+    }
+    
+    // ==================== Instruments ====================
+    
+    static void writeInstrument(ByteBuffer buffer, Instrument instrument) {
+        putString(buffer, instrument.getSymbol());
+        putString(buffer, instrument.getExchange());
+        putEnum(buffer, instrument.getInstrumentType());
+        putDouble(buffer, instrument.getLastTradedPrice());
+    }
+    
+    static Instrument readInstrument(ByteBuffer buffer) {
+        return Instrument.builder()
+                .symbol(getString(buffer))
+                .exchange(getString(buffer))
+                .instrumentType(getEnum(buffer, INSTRUMENT_TYPES))
+                .lastTradedPrice(getDouble(buffer))
+                .build();
+    }
+    
+    // ==================== Primitives ====================
+    
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        
+        // Fast path for ASCII (symbols, IDs): write chars directly without a byte[] copy
+        int length = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        
+        if (ascii) {
+            buffer.putShort((short) length);
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+    
+    static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static void putEnum(ByteBuffer buffer, Enum<?> value) {
+        buffer.put(value == null ? (byte) -1 : (byte) value.ordinal());
+    }
+    
+    private static <E extends Enum<E>> E getEnum(ByteBuffer buffer, E[] values) {
+        byte ordinal = buffer.get();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+    
+    private static void putInteger(ByteBuffer buffer, Integer value) {
+        buffer.putInt(value == null ? Integer.MIN_VALUE : value);
+    }
+    
+    private static Integer getInteger(ByteBuffer buffer) {
+        int value = buffer.getInt();
+        return value == Integer.MIN_VALUE ? null : value;
+    }
+    
+    private static void putDouble(ByteBuffer buffer, Double value) {
+        buffer.putDouble(value == null ? Double.NaN : value);
+    }
+    
+    private static Double getDouble(ByteBuffer buffer) {
+        double value = buffer.getDouble();
+        return Double.isNaN(value) ? null : value;
+    }
+    
+    private static void putTime(ByteBuffer buffer, LocalDateTime value) {
+        if (value == null) {
+            buffer.putLong(Long.MIN_VALUE);
+            buffer.putInt(0);
+        } else {
+            buffer.putLong(value.toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(value.getNano());
+        }
+    }
+    
+    private static LocalDateTime getTime(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,35 @@
+package com.bajaj.tradingsdk.journal;
+
+import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import com.bajaj.tradingsdk.model.Trade;
+
+/**
+ * Callback for records read back from a snapshot or the journal, in the order they were written
+ */
+public interface JournalHandler {
+    
+    void onOrder(Order order);
+    
+    void onTrade(Trade trade);
+    
+    void onHolding(PortfolioHolding holding);
+    
+    void onHoldingDeleted(String userId, String symbol, String exchange);
+    
+    /**
+     * Instruments are journaled when saved; later price ticks are only captured by snapshots
+     */
+    void onInstrument(Instrument instrument);
+    
+    /**
+     * The order was moved to the {@link HistoryArchive} and dropped from memory
+     */
+    void onOrderEvicted(String orderId);
+    
+    /**
+     * The trade was moved to the {@link HistoryArchive} and dropped from memory
+     */
+    void onTradeEvicted(String tradeId);
+}
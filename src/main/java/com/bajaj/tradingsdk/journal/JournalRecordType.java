@@ -0,0 +1,33 @@
+package com.bajaj.tradingsdk.journal;
+
+/**
+ * Types of records written to the journal
+ */
+public enum JournalRecordType {
+    ORDER((byte) 1),
+    TRADE((byte) 2),
+    HOLDING((byte) 3),
+    HOLDING_DELETE((byte) 4),
+    INSTRUMENT((byte) 5),
+    ORDER_EVICT((byte) 6),
+    TRADE_EVICT((byte) 7);
+    
+    private final byte code;
+    
+    JournalRecordType(byte code) {
+        this.code = code;
+    }
+    
+    public byte getCode() {
+        return code;
+    }
+    
+    public static JournalRecordType fromCode(byte code) {
+        for (JournalRecordType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown journal record type: " + code);
+    }
+}
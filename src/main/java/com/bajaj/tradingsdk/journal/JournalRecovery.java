@@ -0,0 +1,178 @@
+package com.bajaj.tradingsdk.journal;
+
+import com.bajaj.tradingsdk.engine.MatchingEngine;
+import com.bajaj.tradingsdk.engine.TriggerEngine;
+import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderStatus;
+import com.bajaj.tradingsdk.model.OrderStyle;
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import com.bajaj.tradingsdk.model.Trade;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import com.bajaj.tradingsdk.repository.TradeRepository;
+import com.bajaj.tradingsdk.util.IdGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Rebuilds in-memory state at startup, before any requests or sample data
+ * initialization run: loads the latest snapshot, then replays only the
+ * journal written after it. The {@link IdGenerator} is then moved past every
+ * recovered and archived order and trade ID, so new IDs cannot repeat them
+ * even if the clock is behind.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JournalRecovery {
+    
+    private final Journal journal;
+    private final SnapshotManager snapshotManager;
+    private final InstrumentRepository instrumentRepository;
+    private final OrderRepository orderRepository;
+    private final TradeRepository tradeRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final MatchingEngine matchingEngine;
+    private final TriggerEngine triggerEngine;
+    private final HistoryArchive historyArchive;
+    private final IdGenerator idGenerator;
+    
+    @PostConstruct
+    public void recover() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        RepositoryRestorer restorer = new RepositoryRestorer();
+        long snapshotPosition = snapshotManager.loadLatest(restorer);
+        long records = journal.replay(snapshotPosition, restorer);
+        int restingOrders = rebuildOrderBooks();
+        idGenerator.advancePast(restorer.highestOrderId);
+        idGenerator.advancePast(restorer.highestTradeId);
+        idGenerator.advancePast(historyArchive.getHighestOrderId());
+        idGenerator.advancePast(historyArchive.getHighestTradeId());
+        
+        log.info("Recovered state in {} ms ({} journal records after snapshot): {} orders ({} resting, {} stops pending), {} trades, {} holdings",
+                (System.nanoTime() - start) / 1_000_000, records, orderRepository.count(), restingOrders, triggerEngine.getPendingCount(),
+                tradeRepository.count(), portfolioRepository.count());
+    }
+    
+    /**
+     * Put open LIMIT and triggered STOP_LIMIT orders back into their books, oldest first
+     * to keep time priority, and untriggered stop orders back into the trigger engine.
+     * Open orders whose execution was cut short (MARKET orders, triggered STOP orders and
+     * orders never placed) can't resume, so they are cancelled and the cancel journaled;
+     * left open, they would hold buying power or holdings until cancelled by hand.
+     */
+    private int rebuildOrderBooks() {
+        int resting = 0;
+        int cancelled = 0;
+        List<Order> open = orderRepository.findOpen();
+        open.sort(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getOrderId));
+        for (Order order : open) {
+            boolean placed = order.getStatus() == OrderStatus.PLACED || order.getStatus() == OrderStatus.PARTIALLY_FILLED;
+            boolean triggered = order.getTriggeredAt() != null;
+            boolean resumable = placed && switch (order.getOrderStyle()) {
+                case MARKET -> false;
+                case LIMIT -> true;
+                case STOP -> !triggered;
+                case STOP_LIMIT -> true;
+            };
+            if (!resumable) {
+                order.setStatus(OrderStatus.CANCELLED);
+                order.setUpdatedAt(LocalDateTime.now());
+                orderRepository.save(order);
+                cancelled++;
+            } else if (order.getOrderStyle() != OrderStyle.LIMIT && !triggered) {
+                triggerEngine.restore(order);
+            } else {
+                matchingEngine.getBook(order.getInstrumentId()).add(order, order.getRemainingQuantity());
+                resting++;
+            }
+        }
+        if (cancelled > 0) {
+            log.warn("Cancelled {} open orders that were interrupted mid-execution", cancelled);
+        }
+        return resting;
+    }
+    
+    private static String higher(String highest, String id) {
+        return highest == null || id.compareTo(highest) > 0 ? id : highest;
+    }
+    
+    private class RepositoryRestorer implements JournalHandler {
+        
+        // Records carry symbol and exchange; IDs are re-resolved, and the canonical
+        // strings shared, because IDs are only assigned for the current run
+        
+        // Including records evicted later in the replay, which are in the archive
+        private String highestOrderId;
+        private String highestTradeId;
+        
+        @Override
+        public void onOrder(Order order) {
+            highestOrderId = higher(highestOrderId, order.getOrderId());
+            int instrumentId = resolveId(order.getSymbol(), order.getExchange());
+            order.setInstrumentId(instrumentId);
+            order.setSymbol(instrumentRepository.getSymbol(instrumentId));
+            order.setExchange(instrumentRepository.getExchange(instrumentId));
+            orderRepository.restore(order);
+        }
+        
+        @Override
+        public void onTrade(Trade trade) {
+            highestTradeId = higher(highestTradeId, trade.getTradeId());
+            int instrumentId = resolveId(trade.getSymbol(), trade.getExchange());
+            trade.setInstrumentId(instrumentId);
+            trade.setSymbol(instrumentRepository.getSymbol(instrumentId));
+            trade.setExchange(instrumentRepository.getExchange(instrumentId));
+            tradeRepository.restore(trade);
+        }
+        
+        @Override
+        public void onHolding(PortfolioHolding holding) {
+            int instrumentId = resolveId(holding.getSymbol(), holding.getExchange());
+            holding.setInstrumentId(instrumentId);
+            holding.setSymbol(instrumentRepository.getSymbol(instrumentId));
+            holding.setExchange(instrumentRepository.getExchange(instrumentId));
+            portfolioRepository.restore(holding);
+        }
+        
+        @Override
+        public void onHoldingDeleted(String userId, String symbol, String exchange) {
+            portfolioRepository.restoreDeletion(userId, resolveId(symbol, exchange));
+        }
+        
+        @Override
+        public void onInstrument(Instrument instrument) {
+            instrumentRepository.restore(instrument);
+        }
+        
+        @Override
+        public void onOrderEvicted(String orderId) {
+            orderRepository.restoreEviction(orderId);
+        }
+        
+        @Override
+        public void onTradeEvicted(String tradeId) {
+            tradeRepository.restoreEviction(tradeId);
+        }
+        
+        private int resolveId(String symbol, String exchange) {
+            int instrumentId = instrumentRepository.resolveId(symbol, exchange);
+            if (instrumentId == InstrumentRepository.UNKNOWN_ID) {
+                throw new IllegalStateException("Recovered record references unknown instrument " + symbol + " on " + exchange);
+            }
+            return instrumentId;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.bajaj.tradingsdk.journal;
+
+import com.bajaj.tradingsdk.dto.HistoryFilter;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.Trade;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.repository.TradeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Periodically moves EXECUTED and CANCELLED orders last changed, and trades
+ * executed, more than the retention period ago from the repositories into the
+ * {@link HistoryArchive}, so the in-memory working set (and the heap the GC
+ * has to trace) grows with recent activity rather than with total history.
+ * IDs are time-ordered, so each pass only visits records with IDs below the
+ * cutoff's rather than everything in memory.
+ *
+ * Records are only dropped from memory once their archive segment is on disk,
+ * and each drop is journaled so replay does not bring them back. A crash in
+ * between leaves a record in both places; history queries keep one copy.
+ */
+@Component
+@Slf4j
+public class RetentionManager {
+    
+    private static final String ORDER_ID_PREFIX = "ORD-";
+    private static final String TRADE_ID_PREFIX = "TRD-";
+    
+    private final HistoryArchive archive;
+    private final OrderRepository orderRepository;
+    private final TradeRepository tradeRepository;
+    private final long retentionMinutes;
+    private final long intervalSeconds;
+    
+    private final ReentrantLock archiveLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+    
+    public RetentionManager(HistoryArchive archive,
+                            OrderRepository orderRepository,
+                            TradeRepository tradeRepository,
+                            @Value("${trading.archive.retention-minutes:1440}") long retentionMinutes,
+                            @Value("${trading.archive.interval-seconds:60}") long intervalSeconds) {
+        this.archive = archive;
+        this.orderRepository = orderRepository;
+        this.tradeRepository = tradeRepository;
+        this.retentionMinutes = retentionMinutes;
+        this.intervalSeconds = intervalSeconds;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!archive.isEnabled()) {
+            return;
+        }
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archiveExpired, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        log.info("Archiving orders and trades older than {} minutes every {} seconds", retentionMinutes, intervalSeconds);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+    
+    /**
+     * Archive and drop from memory every finished order last changed, and every
+     * trade executed, before the cutoff
+     *
+     * @return number of records archived
+     */
+    public int archiveBefore(LocalDateTime cutoff) {
+        if (!archive.isEnabled()) {
+            return 0;
+        }
+        
+        archiveLock.lock();
+        try {
+            long start = System.nanoTime();
+            // IDs are time-ordered, so only records with IDs below the cutoff's are scanned
+            HistoryFilter beforeCutoff = HistoryFilter.builder().to(cutoff).build();
+            // Finished orders never change again, so they can be written out while trading carries on
+            List<Order> orders = orderRepository.findFinishedBefore(beforeCutoff.beforeId(ORDER_ID_PREFIX, null), cutoff);
+            List<Trade> trades = tradeRepository.findExecutedBefore(beforeCutoff.beforeId(TRADE_ID_PREFIX, null), cutoff);
+            if (orders.isEmpty() && trades.isEmpty()) {
+                return 0;
+            }
+            
+            archive.archiveOrders(orders);
+            archive.archiveTrades(trades);
+            orders.forEach(orderRepository::evict);
+            trades.forEach(tradeRepository::evict);
+            
+            log.info("Archived {} orders and {} trades in {} ms", orders.size(), trades.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return orders.size() + trades.size();
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+    
+    private void archiveExpired() {
+        try {
+            archiveBefore(LocalDateTime.now().minusMinutes(retentionMinutes));
+        } catch (RuntimeException e) {
+            log.error("Archiving failed", e);
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.bajaj.tradingsdk.journal;
+
+import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import com.bajaj.tradingsdk.repository.TradeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Periodically writes a point-in-time image of all repositories so that
+ * startup only has to replay the journal written since the last snapshot.
+ *
+ * Snapshots are fuzzy: the journal position is recorded first, then the live
+ * maps are read while order placement carries on. Any change made during
+ * the copy is journaled after that position, and replaying a record is
+ * idempotent (it carries the entity's full state), so loading the snapshot and
+ * replaying the journal from its position always converges on a consistent
+ * state. This relies on repositories journaling a change only after it is
+ * visible in their maps.
+ *
+ * Once a snapshot is durable, older snapshots and the journal segments it
+ * covers are deleted.
+ */
+@Component
+@Slf4j
+public class SnapshotManager {
+    
+    static final int MAGIC = 0x5453534E;  // "TSSN"
+    static final int FORMAT_VERSION = 1;
+    
+    // magic, version, journal position, record count
+    private static final int HEADER_SIZE = 24;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+    private static final int MAX_RECORD_SIZE = 16 * 1024;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    
+    private final Journal journal;
+    private final OrderRepository orderRepository;
+    private final TradeRepository tradeRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final InstrumentRepository instrumentRepository;
+    private final boolean enabled;
+    private final long intervalSeconds;
+    private final Path directory;
+    
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+    
+    public SnapshotManager(Journal journal,
+                           OrderRepository orderRepository,
+                           TradeRepository tradeRepository,
+                           PortfolioRepository portfolioRepository,
+                           InstrumentRepository instrumentRepository,
+                           @Value("${trading.snapshot.enabled:true}") boolean enabled,
+                           @Value("${trading.snapshot.interval-seconds:300}") long intervalSeconds) {
+        this.journal = journal;
+        this.orderRepository = orderRepository;
+        this.tradeRepository = tradeRepository;
+        this.portfolioRepository = portfolioRepository;
+        this.instrumentRepository = instrumentRepository;
+        // Snapshots are only meaningful alongside the journal
+        this.enabled = enabled && journal.isEnabled();
+        this.intervalSeconds = intervalSeconds;
+        this.directory = journal.getDirectory();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::takeScheduledSnapshot, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        log.info("Snapshots scheduled every {} seconds", intervalSeconds);
+    }
+    
+    /**
+     * Take a final snapshot so the next startup has nothing to replay
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        
+        scheduler.shutdown();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        takeScheduledSnapshot();
+    }
+    
+    // ==================== Writing ====================
+    
+    /**
+     * Write a snapshot of all repositories and drop the journal segments it covers
+     *
+     * @return the snapshot file
+     */
+    public Path takeSnapshot() {
+        snapshotLock.lock();
+        try {
+            long start = System.nanoTime();
+            // Must be read before copying any state (see class comment)
+            long journalPosition = journal.getPosition();
+            
+            Path temporary = directory.resolve(SNAPSHOT_PREFIX + "in-progress.tmp");
+            long records;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                records = writeSnapshot(channel, journalPosition);
+                channel.force(true);
+            }
+            
+            Path snapshot = snapshotPath(journalPosition);
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            int deletedSnapshots = deleteSnapshotsBefore(journalPosition);
+            int deletedSegments = journal.deleteSegmentsBefore(journalPosition);
+            
+            log.info("Wrote snapshot {} with {} records in {} ms (removed {} old snapshots, {} journal segments)",
+                    snapshot.getFileName(), records, (System.nanoTime() - start) / 1_000_000,
+                    deletedSnapshots, deletedSegments);
+            return snapshot;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write snapshot to " + directory, e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+    
+    private void takeScheduledSnapshot() {
+        try {
+            takeSnapshot();
+        } catch (RuntimeException e) {
+            log.error("Snapshot failed", e);
+        }
+    }
+    
+    private long writeSnapshot(FileChannel channel, long journalPosition) throws IOException {
+        SnapshotWriter writer = new SnapshotWriter(channel);
+        
+        for (Instrument instrument : instrumentRepository.findAll()) {
+            writer.write(JournalRecordType.INSTRUMENT, instrument, JournalCodec::writeInstrument);
+        }
+        for (PortfolioHolding holding : portfolioRepository.findAll()) {
+            writer.write(JournalRecordType.HOLDING, holding, JournalCodec::writeHolding);
+        }
+        // Orders and trades are streamed: finished ones are held compact, and building them
+        // all up front would put a second copy of the whole history on the heap
+        try {
+            orderRepository.forEach(order -> writer.write(JournalRecordType.ORDER, order, JournalCodec::writeOrder));
+            tradeRepository.forEach(trade -> writer.write(JournalRecordType.TRADE, trade, JournalCodec::writeTrade));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(journalPosition).putLong(writer.records).flip();
+        channel.write(header, 0);
+        return writer.records;
+    }
+    
+    /**
+     * Buffers encoded records and writes them to the snapshot file in large chunks
+     */
+    private static class SnapshotWriter {
+        
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        private long records;
+        
+        SnapshotWriter(FileChannel channel) throws IOException {
+            this.channel = channel;
+            channel.position(HEADER_SIZE);
+        }
+        
+        /**
+         * Encode one record, writing out the buffer first if it may not fit
+         *
+         * @throws UncheckedIOException if the buffer could not be written, so it can be called from a lambda
+         */
+        <T> void write(JournalRecordType type, T record, BiConsumer<ByteBuffer, T> encoder) {
+            if (buffer.remaining() < MAX_RECORD_SIZE) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int start = JournalCodec.beginRecord(buffer, type);
+            encoder.accept(buffer, record);
+            JournalCodec.endRecord(buffer, start);
+            records++;
+        }
+        
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+    
+    // ==================== Loading ====================
+    
+    /**
+     * Load the latest snapshot, if any
+     *
+     * @return the journal position to replay from (0 if there is no snapshot)
+     */
+    public long loadLatest(JournalHandler handler) {
+        if (!enabled) {
+            return 0L;
+        }
+        
+        try {
+            List<Path> snapshots = listSnapshots();
+            if (snapshots.isEmpty()) {
+                return 0L;
+            }
+            
+            Path latest = snapshots.get(snapshots.size() - 1);
+            try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+                MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+                    throw new IllegalStateException("Snapshot " + latest + " has an invalid header");
+                }
+                
+                long journalPosition = data.getLong(8);
+                long expectedRecords = data.getLong(16);
+                long records = JournalCodec.readRecords(data, HEADER_SIZE, handler, "Snapshot " + latest.getFileName());
+                
+                // The journal before this snapshot may already be gone, so a damaged snapshot cannot be skipped
+                if (records != expectedRecords) {
+                    throw new IllegalStateException(String.format(
+                            "Snapshot %s is damaged: read %d of %d records", latest, records, expectedRecords));
+                }
+                
+                log.info("Loaded snapshot {} with {} records", latest.getFileName(), records);
+                return journalPosition;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load snapshot from " + directory, e);
+        }
+    }
+    
+    // ==================== Snapshot files ====================
+    
+    private List<Path> listSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            // Names embed the zero-padded journal position, so name order is snapshot order
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+    
+    private int deleteSnapshotsBefore(long journalPosition) throws IOException {
+        Path current = snapshotPath(journalPosition);
+        int deleted = 0;
+        for (Path snapshot : listSnapshots()) {
+            if (snapshot.compareTo(current) < 0) {
+                Files.deleteIfExists(snapshot);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+    
+    private Path snapshotPath(long journalPosition) {
+        return directory.resolve(String.format("%s%016x%s", SNAPSHOT_PREFIX, journalPosition, SNAPSHOT_SUFFIX));
+    }
+}
@@ -0,0 +1,94 @@
+package com.bajaj.tradingsdk.marketdata;
+
+import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays recorded ticks from a CSV file with one {@code SYMBOL,EXCHANGE,PRICE}
+ * per line. Blank lines and lines starting with '#' are ignored, as are ticks
+ * for instruments that are not loaded.
+ */
+@Slf4j
+public class FileReplayMarketDataSource implements MarketDataSource {
+    
+    private final Path file;
+    private final long ticksPerSecond;
+    private final boolean loop;
+    private volatile boolean running;
+    
+    public FileReplayMarketDataSource(Path file, long ticksPerSecond, boolean loop) {
+        this.file = file;
+        this.ticksPerSecond = ticksPerSecond;
+        this.loop = loop;
+    }
+    
+    @Override
+    public String getName() {
+        return "file:" + file.getFileName();
+    }
+    
+    @Override
+    public void run(List<Instrument> universe, TickListener listener) throws IOException {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < universe.size(); i++) {
+            Instrument instrument = universe.get(i);
+            indexes.put(InstrumentRepository.generateKey(instrument.getSymbol(), instrument.getExchange()), i);
+        }
+        
+        TickPacer pacer = new TickPacer(ticksPerSecond);
+        running = true;
+        
+        do {
+            long lineNumber = 0;
+            int inBatch = 0;
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                String line;
+                while (running && (line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || line.startsWith("#")) {
+                        continue;
+                    }
+                    
+                    int first = line.indexOf(',');
+                    int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+                    if (second < 0) {
+                        log.warn("Skipping malformed tick at {}:{}", file, lineNumber);
+                        continue;
+                    }
+                    
+                    Integer index = indexes.get(InstrumentRepository.generateKey(
+                            line.substring(0, first).trim(), line.substring(first + 1, second).trim()));
+                    if (index == null) {
+                        continue;
+                    }
+                    
+                    try {
+                        listener.onTick(index, Double.parseDouble(line.substring(second + 1).trim()));
+                    } catch (NumberFormatException e) {
+                        log.warn("Skipping malformed tick at {}:{}", file, lineNumber);
+                        continue;
+                    }
+                    
+                    if (++inBatch == TickPacer.BATCH_SIZE) {
+                        inBatch = 0;
+                        pacer.awaitNextBatch();
+                    }
+                }
+            }
+        } while (running && loop);
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+    }
+}
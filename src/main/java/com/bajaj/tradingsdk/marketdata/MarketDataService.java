@@ -0,0 +1,162 @@
+package com.bajaj.tradingsdk.marketdata;
+
+import com.bajaj.tradingsdk.engine.TriggerEngine;
+import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.pnl.PnlEngine;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service that streams market data into the instrument store.
+ *
+ * Each tick is written straight into the repository's primitive price table
+ * by instrument ID, so the feed neither allocates per tick nor contends with
+ * order placement reading prices, and then invalidates the cached P&L of the
+ * instrument's holders and checks the instrument's pending stop orders.
+ */
+@Service
+@Slf4j
+public class MarketDataService {
+    
+    private final InstrumentRepository instrumentRepository;
+    private final PnlEngine pnlEngine;
+    private final TriggerEngine triggerEngine;
+    private final ObjectProvider<MarketDataSource> customSource;
+    private final boolean enabled;
+    private final String sourceType;
+    private final String replayFile;
+    private final boolean replayLoop;
+    private final long ticksPerSecond;
+    
+    private final LongAdder ticksApplied = new LongAdder();
+    private volatile int[] instrumentIds = new int[0];
+    private volatile MarketDataSource source;
+    private Thread feedThread;
+    
+    public MarketDataService(InstrumentRepository instrumentRepository,
+                             PnlEngine pnlEngine,
+                             TriggerEngine triggerEngine,
+                             ObjectProvider<MarketDataSource> customSource,
+                             @Value("${trading.marketdata.enabled:false}") boolean enabled,
+                             @Value("${trading.marketdata.source:synthetic}") String sourceType,
+                             @Value("${trading.marketdata.file:}") String replayFile,
+                             @Value("${trading.marketdata.loop:true}") boolean replayLoop,
+                             @Value("${trading.marketdata.ticks-per-second:100000}") long ticksPerSecond) {
+        this.instrumentRepository = instrumentRepository;
+        this.pnlEngine = pnlEngine;
+        this.triggerEngine = triggerEngine;
+        this.customSource = customSource;
+        this.enabled = enabled;
+        this.sourceType = sourceType;
+        this.replayFile = replayFile;
+        this.replayLoop = replayLoop;
+        this.ticksPerSecond = ticksPerSecond;
+    }
+    
+    /**
+     * Start the feed once instruments have been loaded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || feedThread != null) {
+            return;
+        }
+        
+        List<Instrument> instruments = instrumentRepository.findAll();
+        MarketDataSource feed = customSource.getIfAvailable(this::createSource);
+        int[] ids = new int[instruments.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = instrumentRepository.resolveId(instruments.get(i).getSymbol(), instruments.get(i).getExchange());
+        }
+        instrumentIds = ids;
+        source = feed;
+        
+        feedThread = new Thread(() -> runFeed(feed, instruments), "market-data-" + feed.getName());
+        feedThread.setDaemon(true);
+        feedThread.start();
+        log.info("Market data feed '{}' started for {} instruments", feed.getName(), instruments.size());
+    }
+    
+    /**
+     * Apply a single price update outside of the feed, e.g. from an admin tool or a test
+     */
+    public void publishPrice(String symbol, String exchange, double price) {
+        int instrumentId = instrumentRepository.resolveId(symbol, exchange);
+        if (instrumentId == InstrumentRepository.UNKNOWN_ID) {
+            throw new IllegalArgumentException("Unknown instrument: " + symbol + " on " + exchange);
+        }
+        applyPrice(instrumentId, price);
+    }
+    
+    /**
+     * Total number of price updates applied since startup
+     */
+    public long getTicksApplied() {
+        return ticksApplied.sum();
+    }
+    
+    public boolean isRunning() {
+        Thread thread = feedThread;
+        return thread != null && thread.isAlive();
+    }
+    
+    @PreDestroy
+    public synchronized void stop() {
+        MarketDataSource feed = source;
+        if (feed == null) {
+            return;
+        }
+        feed.stop();
+        try {
+            feedThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        source = null;
+        feedThread = null;
+        log.info("Market data feed '{}' stopped after {} ticks", feed.getName(), getTicksApplied());
+    }
+    
+    private void runFeed(MarketDataSource feed, List<Instrument> instruments) {
+        int[] subscribed = instrumentIds;
+        try {
+            feed.run(instruments, (index, price) -> applyPrice(subscribed[index], price));
+        } catch (Exception e) {
+            log.error("Market data feed '{}' failed", feed.getName(), e);
+        }
+    }
+    
+    private void applyPrice(int instrumentId, double price) {
+        if (!(price > 0) || Double.isInfinite(price)) {
+            return;
+        }
+        instrumentRepository.updatePrice(instrumentId, price);
+        pnlEngine.onPriceChanged(instrumentId);
+        triggerEngine.onPriceChanged(instrumentId, price);
+        ticksApplied.increment();
+    }
+    
+    private MarketDataSource createSource() {
+        return switch (sourceType.toLowerCase()) {
+            case "synthetic" -> new SyntheticMarketDataSource(ticksPerSecond, System.nanoTime());
+            case "file" -> {
+                if (replayFile.isBlank()) {
+                    throw new IllegalStateException("trading.marketdata.file must be set for the file source");
+                }
+                yield new FileReplayMarketDataSource(Path.of(replayFile), ticksPerSecond, replayLoop);
+            }
+            default -> throw new IllegalStateException("Unknown market data source: " + sourceType);
+        };
+    }
+}
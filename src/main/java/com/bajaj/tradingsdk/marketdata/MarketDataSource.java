@@ -0,0 +1,24 @@
+package com.bajaj.tradingsdk.marketdata;
+
+import com.bajaj.tradingsdk.model.Instrument;
+
+import java.util.List;
+
+/**
+ * A feed of last traded prices.
+ *
+ * Declare a bean of this type to plug in a custom feed; otherwise
+ * {@link MarketDataService} builds one of the built-in sources from configuration.
+ */
+public interface MarketDataSource {
+    
+    String getName();
+    
+    /**
+     * Stream ticks for the given instruments to the listener until {@link #stop()}
+     * is called or the source is exhausted. Blocks the calling thread.
+     */
+    void run(List<Instrument> universe, TickListener listener) throws Exception;
+    
+    void stop();
+}
@@ -0,0 +1,64 @@
+package com.bajaj.tradingsdk.marketdata;
+
+import com.bajaj.tradingsdk.model.Instrument;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a random walk of prices around each instrument's last traded price,
+ * for load testing and demos
+ */
+public class SyntheticMarketDataSource implements MarketDataSource {
+    
+    private static final double TICK_SIZE = 0.05;
+    private static final double MAX_MOVE = 0.001;   // At most 0.1% per tick
+    
+    private final long ticksPerSecond;
+    private final long seed;
+    private volatile boolean running;
+    
+    public SyntheticMarketDataSource(long ticksPerSecond, long seed) {
+        this.ticksPerSecond = ticksPerSecond;
+        this.seed = seed;
+    }
+    
+    @Override
+    public String getName() {
+        return "synthetic";
+    }
+    
+    @Override
+    public void run(List<Instrument> universe, TickListener listener) {
+        int size = universe.size();
+        if (size == 0) {
+            return;
+        }
+        
+        double[] prices = new double[size];
+        for (int i = 0; i < size; i++) {
+            Double lastTradedPrice = universe.get(i).getLastTradedPrice();
+            prices[i] = lastTradedPrice != null ? lastTradedPrice : 100.0;
+        }
+        
+        SplittableRandom random = new SplittableRandom(seed);
+        TickPacer pacer = new TickPacer(ticksPerSecond);
+        running = true;
+        
+        while (running) {
+            for (int tick = 0; tick < TickPacer.BATCH_SIZE; tick++) {
+                int index = random.nextInt(size);
+                double move = prices[index] * MAX_MOVE * (random.nextDouble() * 2 - 1);
+                double price = Math.round((prices[index] + move) / TICK_SIZE) * TICK_SIZE;
+                prices[index] = Math.max(TICK_SIZE, price);
+                listener.onTick(index, prices[index]);
+            }
+            pacer.awaitNextBatch();
+        }
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+    }
+}
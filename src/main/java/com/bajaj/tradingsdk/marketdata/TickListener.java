@@ -0,0 +1,15 @@
+package com.bajaj.tradingsdk.marketdata;
+
+/**
+ * Receives price ticks from a {@link MarketDataSource}.
+ * Ticks are passed as primitives so no object is allocated per tick.
+ */
+@FunctionalInterface
+public interface TickListener {
+    
+    /**
+     * @param instrumentIndex index of the instrument in the universe the source was started with
+     * @param price           new last traded price
+     */
+    void onTick(int instrumentIndex, double price);
+}
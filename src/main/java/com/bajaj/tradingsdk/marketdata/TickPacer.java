@@ -0,0 +1,38 @@
+package com.bajaj.tradingsdk.marketdata;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throttles a source to a target tick rate by pausing after each batch of ticks
+ */
+class TickPacer {
+    
+    static final int BATCH_SIZE = 1000;
+    
+    private final long batchIntervalNanos;
+    private long nextBatchAt = System.nanoTime();
+    
+    /**
+     * @param ticksPerSecond target rate; 0 or less means unthrottled
+     */
+    TickPacer(long ticksPerSecond) {
+        this.batchIntervalNanos = ticksPerSecond > 0
+                ? TimeUnit.SECONDS.toNanos(1) * BATCH_SIZE / ticksPerSecond
+                : 0;
+    }
+    
+    void awaitNextBatch() {
+        if (batchIntervalNanos == 0) {
+            return;
+        }
+        nextBatchAt += batchIntervalNanos;
+        long wait = nextBatchAt - System.nanoTime();
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        } else if (wait < -TimeUnit.SECONDS.toNanos(1)) {
+            // Fell far behind (e.g. a GC pause): don't try to catch up with a burst
+            nextBatchAt = System.nanoTime();
+        }
+    }
+}
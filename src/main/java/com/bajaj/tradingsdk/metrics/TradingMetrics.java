@@ -0,0 +1,97 @@
+package com.bajaj.tradingsdk.metrics;
+
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderStatus;
+import com.bajaj.tradingsdk.model.OrderStyle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order lifecycle metrics: end-to-end placement latency, latency of each
+ * placement stage, and order counts by status and style.
+ *
+ * Every meter is registered up front and looked up by enum ordinal, so the
+ * order path only pays for a {@code System.nanoTime()} and a histogram update
+ * per stage, with no tag lookups or allocation. Percentiles and histogram
+ * buckets are configured under {@code management.metrics.distribution.*.trading.order}.
+ */
+@Component
+public class TradingMetrics {
+    
+    /**
+     * Placement stages, in the order an order passes through them.
+     * EXECUTION includes the TRADE and PORTFOLIO stages of every fill.
+     */
+    public enum Stage {
+        PRICE_LOOKUP,
+        VALIDATION,
+        SEQUENCER_WAIT,
+        RISK,
+        SAVE,
+        EXECUTION,
+        TRADE,
+        PORTFOLIO
+    }
+    
+    private final Timer placementTimer;
+    private final Timer[] stageTimers;
+    private final Counter[][] orderCounters;  // [status][style]
+    
+    public TradingMetrics(MeterRegistry registry) {
+        placementTimer = Timer.builder("trading.order.latency")
+                .description("Time to place an order, from request to placed or executed")
+                .register(registry);
+        
+        Stage[] stages = Stage.values();
+        stageTimers = new Timer[stages.length];
+        for (Stage stage : stages) {
+            stageTimers[stage.ordinal()] = Timer.builder("trading.order.stage")
+                    .description("Time spent in each stage of order placement")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        
+        OrderStatus[] statuses = OrderStatus.values();
+        OrderStyle[] styles = OrderStyle.values();
+        orderCounters = new Counter[statuses.length][styles.length];
+        for (OrderStatus status : statuses) {
+            for (OrderStyle style : styles) {
+                orderCounters[status.ordinal()][style.ordinal()] = Counter.builder("trading.orders")
+                        .description("Orders that reached each status")
+                        .tag("status", status.name())
+                        .tag("style", style.name())
+                        .register(registry);
+            }
+        }
+    }
+    
+    /**
+     * Record a stage that started at {@code startNanos}
+     *
+     * @return the current {@code System.nanoTime()}, i.e. the start of the next stage
+     */
+    public long recordStage(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        stageTimers[stage.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+    
+    /**
+     * Record an order placement that started at {@code startNanos}
+     */
+    public void recordPlacement(long startNanos) {
+        placementTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Count an order that just reached its current status
+     */
+    public void countOrder(Order order) {
+        orderCounters[order.getStatus().ordinal()][order.getOrderStyle().ordinal()].increment();
+    }
+}
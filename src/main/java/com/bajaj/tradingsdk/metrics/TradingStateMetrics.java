@@ -0,0 +1,63 @@
+package com.bajaj.tradingsdk.metrics;
+
+import com.bajaj.tradingsdk.engine.TriggerEngine;
+import com.bajaj.tradingsdk.journal.HistoryArchive;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import com.bajaj.tradingsdk.repository.TradeRepository;
+import com.bajaj.tradingsdk.stream.EventStreamService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Gauges for the size of in-memory state; only read when metrics are scraped
+ */
+@Component
+@RequiredArgsConstructor
+public class TradingStateMetrics implements MeterBinder {
+    
+    private final OrderRepository orderRepository;
+    private final TradeRepository tradeRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final InstrumentRepository instrumentRepository;
+    private final HistoryArchive historyArchive;
+    private final TriggerEngine triggerEngine;
+    private final EventStreamService eventStreamService;
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        repositorySize(registry, "orders", orderRepository::count);
+        repositorySize(registry, "trades", tradeRepository::count);
+        repositorySize(registry, "holdings", portfolioRepository::count);
+        repositorySize(registry, "instruments", instrumentRepository::count);
+        archiveSize(registry, "orders", historyArchive::getOrderCount);
+        archiveSize(registry, "trades", historyArchive::getTradeCount);
+        
+        Gauge.builder("trading.stops.pending", triggerEngine::getPendingCount)
+                .description("Stop orders waiting for their trigger price")
+                .register(registry);
+        Gauge.builder("trading.stream.subscriptions", eventStreamService::getSubscriptionCount)
+                .description("Open event streams")
+                .register(registry);
+    }
+    
+    private static void repositorySize(MeterRegistry registry, String repository, Supplier<Number> size) {
+        Gauge.builder("trading.repository.size", size)
+                .description("Records held in memory by each repository")
+                .tag("repository", repository)
+                .register(registry);
+    }
+    
+    private static void archiveSize(MeterRegistry registry, String records, Supplier<Number> size) {
+        Gauge.builder("trading.archive.size", size)
+                .description("Records moved from memory to the on-disk archive")
+                .tag("records", records)
+                .register(registry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.bajaj.tradingsdk.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -17,14 +18,40 @@ import java.time.LocalDateTime;
 public class Order {
     
     private String orderId;
+    private String clientOrderId;       // Optional client-supplied ID for idempotent retries
     private String symbol;
     private String exchange;
+    @JsonIgnore
+    @Builder.Default
+    private int instrumentId = -1;      // Internal ID from InstrumentRepository, -1 until resolved
     private OrderType orderType;        // BUY or SELL
-    private OrderStyle orderStyle;      // MARKET or LIMIT
+    private OrderStyle orderStyle;      // MARKET, LIMIT, STOP or STOP_LIMIT
     private Integer quantity;
-    private Double price;               // Required for LIMIT orders
+    @Builder.Default
+    private Integer filledQuantity = 0; // Quantity executed so far
+    private Double averageFillPrice;    // Volume-weighted price of the fills so far, null until the first
+    private Double price;               // Required for LIMIT and STOP_LIMIT orders
+    private Double triggerPrice;        // Required for STOP and STOP_LIMIT orders
+    private LocalDateTime triggeredAt;  // Null while a stop order waits for its trigger
     private OrderStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
-    private String userId;              // Mocked user ID
+    private String userId;              // Owning user, from the X-User-Id header
+    
+    /**
+     * Quantity still to be filled, or null while the quantity is unset
+     */
+    @JsonIgnore
+    public Integer getRemainingQuantity() {
+        return quantity == null ? null : quantity - filledQuantity;
+    }
+    
+    /**
+     * Add a fill to the filled quantity and the volume-weighted average fill price
+     */
+    public void addFill(int fillQuantity, double fillPrice) {
+        double filledValue = averageFillPrice == null ? 0 : averageFillPrice * filledQuantity;
+        filledQuantity += fillQuantity;
+        averageFillPrice = (filledValue + fillPrice * fillQuantity) / filledQuantity;
+    }
 }
@@ -4,8 +4,9 @@ package com.bajaj.tradingsdk.model;
  * Enum representing the status of an order
  */
 public enum OrderStatus {
-    NEW,        // Order just created
-    PLACED,     // Order placed in the system
-    EXECUTED,   // Order fully executed
-    CANCELLED   // Order cancelled
+    NEW,                // Order just created
+    PLACED,             // Order placed in the system
+    EXECUTED,           // Order fully executed
+    CANCELLED,          // Order cancelled
+    PARTIALLY_FILLED    // Order filled in part, the rest still open (last: the journal stores ordinals)
 }
@@ -1,9 +1,12 @@
 package com.bajaj.tradingsdk.model;
 
 /**
- * Enum representing the style of order - MARKET or LIMIT
+ * Enum representing the style of order - MARKET, LIMIT, or a stop order
+ * (STOP, STOP_LIMIT) that waits for the price to cross its trigger price
  */
 public enum OrderStyle {
     MARKET,
-    LIMIT
+    LIMIT,
+    STOP,       // Executes like MARKET once triggered
+    STOP_LIMIT  // Becomes a LIMIT order at its price once triggered
 }
@@ -1,5 +1,6 @@
 package com.bajaj.tradingsdk.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,13 +10,16 @@ import lombok.NoArgsConstructor;
  * Represents a portfolio holding
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PortfolioHolding {
     
     private String symbol;
     private String exchange;
+    @JsonIgnore
+    @Builder.Default
+    private int instrumentId = -1;      // Internal ID from InstrumentRepository, -1 until resolved
     private Integer quantity;
     private Double averagePrice;        // Average buy price
     private Double currentPrice;        // Current market price
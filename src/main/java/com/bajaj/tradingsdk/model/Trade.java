@@ -1,5 +1,6 @@
 package com.bajaj.tradingsdk.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +21,9 @@ public class Trade {
     private String orderId;             // Reference to the order
     private String symbol;
     private String exchange;
+    @JsonIgnore
+    @Builder.Default
+    private int instrumentId = -1;      // Internal ID from InstrumentRepository, -1 until resolved
     private OrderType tradeType;        // BUY or SELL
     private Integer quantity;
     private Double executionPrice;
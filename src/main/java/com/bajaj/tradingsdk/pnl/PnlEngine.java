@@ -0,0 +1,316 @@
+package com.bajaj.tradingsdk.pnl;
+
+import com.bajaj.tradingsdk.dto.PortfolioSummary;
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Mark-to-market P&L per user, maintained incrementally.
+ *
+ * A user's account is loaded from the {@link PortfolioRepository} on its
+ * first read while the user holds anything; until then reads get an empty
+ * snapshot and nothing is kept. From then on it keeps each holding's last price and the user's
+ * invested and current value: a tick adds {@code quantity * (price - last)}
+ * for every holder of the instrument, and a holding change replaces just that
+ * holding's contribution. Reads never revalue; they return the cached
+ * {@link PortfolioSnapshot}, built from the maintained values on the first
+ * read after a change. An account is subscribed to an instrument's ticks only
+ * while it holds the instrument.
+ *
+ * {@link PortfolioListener}s are told when a user's portfolio changes, once
+ * until the user's snapshot is next read, so a burst of ticks costs one
+ * notification per holder rather than one per tick.
+ */
+@Component
+@RequiredArgsConstructor
+public class PnlEngine {
+    
+    private final PortfolioRepository portfolioRepository;
+    private final InstrumentRepository instrumentRepository;
+    
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final List<PortfolioListener> listeners = new CopyOnWriteArrayList<>();
+    
+    // Indexed by instrument ID: accounts holding the instrument
+    private volatile Holders[] holdersByInstrument = new Holders[0];
+    
+    /**
+     * Current valued portfolio for a user
+     */
+    public PortfolioSnapshot getSnapshot(String userId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            // Only users with holdings get an account, so unknown user IDs cost nothing
+            if (portfolioRepository.findByUserId(userId).isEmpty()) {
+                return PortfolioSnapshot.empty();
+            }
+            account = accounts.computeIfAbsent(userId, Account::new);
+        }
+        synchronized (account) {
+            if (!account.loaded) {
+                load(account);
+            }
+            // Changes from here on notify again
+            account.notified = false;
+            if (account.snapshot == null) {
+                account.snapshot = snapshot(account);
+            }
+            return account.snapshot;
+        }
+    }
+    
+    /**
+     * Register a listener for portfolio changes
+     */
+    public void addListener(PortfolioListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * A user's holding of an instrument was created, changed or removed
+     */
+    public void onHoldingChanged(String userId, int instrumentId) {
+        Account account = accounts.get(userId);
+        if (account == null) {
+            // Not valued yet; the first read loads the holding as it is now
+            notifyListeners(userId);
+            return;
+        }
+        
+        boolean notify;
+        synchronized (account) {
+            if (account.loaded) {
+                reposition(account, instrumentId);
+            }
+            notify = account.changed();
+        }
+        if (notify) {
+            notifyListeners(userId);
+        }
+    }
+    
+    /**
+     * An instrument's price changed
+     */
+    public void onPriceChanged(int instrumentId) {
+        Holders[] current = holdersByInstrument;
+        if (instrumentId < 0 || instrumentId >= current.length || current[instrumentId] == null) {
+            return;
+        }
+        for (Account account : current[instrumentId].accounts) {
+            boolean notify;
+            synchronized (account) {
+                // Read under the account lock, so concurrent ticks leave the latest price
+                notify = account.reprice(instrumentId, instrumentRepository.getPrice(instrumentId));
+            }
+            if (notify) {
+                notifyListeners(account.userId);
+            }
+        }
+    }
+    
+    private void notifyListeners(String userId) {
+        for (PortfolioListener listener : listeners) {
+            listener.onPortfolioChanged(userId);
+        }
+    }
+    
+    /**
+     * Value a user's holdings for the first time; called holding the account lock
+     */
+    private void load(Account account) {
+        for (PortfolioHolding holding : portfolioRepository.findByUserId(account.userId)) {
+            account.add(open(account, holding));
+        }
+        account.loaded = true;
+    }
+    
+    /**
+     * Replace one holding's contribution with its current state; called holding the account lock
+     */
+    private void reposition(Account account, int instrumentId) {
+        PortfolioHolding holding = portfolioRepository.findByUserIdAndInstrumentId(account.userId, instrumentId)
+                .orElse(null);
+        Position position = account.positions.get(instrumentId);
+        if (position != null) {
+            account.subtract(position);
+            if (holding == null) {
+                account.positions.remove(instrumentId);
+                holders(instrumentId).accounts.remove(account);
+                return;
+            }
+            position.holding = holding;
+            account.add(position);
+        } else if (holding != null) {
+            account.add(open(account, holding));
+        }
+    }
+    
+    private Position open(Account account, PortfolioHolding holding) {
+        int instrumentId = holding.getInstrumentId();
+        // Subscribe before reading the price, so a tick after the read is never missed
+        holders(instrumentId).accounts.add(account);
+        Position position = new Position(holding, instrumentRepository.getPrice(instrumentId));
+        account.positions.put(instrumentId, position);
+        return position;
+    }
+    
+    private static PortfolioSnapshot snapshot(Account account) {
+        List<PortfolioHolding> valued = new ArrayList<>(account.positions.size());
+        for (Position position : account.positions.values()) {
+            PortfolioHolding holding = position.holding;
+            if (Double.isNaN(position.price)) {
+                valued.add(holding);
+                continue;
+            }
+            
+            double invested = position.investedValue();
+            double value = position.currentValue();
+            valued.add(holding.toBuilder()
+                    .currentPrice(position.price)
+                    .currentValue(value)
+                    .profitLoss(value - invested)
+                    .profitLossPercentage(((value - invested) / invested) * 100)
+                    .build());
+        }
+        
+        double profitLoss = account.currentValue - account.investedValue;
+        PortfolioSummary summary = PortfolioSummary.builder()
+                .holdingCount(valued.size())
+                .investedValue(account.investedValue)
+                .currentValue(account.currentValue)
+                .profitLoss(profitLoss)
+                .profitLossPercentage(account.investedValue == 0 ? 0 : (profitLoss / account.investedValue) * 100)
+                .valuedAt(LocalDateTime.now())
+                .build();
+        return new PortfolioSnapshot(account.version, valued, summary);
+    }
+    
+    private Holders holders(int instrumentId) {
+        Holders[] current = holdersByInstrument;
+        if (instrumentId < current.length && current[instrumentId] != null) {
+            return current[instrumentId];
+        }
+        return createHolders(instrumentId);
+    }
+    
+    private synchronized Holders createHolders(int instrumentId) {
+        Holders[] current = holdersByInstrument;
+        if (instrumentId < current.length && current[instrumentId] != null) {
+            return current[instrumentId];
+        }
+        Holders[] grown = Arrays.copyOf(current, Math.max(current.length, instrumentId + 1));
+        grown[instrumentId] = new Holders();
+        holdersByInstrument = grown;
+        return grown[instrumentId];
+    }
+    
+    /**
+     * A user's valued holdings; all fields are guarded by the account's lock
+     */
+    private static class Account {
+        final String userId;
+        final Map<Integer, Position> positions = new HashMap<>();
+        
+        // Totals over the priced positions, as the summary reports them
+        double investedValue;
+        double currentValue;
+        
+        boolean loaded;
+        long version;
+        PortfolioSnapshot snapshot;     // Null once a change invalidates it
+        boolean notified;               // Listeners were told since the last read
+        
+        Account(String userId) {
+            this.userId = userId;
+        }
+        
+        void add(Position position) {
+            if (!Double.isNaN(position.price)) {
+                investedValue += position.investedValue();
+                currentValue += position.currentValue();
+            }
+        }
+        
+        void subtract(Position position) {
+            if (positions.size() == 1) {
+                // Last position: start again from zero rather than carry rounding error
+                investedValue = 0;
+                currentValue = 0;
+            } else if (!Double.isNaN(position.price)) {
+                investedValue -= position.investedValue();
+                currentValue -= position.currentValue();
+            }
+        }
+        
+        /**
+         * @return true if listeners must be notified
+         */
+        boolean reprice(int instrumentId, double price) {
+            Position position = positions.get(instrumentId);
+            // Unsubscribed meanwhile, or a tick at the same price
+            if (position == null || Double.isNaN(price) || price == position.price) {
+                return false;
+            }
+            
+            if (Double.isNaN(position.price)) {
+                position.price = price;
+                add(position);
+            } else {
+                currentValue += position.holding.getQuantity() * (price - position.price);
+                position.price = price;
+            }
+            return changed();
+        }
+        
+        /**
+         * Invalidate the snapshot
+         *
+         * @return true if listeners must be notified
+         */
+        boolean changed() {
+            version++;
+            snapshot = null;
+            if (notified) {
+                return false;
+            }
+            notified = true;
+            return true;
+        }
+    }
+    
+    private static class Position {
+        PortfolioHolding holding;       // As stored: quantity and average price
+        double price;                   // Last price, NaN until the instrument is priced
+        
+        Position(PortfolioHolding holding, double price) {
+            this.holding = holding;
+            this.price = price;
+        }
+        
+        double investedValue() {
+            return holding.getQuantity() * holding.getAveragePrice();
+        }
+        
+        double currentValue() {
+            return holding.getQuantity() * price;
+        }
+    }
+    
+    private static class Holders {
+        final Set<Account> accounts = ConcurrentHashMap.newKeySet();
+    }
+}
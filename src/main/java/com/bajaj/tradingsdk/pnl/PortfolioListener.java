@@ -0,0 +1,13 @@
+package com.bajaj.tradingsdk.pnl;
+
+/**
+ * Notified when a user's valued portfolio may have changed. Changes are
+ * conflated: after one call, the user's further changes are not reported until
+ * their snapshot is read again.
+ * Called on the thread that caused the change, so implementations must not block.
+ */
+@FunctionalInterface
+public interface PortfolioListener {
+    
+    void onPortfolioChanged(String userId);
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.bajaj.tradingsdk.pnl;
+
+import com.bajaj.tradingsdk.dto.PortfolioSummary;
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A user's holdings and totals, all valued at the same set of prices.
+ * Shared between readers, so the getters hand out copies.
+ */
+@Value
+public class PortfolioSnapshot {
+    
+    long version;                       // Account version the snapshot was built at
+    List<PortfolioHolding> holdings;
+    PortfolioSummary summary;
+    
+    /**
+     * Snapshot of a user without holdings
+     */
+    public static PortfolioSnapshot empty() {
+        return new PortfolioSnapshot(0, List.of(), PortfolioSummary.builder().valuedAt(LocalDateTime.now()).build());
+    }
+    
+    public List<PortfolioHolding> getHoldings() {
+        List<PortfolioHolding> copies = new ArrayList<>(holdings.size());
+        holdings.forEach(holding -> copies.add(holding.toBuilder().build()));
+        return copies;
+    }
+    
+    public PortfolioSummary getSummary() {
+        return summary.toBuilder().build();
+    }
+}
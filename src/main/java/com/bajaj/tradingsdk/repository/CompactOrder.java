@@ -0,0 +1,111 @@
+package com.bajaj.tradingsdk.repository;
+
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderStatus;
+import com.bajaj.tradingsdk.model.OrderStyle;
+import com.bajaj.tradingsdk.model.OrderType;
+
+import static com.bajaj.tradingsdk.repository.CompactValues.*;
+
+/**
+ * How {@link OrderRepository} holds a finished order: one object of primitive
+ * fields (96 bytes) instead of an {@link Order} bean with boxed numbers and
+ * up to three {@code LocalDateTime}s (224 bytes with two). Strings are
+ * references to instances that are shared anyway. Finished orders never
+ * change, so a bean is only built for a read. The three enums keep a byte
+ * each: packed into one, the object would still be padded to 96 bytes.
+ */
+final class CompactOrder implements StoredOrder {
+    
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    private static final OrderStyle[] ORDER_STYLES = OrderStyle.values();
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
+    
+    private final String orderId;
+    private final String userId;
+    private final String clientOrderId;
+    private final String symbol;
+    private final String exchange;
+    private final int instrumentId;
+    private final int quantity;
+    private final int filledQuantity;
+    private final byte orderType;
+    private final byte orderStyle;
+    private final byte status;
+    private final double averageFillPrice;
+    private final double price;
+    private final double triggerPrice;
+    private final long triggeredAt;
+    private final long createdAt;
+    private final long updatedAt;
+    
+    private CompactOrder(Order order) {
+        this.orderId = order.getOrderId();
+        this.userId = order.getUserId();
+        this.clientOrderId = order.getClientOrderId();
+        this.symbol = order.getSymbol();
+        this.exchange = order.getExchange();
+        this.instrumentId = order.getInstrumentId();
+        this.quantity = toInt(order.getQuantity());
+        this.filledQuantity = toInt(order.getFilledQuantity());
+        this.orderType = toOrdinal(order.getOrderType());
+        this.orderStyle = toOrdinal(order.getOrderStyle());
+        this.status = toOrdinal(order.getStatus());
+        this.averageFillPrice = toDouble(order.getAverageFillPrice());
+        this.price = toDouble(order.getPrice());
+        this.triggerPrice = toDouble(order.getTriggerPrice());
+        this.triggeredAt = toNanos(order.getTriggeredAt());
+        this.createdAt = toNanos(order.getCreatedAt());
+        this.updatedAt = toNanos(order.getUpdatedAt());
+    }
+    
+    static CompactOrder of(Order order) {
+        return new CompactOrder(order);
+    }
+    
+    @Override
+    public String getUserId() {
+        return userId;
+    }
+    
+    String getClientOrderId() {
+        return clientOrderId;
+    }
+    
+    /**
+     * Creation time as {@link CompactValues#toNanos} encodes it
+     */
+    long getCreatedAt() {
+        return createdAt;
+    }
+    
+    /**
+     * Time of the last change as {@link CompactValues#toNanos} encodes it
+     */
+    long getLastChanged() {
+        return updatedAt != Long.MIN_VALUE ? updatedAt : createdAt;
+    }
+    
+    @Override
+    public Order toOrder() {
+        return Order.builder()
+                .orderId(orderId)
+                .clientOrderId(clientOrderId)
+                .symbol(symbol)
+                .exchange(exchange)
+                .instrumentId(instrumentId)
+                .orderType(toEnum(orderType, ORDER_TYPES))
+                .orderStyle(toEnum(orderStyle, ORDER_STYLES))
+                .quantity(toInteger(quantity))
+                .filledQuantity(toInteger(filledQuantity))
+                .averageFillPrice(toDouble(averageFillPrice))
+                .price(toDouble(price))
+                .triggerPrice(toDouble(triggerPrice))
+                .triggeredAt(toTime(triggeredAt))
+                .status(toEnum(status, ORDER_STATUSES))
+                .createdAt(toTime(createdAt))
+                .updatedAt(toTime(updatedAt))
+                .userId(userId)
+                .build();
+    }
+}
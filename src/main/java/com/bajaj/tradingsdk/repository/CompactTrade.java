@@ -0,0 +1,83 @@
+package com.bajaj.tradingsdk.repository;
+
+import com.bajaj.tradingsdk.model.OrderType;
+import com.bajaj.tradingsdk.model.Trade;
+
+import static com.bajaj.tradingsdk.repository.CompactValues.*;
+
+/**
+ * How {@link TradeRepository} holds a trade: one object of primitive fields
+ * (72 bytes) instead of a {@link Trade} bean with boxed numbers and a
+ * {@code LocalDateTime} (152 bytes). Strings are references to the
+ * instances the repository already holds (IDs are map keys, symbols and
+ * exchanges are canonical), so they add no copies. Trades never change, so
+ * a bean is only built for a read.
+ *
+ * The record is the smaller part of a stored trade: its entries in the
+ * repository's three indexes take about 400 bytes more (see RecordFootprint).
+ */
+final class CompactTrade {
+    
+    private static final OrderType[] ORDER_TYPES = OrderType.values();
+    
+    private final String tradeId;
+    private final String orderId;
+    private final String userId;
+    private final String symbol;
+    private final String exchange;
+    private final int instrumentId;
+    private final int quantity;
+    private final byte tradeType;
+    private final double executionPrice;
+    private final double totalValue;
+    private final long executedAt;
+    
+    private CompactTrade(Trade trade) {
+        this.tradeId = trade.getTradeId();
+        this.orderId = trade.getOrderId();
+        this.userId = trade.getUserId();
+        this.symbol = trade.getSymbol();
+        this.exchange = trade.getExchange();
+        this.instrumentId = trade.getInstrumentId();
+        this.quantity = toInt(trade.getQuantity());
+        this.tradeType = toOrdinal(trade.getTradeType());
+        this.executionPrice = toDouble(trade.getExecutionPrice());
+        this.totalValue = toDouble(trade.getTotalValue());
+        this.executedAt = toNanos(trade.getExecutedAt());
+    }
+    
+    static CompactTrade of(Trade trade) {
+        return new CompactTrade(trade);
+    }
+    
+    String getOrderId() {
+        return orderId;
+    }
+    
+    String getUserId() {
+        return userId;
+    }
+    
+    /**
+     * Execution time as {@link CompactValues#toNanos} encodes it
+     */
+    long getExecutedAt() {
+        return executedAt;
+    }
+    
+    Trade toTrade() {
+        return Trade.builder()
+                .tradeId(tradeId)
+                .orderId(orderId)
+                .symbol(symbol)
+                .exchange(exchange)
+                .instrumentId(instrumentId)
+                .tradeType(toEnum(tradeType, ORDER_TYPES))
+                .quantity(toInteger(quantity))
+                .executionPrice(toDouble(executionPrice))
+                .totalValue(toDouble(totalValue))
+                .executedAt(toTime(executedAt))
+                .userId(userId)
+                .build();
+    }
+}
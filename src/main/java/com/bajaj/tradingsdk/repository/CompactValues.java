@@ -0,0 +1,53 @@
+package com.bajaj.tradingsdk.repository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Encodings shared by the compact record layouts: nullable values become
+ * primitive sentinels as in the journal, i.e. NaN for doubles,
+ * {@link Integer#MIN_VALUE} for integers, -1 for enum ordinals and
+ * {@link Long#MIN_VALUE} for timestamps, which are held as UTC epoch nanos
+ * (good until 2262). Prices stay doubles: a fixed-point long is the same
+ * size, and average fill prices are not on a tick grid.
+ */
+final class CompactValues {
+    
+    private CompactValues() {
+    }
+    
+    static long toNanos(LocalDateTime time) {
+        return time == null ? Long.MIN_VALUE
+                : time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+    
+    static LocalDateTime toTime(long nanos) {
+        return nanos == Long.MIN_VALUE ? null
+                : LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+    
+    static double toDouble(Double value) {
+        return value == null ? Double.NaN : value;
+    }
+    
+    static Double toDouble(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+    
+    static int toInt(Integer value) {
+        return value == null ? Integer.MIN_VALUE : value;
+    }
+    
+    static Integer toInteger(int value) {
+        return value == Integer.MIN_VALUE ? null : value;
+    }
+    
+    static byte toOrdinal(Enum<?> value) {
+        return value == null ? -1 : (byte) value.ordinal();
+    }
+    
+    static <E extends Enum<E>> E toEnum(byte ordinal, E[] values) {
+        return ordinal < 0 ? null : values[ordinal];
+    }
+}
@@ -1,48 +1,192 @@
 package com.bajaj.tradingsdk.repository;
 
+import com.bajaj.tradingsdk.journal.Journal;
 import com.bajaj.tradingsdk.model.Instrument;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * In-memory repository for Instruments
+ * In-memory repository for Instruments.
+ *
+ * Each instrument is assigned a dense int ID when first saved. Orders, trades
+ * and holdings carry that ID and share the instrument's symbol and exchange
+ * strings, and hot paths read prices by ID from a primitive {@link PriceTable};
+ * the Instrument beans returned by the finders are copies with the current
+ * price filled in.
  */
 @Repository
+@RequiredArgsConstructor
 public class InstrumentRepository {
     
-    // Using ConcurrentHashMap for thread safety
-    // Key: symbol_exchange (e.g., "RELIANCE_NSE")
-    private final Map<String, Instrument> instruments = new ConcurrentHashMap<>();
+    public static final int UNKNOWN_ID = -1;
+    
+    private final Journal journal;
+    
+    // Key: exchange -> symbol -> ID, so lookups don't build a key string
+    private final Map<String, Map<String, Integer>> idsByExchange = new ConcurrentHashMap<>();
+    private final PriceTable prices = new PriceTable();
+    
+    // Not synchronized: saves append to the journal, which may block on I/O,
+    // and a monitor held across that would pin a virtual thread to its carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    
+    // Indexed by ID; copied on write, as instruments are rarely added
+    private volatile Instrument[] instruments = new Instrument[0];
     
     public List<Instrument> findAll() {
-        return new ArrayList<>(instruments.values());
+        Instrument[] current = instruments;
+        List<Instrument> result = new ArrayList<>(current.length);
+        for (int id = 0; id < current.length; id++) {
+            result.add(withPrice(current[id], id));
+        }
+        return result;
     }
     
     public Optional<Instrument> findBySymbolAndExchange(String symbol, String exchange) {
-        String key = generateKey(symbol, exchange);
-        return Optional.ofNullable(instruments.get(key));
+        return findById(resolveId(symbol, exchange));
+    }
+    
+    public Optional<Instrument> findById(int id) {
+        Instrument[] current = instruments;
+        if (id < 0 || id >= current.length) {
+            return Optional.empty();
+        }
+        return Optional.of(withPrice(current[id], id));
+    }
+    
+    /**
+     * Resolve an instrument's ID without allocating when the symbol and
+     * exchange are already upper case
+     *
+     * @return the ID, or {@link #UNKNOWN_ID}
+     */
+    public int resolveId(String symbol, String exchange) {
+        Integer id = lookup(symbol, exchange);
+        if (id == null) {
+            id = lookup(symbol.toUpperCase(), exchange.toUpperCase());
+        }
+        return id != null ? id : UNKNOWN_ID;
+    }
+    
+    /**
+     * @return the canonical upper-case symbol for an ID, shared by every entity that references it
+     */
+    public String getSymbol(int id) {
+        return instruments[id].getSymbol();
+    }
+    
+    /**
+     * @return the canonical upper-case exchange for an ID, shared by every entity that references it
+     */
+    public String getExchange(int id) {
+        return instruments[id].getExchange();
+    }
+    
+    /**
+     * @return the last traded price, or NaN if the instrument is unknown or has no price
+     */
+    public double getPrice(int id) {
+        if (id < 0 || id >= instruments.length) {
+            return Double.NaN;
+        }
+        return prices.get(id);
+    }
+    
+    public void updatePrice(int id, double price) {
+        if (id < 0 || id >= instruments.length) {
+            throw new IllegalArgumentException("Unknown instrument ID: " + id);
+        }
+        prices.set(id, price);
     }
     
     public Instrument save(Instrument instrument) {
-        String key = generateKey(instrument.getSymbol(), instrument.getExchange());
-        instruments.put(key, instrument);
-        return instrument;
+        return store(instrument, true);
+    }
+    
+    /**
+     * Put a recovered instrument back without journaling it again
+     */
+    public Instrument restore(Instrument instrument) {
+        return store(instrument, false);
     }
     
     public boolean existsBySymbolAndExchange(String symbol, String exchange) {
-        return instruments.containsKey(generateKey(symbol, exchange));
+        return resolveId(symbol, exchange) != UNKNOWN_ID;
     }
     
     public void deleteAll() {
-        instruments.clear();
+        writeLock.lock();
+        try {
+            idsByExchange.clear();
+            instruments = new Instrument[0];
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public int count() {
+        return instruments.length;
     }
     
-    private String generateKey(String symbol, String exchange) {
+    public static String generateKey(String symbol, String exchange) {
         return symbol.toUpperCase() + "_" + exchange.toUpperCase();
     }
+    
+    private Instrument store(Instrument instrument, boolean journaled) {
+        writeLock.lock();
+        try {
+            String symbol = instrument.getSymbol().toUpperCase();
+            String exchange = instrument.getExchange().toUpperCase();
+            Instrument stored = Instrument.builder()
+                    .symbol(symbol)
+                    .exchange(exchange)
+                    .instrumentType(instrument.getInstrumentType())
+                    .build();
+            
+            Integer id = lookup(symbol, exchange);
+            if (id == null) {
+                id = instruments.length;
+                prices.allocate(id);
+                Instrument[] grown = Arrays.copyOf(instruments, id + 1);
+                grown[id] = stored;
+                instruments = grown;
+                idsByExchange.computeIfAbsent(exchange, key -> new ConcurrentHashMap<>()).put(symbol, id);
+            } else {
+                Instrument[] updated = instruments.clone();
+                updated[id] = stored;
+                instruments = updated;
+            }
+            
+            prices.set(id, instrument.getLastTradedPrice() != null ? instrument.getLastTradedPrice() : Double.NaN);
+            if (journaled) {
+                journal.appendInstrument(instrument);
+            }
+            return instrument;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    private Integer lookup(String symbol, String exchange) {
+        Map<String, Integer> symbols = idsByExchange.get(exchange);
+        return symbols != null ? symbols.get(symbol) : null;
+    }
+    
+    private Instrument withPrice(Instrument instrument, int id) {
+        double price = prices.get(id);
+        return Instrument.builder()
+                .symbol(instrument.getSymbol())
+                .exchange(instrument.getExchange())
+                .instrumentType(instrument.getInstrumentType())
+                .lastTradedPrice(Double.isNaN(price) ? null : price)
+                .build();
+    }
 }
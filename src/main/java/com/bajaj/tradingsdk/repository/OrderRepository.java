@@ -1,47 +1,276 @@
 package com.bajaj.tradingsdk.repository;
 
+import com.bajaj.tradingsdk.journal.Journal;
 import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderStatus;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
- * In-memory repository for Orders
+ * In-memory repository for Orders.
+ *
+ * Each user's orders are indexed in ID order, and IDs are time-ordered, so
+ * history can be paged or streamed newest first from any point without
+ * copying the whole list.
+ *
+ * Open orders are held as the {@link Order}s the engine updates. EXECUTED and
+ * CANCELLED orders never change again and are held as {@link CompactOrder}s;
+ * reads of those return a new {@link Order}. Open and finished orders are
+ * also indexed by ID alone, so recovery reads the open ones without touching
+ * history, and the archiver seeks to the finished ones old enough to archive.
  */
 @Repository
+@RequiredArgsConstructor
 public class OrderRepository {
     
-    private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private final Journal journal;
+    
+    private final Map<String, StoredOrder> orders = new ConcurrentHashMap<>();
+    
+    // Secondary index - Key: userId, Value: that user's orders sorted by orderId
+    private final Map<String, ConcurrentNavigableMap<String, StoredOrder>> ordersByUser = new ConcurrentHashMap<>();
+    
+    // Orders not yet EXECUTED or CANCELLED, and the archive candidates that are, sorted by orderId
+    private final ConcurrentNavigableMap<String, Order> openOrders = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, CompactOrder> finishedOrders = new ConcurrentSkipListMap<>();
     
     public List<Order> findAll() {
-        return new ArrayList<>(orders.values());
+        return valuesOf(orders);
+    }
+    
+    /**
+     * Visit every order without building them all up front
+     */
+    public void forEach(Consumer<Order> action) {
+        orders.values().forEach(order -> action.accept(order.toOrder()));
+    }
+    
+    /**
+     * Orders not yet EXECUTED or CANCELLED, oldest first
+     */
+    public List<Order> findOpen() {
+        return new ArrayList<>(openOrders.values());
+    }
+    
+    /**
+     * Orders placed with a client order ID at or after a time. Finished orders
+     * are checked in the compact form, so only matching orders are built.
+     *
+     * @param fromId only consider orders with this ID or higher
+     */
+    public List<Order> findWithClientOrderIdSince(String fromId, LocalDateTime since) {
+        long sinceNanos = CompactValues.toNanos(since);
+        List<Order> found = new ArrayList<>();
+        for (Order order : openOrders.tailMap(fromId, true).values()) {
+            if (order.getClientOrderId() != null && !order.getCreatedAt().isBefore(since)) {
+                found.add(order);
+            }
+        }
+        for (CompactOrder stored : finishedOrders.tailMap(fromId, true).values()) {
+            if (stored.getClientOrderId() != null && stored.getCreatedAt() >= sinceNanos) {
+                found.add(stored.toOrder());
+            }
+        }
+        return found;
     }
     
     public Optional<Order> findById(String orderId) {
-        return Optional.ofNullable(orders.get(orderId));
+        return Optional.ofNullable(orders.get(orderId)).map(StoredOrder::toOrder);
+    }
+    
+    /**
+     * An order by ID, only if it belongs to the user
+     */
+    public Optional<Order> findByUserIdAndId(String userId, String orderId) {
+        Map<String, StoredOrder> userOrders = ordersByUser.get(userId);
+        return userOrders == null ? Optional.empty() : Optional.ofNullable(userOrders.get(orderId)).map(StoredOrder::toOrder);
     }
     
     public List<Order> findByUserId(String userId) {
-        return orders.values().stream()
-                .filter(order -> order.getUserId().equals(userId))
-                .collect(Collectors.toList());
+        return valuesOf(ordersByUser.get(userId));
+    }
+    
+    /**
+     * A user's orders newest first, read lazily from the index
+     *
+     * @param fromId   lowest order ID to include, or null
+     * @param beforeId only include orders with a lower ID, or null
+     */
+    public Stream<Order> streamByUserId(String userId, String fromId, String beforeId) {
+        ConcurrentNavigableMap<String, StoredOrder> userOrders = ordersByUser.get(userId);
+        if (userOrders == null) {
+            return Stream.empty();
+        }
+        if (beforeId != null) {
+            userOrders = userOrders.headMap(beforeId, false);
+        }
+        if (fromId != null) {
+            userOrders = userOrders.tailMap(fromId, true);
+        }
+        return userOrders.descendingMap().values().stream().map(StoredOrder::toOrder);
+    }
+    
+    /**
+     * Finished orders last changed before a time, oldest first. Times are
+     * compared in the compact form, so only matching orders are built.
+     *
+     * @param beforeId only consider orders with a lower ID; an order's ID is
+     *                 never later than its last change, so this bounds the scan
+     */
+    public List<Order> findFinishedBefore(String beforeId, LocalDateTime cutoff) {
+        long cutoffNanos = CompactValues.toNanos(cutoff);
+        List<Order> found = new ArrayList<>();
+        for (CompactOrder stored : finishedOrders.headMap(beforeId, false).values()) {
+            if (stored.getLastChanged() < cutoffNanos) {
+                found.add(stored.toOrder());
+            }
+        }
+        return found;
     }
     
     public Order save(Order order) {
-        orders.put(order.getOrderId(), order);
+        return store(order, true);
+    }
+    
+    /**
+     * Put a recovered order back without journaling it again
+     */
+    public Order restore(Order order) {
+        return store(order, false);
+    }
+    
+    private Order store(Order order, boolean journaled) {
+        StoredOrder stored = isFinished(order) ? CompactOrder.of(order) : new OpenOrder(order);
+        // compute() locks the order's entry, so the index is updated atomically with the save
+        orders.compute(order.getOrderId(), (orderId, previous) -> {
+            if (previous != null && !previous.getUserId().equals(order.getUserId())) {
+                unindex(previous.getUserId(), orderId);
+            }
+            // compute() rather than computeIfAbsent(), so unindex() can't drop the map before the put
+            ordersByUser.compute(order.getUserId(), (userId, userOrders) -> {
+                ConcurrentNavigableMap<String, StoredOrder> indexed =
+                        userOrders != null ? userOrders : new ConcurrentSkipListMap<>();
+                indexed.put(orderId, stored);
+                return indexed;
+            });
+            if (stored instanceof CompactOrder finished) {
+                finishedOrders.put(orderId, finished);
+                openOrders.remove(orderId);
+            } else {
+                openOrders.put(orderId, order);
+                finishedOrders.remove(orderId);
+            }
+            return stored;
+        });
+        // Journal after the map update, so every journaled change is already
+        // visible to a snapshot taken after it (see SnapshotManager)
+        if (journaled) {
+            journal.appendOrder(order);
+        }
         return order;
     }
     
+    /**
+     * Drop an archived order from memory, unless it has been reopened since it was read
+     *
+     * @return whether the order was dropped
+     */
+    public boolean evict(Order order) {
+        boolean[] evicted = {false};
+        orders.computeIfPresent(order.getOrderId(), (orderId, current) -> {
+            if (!(current instanceof CompactOrder)) {
+                return current;
+            }
+            unindex(current.getUserId(), orderId);
+            finishedOrders.remove(orderId);
+            evicted[0] = true;
+            return null;
+        });
+        if (evicted[0]) {
+            journal.appendOrderEvict(order.getOrderId());
+        }
+        return evicted[0];
+    }
+    
+    /**
+     * Drop an order archived by a previous run without journaling it again
+     */
+    public void restoreEviction(String orderId) {
+        StoredOrder order = orders.remove(orderId);
+        if (order != null) {
+            unindex(order.getUserId(), orderId);
+            openOrders.remove(orderId);
+            finishedOrders.remove(orderId);
+        }
+    }
+    
     public boolean existsById(String orderId) {
         return orders.containsKey(orderId);
     }
     
+    public int count() {
+        return orders.size();
+    }
+    
     public void deleteAll() {
         orders.clear();
+        ordersByUser.clear();
+        openOrders.clear();
+        finishedOrders.clear();
+    }
+    
+    /**
+     * Remove an order from its user's index, dropping the index once it is empty
+     */
+    private void unindex(String userId, String orderId) {
+        ordersByUser.computeIfPresent(userId, (id, userOrders) -> {
+            userOrders.remove(orderId);
+            return userOrders.isEmpty() ? null : userOrders;
+        });
+    }
+    
+    private static boolean isFinished(Order order) {
+        return order.getStatus() == OrderStatus.EXECUTED || order.getStatus() == OrderStatus.CANCELLED;
+    }
+    
+    private static List<Order> valuesOf(Map<String, StoredOrder> indexed) {
+        List<Order> values = new ArrayList<>(indexed == null ? 0 : indexed.size());
+        if (indexed != null) {
+            indexed.values().forEach(order -> values.add(order.toOrder()));
+        }
+        return values;
+    }
+    
+    /**
+     * An open order, kept as the object the engine updates
+     */
+    private static final class OpenOrder implements StoredOrder {
+        
+        private final Order order;
+        
+        private OpenOrder(Order order) {
+            this.order = order;
+        }
+        
+        @Override
+        public String getUserId() {
+            return order.getUserId();
+        }
+        
+        @Override
+        public Order toOrder() {
+            return order;
+        }
     }
 }
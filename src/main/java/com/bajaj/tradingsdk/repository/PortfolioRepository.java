@@ -1,6 +1,8 @@
 package com.bajaj.tradingsdk.repository;
 
+import com.bajaj.tradingsdk.journal.Journal;
 import com.bajaj.tradingsdk.model.PortfolioHolding;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
@@ -8,48 +10,117 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.function.UnaryOperator;
 
 /**
  * In-memory repository for Portfolio Holdings
  */
 @Repository
+@RequiredArgsConstructor
 public class PortfolioRepository {
     
-    // Key: userId_symbol_exchange
-    private final Map<String, PortfolioHolding> holdings = new ConcurrentHashMap<>();
+    private final Journal journal;
+    
+    // Key: userId, Value: that user's holdings keyed by instrument ID
+    private final Map<String, Map<Integer, PortfolioHolding>> holdingsByUser = new ConcurrentHashMap<>();
     
     public List<PortfolioHolding> findAll() {
-        return new ArrayList<>(holdings.values());
+        List<PortfolioHolding> all = new ArrayList<>();
+        holdingsByUser.values().forEach(userHoldings -> all.addAll(userHoldings.values()));
+        return all;
     }
     
     public List<PortfolioHolding> findByUserId(String userId) {
-        return holdings.values().stream()
-                .filter(holding -> holding.getUserId().equals(userId))
-                .collect(Collectors.toList());
+        Map<Integer, PortfolioHolding> userHoldings = holdingsByUser.get(userId);
+        return userHoldings == null ? new ArrayList<>() : new ArrayList<>(userHoldings.values());
     }
     
-    public Optional<PortfolioHolding> findByUserIdAndSymbolAndExchange(String userId, String symbol, String exchange) {
-        String key = generateKey(userId, symbol, exchange);
-        return Optional.ofNullable(holdings.get(key));
+    public Optional<PortfolioHolding> findByUserIdAndInstrumentId(String userId, int instrumentId) {
+        Map<Integer, PortfolioHolding> userHoldings = holdingsByUser.get(userId);
+        return Optional.ofNullable(userHoldings == null ? null : userHoldings.get(instrumentId));
     }
     
     public PortfolioHolding save(PortfolioHolding holding) {
-        String key = generateKey(holding.getUserId(), holding.getSymbol(), holding.getExchange());
-        holdings.put(key, holding);
-        return holding;
+        return store(holding, true);
+    }
+    
+    /**
+     * Put a recovered holding back without journaling it again
+     */
+    public PortfolioHolding restore(PortfolioHolding holding) {
+        return store(holding, false);
+    }
+    
+    public void delete(String userId, int instrumentId) {
+        remove(userId, instrumentId, true);
+    }
+    
+    /**
+     * Replay a recovered deletion without journaling it again
+     */
+    public void restoreDeletion(String userId, int instrumentId) {
+        remove(userId, instrumentId, false);
     }
     
-    public void delete(String userId, String symbol, String exchange) {
-        String key = generateKey(userId, symbol, exchange);
-        holdings.remove(key);
+    public int count() {
+        return holdingsByUser.values().stream().mapToInt(Map::size).sum();
     }
     
     public void deleteAll() {
-        holdings.clear();
+        holdingsByUser.clear();
+    }
+    
+    /**
+     * Atomically replace a user's holding with {@code change(previous)}, where
+     * previous is null if there is no holding and a null result removes it.
+     *
+     * Updates lock only the user's entry, so fills for different users run in
+     * parallel. Stored holdings are never mutated, so readers always see a
+     * consistent quantity and average price. (Order-driven updates to one
+     * holding also run on its instrument's sequencer, which keeps their
+     * journal records in the same order.)
+     *
+     * @return the new holding, or null if removed
+     */
+    public PortfolioHolding update(String userId, int instrumentId, UnaryOperator<PortfolioHolding> change) {
+        return update(userId, instrumentId, change, true);
+    }
+    
+    private PortfolioHolding store(PortfolioHolding holding, boolean journaled) {
+        return update(holding.getUserId(), holding.getInstrumentId(), previous -> holding, journaled);
+    }
+    
+    private void remove(String userId, int instrumentId, boolean journaled) {
+        update(userId, instrumentId, previous -> null, journaled);
     }
     
-    private String generateKey(String userId, String symbol, String exchange) {
-        return userId + "_" + symbol.toUpperCase() + "_" + exchange.toUpperCase();
+    private PortfolioHolding update(String userId, int instrumentId, UnaryOperator<PortfolioHolding> change,
+                                    boolean journaled) {
+        PortfolioHolding[] result = new PortfolioHolding[2];    // previous, updated
+        // compute() locks the user's entry, so the user is dropped atomically once their last holding is gone
+        holdingsByUser.compute(userId, (u, userHoldings) -> {
+            Map<Integer, PortfolioHolding> holdings = userHoldings != null ? userHoldings : new ConcurrentHashMap<>();
+            PortfolioHolding previous = holdings.get(instrumentId);
+            PortfolioHolding updated = change.apply(previous);
+            if (updated != null) {
+                holdings.put(instrumentId, updated);
+            } else {
+                holdings.remove(instrumentId);
+            }
+            result[0] = previous;
+            result[1] = updated;
+            return holdings.isEmpty() ? null : holdings;
+        });
+        
+        // Journal after the map update, so every journaled change is already
+        // visible to a snapshot taken after it (see SnapshotManager)
+        if (journaled) {
+            if (result[1] != null) {
+                journal.appendHolding(result[1]);
+            } else if (result[0] != null) {
+                journal.appendHoldingDelete(userId, result[0].getSymbol(), result[0].getExchange());
+            }
+        }
+        return result[1];
     }
 }
@@ -0,0 +1,54 @@
+package com.bajaj.tradingsdk.repository;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Last traded prices as primitive doubles indexed by instrument ID.
+ *
+ * Prices live in fixed-size pages that are allocated when an ID is first
+ * registered and never moved, so reads and writes are a plain array access
+ * with no boxing, hashing or locking. Writes use release and reads use acquire
+ * semantics, so a price written by the market data thread is seen whole by
+ * order threads. Not thread-safe for registration; the repository serialises it.
+ */
+final class PriceTable {
+    
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int MAX_PAGES = 1 << 10;   // Up to ~1M instruments
+    
+    static final int CAPACITY = PAGE_SIZE * MAX_PAGES;
+    
+    private static final VarHandle PRICE = MethodHandles.arrayElementVarHandle(double[].class);
+    
+    private final double[][] pages = new double[MAX_PAGES][];
+    
+    /**
+     * Make room for an ID before it is published
+     */
+    void allocate(int id) {
+        if (id < 0 || id >= CAPACITY) {
+            throw new IllegalStateException("Price table is full: " + CAPACITY + " instruments");
+        }
+        int page = id >>> PAGE_BITS;
+        if (pages[page] == null) {
+            double[] prices = new double[PAGE_SIZE];
+            Arrays.fill(prices, Double.NaN);
+            pages[page] = prices;
+        }
+    }
+    
+    /**
+     * @return the price, or NaN if none has been set
+     */
+    double get(int id) {
+        return (double) PRICE.getAcquire(pages[id >>> PAGE_BITS], id & PAGE_MASK);
+    }
+    
+    void set(int id, double price) {
+        PRICE.setRelease(pages[id >>> PAGE_BITS], id & PAGE_MASK, price);
+    }
+}
@@ -0,0 +1,17 @@
+package com.bajaj.tradingsdk.repository;
+
+import com.bajaj.tradingsdk.model.Order;
+
+/**
+ * An order as {@link OrderRepository} holds it: the {@link Order} the engine
+ * updates while it is open, a {@link CompactOrder} once it is finished
+ */
+interface StoredOrder {
+    
+    String getUserId();
+    
+    /**
+     * The order itself while it is open, otherwise a new {@link Order}
+     */
+    Order toOrder();
+}
@@ -1,49 +1,208 @@
 package com.bajaj.tradingsdk.repository;
 
+import com.bajaj.tradingsdk.journal.Journal;
 import com.bajaj.tradingsdk.model.Trade;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
- * In-memory repository for Trades
+ * In-memory repository for Trades.
+ *
+ * Each user's trades are indexed in ID order, and IDs are time-ordered, so
+ * history can be paged or streamed newest first from any point without
+ * copying the whole list. All trades are also kept in ID order, so the
+ * archiver can seek to the ones old enough to archive. Trades are held as
+ * {@link CompactTrade}s; every read returns a new {@link Trade}.
  */
 @Repository
+@RequiredArgsConstructor
 public class TradeRepository {
     
-    private final Map<String, Trade> trades = new ConcurrentHashMap<>();
+    private final Journal journal;
+    
+    // Sorted by tradeId, so in execution order
+    private final ConcurrentNavigableMap<String, CompactTrade> trades = new ConcurrentSkipListMap<>();
+    
+    // Secondary indexes - Key: userId / orderId, Value: matching trades keyed by tradeId, so in execution order
+    private final Map<String, ConcurrentNavigableMap<String, CompactTrade>> tradesByUser = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrentNavigableMap<String, CompactTrade>> tradesByOrder = new ConcurrentHashMap<>();
     
     public List<Trade> findAll() {
-        return new ArrayList<>(trades.values());
+        return valuesOf(trades);
+    }
+    
+    /**
+     * Visit every trade in ID order without building them all up front
+     */
+    public void forEach(Consumer<Trade> action) {
+        trades.values().forEach(trade -> action.accept(trade.toTrade()));
     }
     
     public Optional<Trade> findById(String tradeId) {
-        return Optional.ofNullable(trades.get(tradeId));
+        return Optional.ofNullable(trades.get(tradeId)).map(CompactTrade::toTrade);
     }
     
     public List<Trade> findByUserId(String userId) {
-        return trades.values().stream()
-                .filter(trade -> trade.getUserId().equals(userId))
-                .collect(Collectors.toList());
+        return valuesOf(tradesByUser.get(userId));
     }
     
     public List<Trade> findByOrderId(String orderId) {
-        return trades.values().stream()
-                .filter(trade -> trade.getOrderId().equals(orderId))
-                .collect(Collectors.toList());
+        return valuesOf(tradesByOrder.get(orderId));
+    }
+    
+    /**
+     * A user's trades newest first, read lazily from the index
+     *
+     * @param fromId   lowest trade ID to include, or null
+     * @param beforeId only include trades with a lower ID, or null
+     */
+    public Stream<Trade> streamByUserId(String userId, String fromId, String beforeId) {
+        ConcurrentNavigableMap<String, CompactTrade> userTrades = tradesByUser.get(userId);
+        if (userTrades == null) {
+            return Stream.empty();
+        }
+        if (beforeId != null) {
+            userTrades = userTrades.headMap(beforeId, false);
+        }
+        if (fromId != null) {
+            userTrades = userTrades.tailMap(fromId, true);
+        }
+        return userTrades.descendingMap().values().stream().map(CompactTrade::toTrade);
+    }
+    
+    /**
+     * Trades executed before a time, oldest first. Execution times are
+     * compared in the compact form, so only matching trades are built.
+     *
+     * @param beforeId only consider trades with a lower ID; a trade's ID is
+     *                 never later than its execution, so this bounds the scan
+     */
+    public List<Trade> findExecutedBefore(String beforeId, LocalDateTime cutoff) {
+        long cutoffNanos = CompactValues.toNanos(cutoff);
+        List<Trade> found = new ArrayList<>();
+        for (CompactTrade stored : trades.headMap(beforeId, false).values()) {
+            if (stored.getExecutedAt() < cutoffNanos) {
+                found.add(stored.toTrade());
+            }
+        }
+        return found;
     }
     
     public Trade save(Trade trade) {
-        trades.put(trade.getTradeId(), trade);
+        return store(trade, true);
+    }
+    
+    /**
+     * Put a recovered trade back without journaling it again
+     */
+    public Trade restore(Trade trade) {
+        return store(trade, false);
+    }
+    
+    public boolean existsById(String tradeId) {
+        return trades.containsKey(tradeId);
+    }
+    
+    public int count() {
+        return trades.size();
+    }
+    
+    private Trade store(Trade trade, boolean journaled) {
+        CompactTrade stored = CompactTrade.of(trade);
+        // compute() locks the trade's entry, so the indexes are updated atomically with the save
+        trades.compute(trade.getTradeId(), (tradeId, previous) -> {
+            if (previous != null) {
+                unindex(tradesByUser, previous.getUserId(), tradeId);
+                unindex(tradesByOrder, previous.getOrderId(), tradeId);
+            }
+            index(tradesByUser, trade.getUserId(), tradeId, stored);
+            index(tradesByOrder, trade.getOrderId(), tradeId, stored);
+            return stored;
+        });
+        // Journal after the map update, so every journaled change is already
+        // visible to a snapshot taken after it (see SnapshotManager)
+        if (journaled) {
+            journal.appendTrade(trade);
+        }
         return trade;
     }
     
+    /**
+     * Drop an archived trade from memory
+     *
+     * @return whether the trade was dropped
+     */
+    public boolean evict(Trade trade) {
+        boolean evicted = remove(trade.getTradeId());
+        if (evicted) {
+            journal.appendTradeEvict(trade.getTradeId());
+        }
+        return evicted;
+    }
+    
+    /**
+     * Drop a trade archived by a previous run without journaling it again
+     */
+    public void restoreEviction(String tradeId) {
+        remove(tradeId);
+    }
+    
+    private boolean remove(String tradeId) {
+        boolean[] removed = {false};
+        trades.computeIfPresent(tradeId, (id, current) -> {
+            unindex(tradesByUser, current.getUserId(), id);
+            unindex(tradesByOrder, current.getOrderId(), id);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+    
     public void deleteAll() {
         trades.clear();
+        tradesByUser.clear();
+        tradesByOrder.clear();
+    }
+    
+    private static List<Trade> valuesOf(Map<String, CompactTrade> indexed) {
+        List<Trade> values = new ArrayList<>(indexed == null ? 0 : indexed.size());
+        if (indexed != null) {
+            indexed.values().forEach(trade -> values.add(trade.toTrade()));
+        }
+        return values;
+    }
+    
+    /**
+     * Add a trade to an index; compute() rather than computeIfAbsent(), so unindex() can't drop the map before the put
+     */
+    private static void index(Map<String, ConcurrentNavigableMap<String, CompactTrade>> index, String key,
+                              String tradeId, CompactTrade trade) {
+        index.compute(key, (k, indexed) -> {
+            ConcurrentNavigableMap<String, CompactTrade> updated = indexed != null ? indexed : new ConcurrentSkipListMap<>();
+            updated.put(tradeId, trade);
+            return updated;
+        });
+    }
+    
+    /**
+     * Remove a trade from an index, dropping the key's map once it is empty
+     */
+    private static void unindex(Map<String, ConcurrentNavigableMap<String, CompactTrade>> index, String key,
+                                String tradeId) {
+        index.computeIfPresent(key, (k, indexed) -> {
+            indexed.remove(tradeId);
+            return indexed.isEmpty() ? null : indexed;
+        });
     }
 }
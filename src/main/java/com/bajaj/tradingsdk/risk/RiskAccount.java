@@ -0,0 +1,87 @@
+package com.bajaj.tradingsdk.risk;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A user's running exposures as primitive counters: buying power in paise,
+ * and the quantity of open BUY and of open SELL orders per instrument.
+ *
+ * Buying power is shared by every instrument's sequencer shard, so it is
+ * reserved with a CAS. Open quantities live in fixed-size pages indexed by
+ * instrument ID, like the price table; each slot is only read and written on
+ * its instrument's shard, so slots are plain array accesses and only installing
+ * a page needs a CAS.
+ */
+final class RiskAccount {
+    
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int MAX_PAGES = 1 << 10;
+    
+    private final AtomicLong buyingPower;
+    private final AtomicReferenceArray<long[]> openBuyPages = new AtomicReferenceArray<>(MAX_PAGES);
+    private final AtomicReferenceArray<long[]> openSellPages = new AtomicReferenceArray<>(MAX_PAGES);
+    
+    RiskAccount(long buyingPower) {
+        this.buyingPower = new AtomicLong(buyingPower);
+    }
+    
+    /**
+     * Take an amount out of buying power, unless that would leave it negative
+     */
+    boolean tryReserve(long amount) {
+        while (true) {
+            long available = buyingPower.get();
+            if (available < amount) {
+                return false;
+            }
+            if (buyingPower.compareAndSet(available, available - amount)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Add an amount (negative to take it out unconditionally) to buying power
+     */
+    void credit(long amount) {
+        buyingPower.addAndGet(amount);
+    }
+    
+    long getBuyingPower() {
+        return buyingPower.get();
+    }
+    
+    long getOpenBuyQuantity(int instrumentId) {
+        return get(openBuyPages, instrumentId);
+    }
+    
+    void addOpenBuyQuantity(int instrumentId, long delta) {
+        add(openBuyPages, instrumentId, delta);
+    }
+    
+    long getOpenSellQuantity(int instrumentId) {
+        return get(openSellPages, instrumentId);
+    }
+    
+    void addOpenSellQuantity(int instrumentId, long delta) {
+        add(openSellPages, instrumentId, delta);
+    }
+    
+    private static long get(AtomicReferenceArray<long[]> pages, int instrumentId) {
+        long[] page = pages.get(instrumentId >>> PAGE_BITS);
+        return page == null ? 0 : page[instrumentId & PAGE_MASK];
+    }
+    
+    private static void add(AtomicReferenceArray<long[]> pages, int instrumentId, long delta) {
+        int index = instrumentId >>> PAGE_BITS;
+        long[] page = pages.get(index);
+        if (page == null) {
+            pages.compareAndSet(index, null, new long[PAGE_SIZE]);
+            page = pages.get(index);
+        }
+        page[instrumentId & PAGE_MASK] += delta;
+    }
+}
\ No newline at end of file
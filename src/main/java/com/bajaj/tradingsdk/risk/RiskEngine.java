@@ -0,0 +1,239 @@
+package com.bajaj.tradingsdk.risk;
+
+import com.bajaj.tradingsdk.exception.RiskLimitException;
+import com.bajaj.tradingsdk.journal.HistoryArchive;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderStyle;
+import com.bajaj.tradingsdk.model.OrderType;
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import com.bajaj.tradingsdk.model.Trade;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import com.bajaj.tradingsdk.repository.TradeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-trade risk checks: order value limit, fat-finger price band around the
+ * last traded price, per-instrument position limit and buying power.
+ *
+ * Every user starts with the same cash. A BUY order reserves its value from
+ * buying power when it is placed; fills settle the reservation at the fill
+ * price, SELL fills credit their proceeds, and cancelling releases what is
+ * left. Amounts are whole paise in primitive counters, so a check is a few
+ * arithmetic operations and at most one CAS. Checks and updates for an
+ * instrument run on its sequencer shard.
+ *
+ * The quantity of open SELL orders is counted the same way, even with risk
+ * limits disabled, so that shares already committed to a resting SELL cannot
+ * be sold again by another order.
+ */
+@Component
+@Slf4j
+public class RiskEngine implements SmartInitializingSingleton {
+    
+    private final OrderRepository orderRepository;
+    private final TradeRepository tradeRepository;
+    private final HistoryArchive historyArchive;
+    private final PortfolioRepository portfolioRepository;
+    private final boolean enabled;
+    private final long startingCash;
+    private final long maxOrderValue;
+    private final long maxPositionQuantity;
+    private final long priceBandBasisPoints;
+    
+    private final Map<String, RiskAccount> accounts = new ConcurrentHashMap<>();
+    
+    public RiskEngine(OrderRepository orderRepository, TradeRepository tradeRepository,
+                      HistoryArchive historyArchive, PortfolioRepository portfolioRepository,
+                      @Value("${trading.risk.enabled:true}") boolean enabled,
+                      @Value("${trading.risk.starting-cash:10000000}") double startingCash,
+                      @Value("${trading.risk.max-order-value:5000000}") double maxOrderValue,
+                      @Value("${trading.risk.max-position-quantity:100000}") long maxPositionQuantity,
+                      @Value("${trading.risk.price-band-percent:10}") double priceBandPercent) {
+        this.orderRepository = orderRepository;
+        this.tradeRepository = tradeRepository;
+        this.historyArchive = historyArchive;
+        this.portfolioRepository = portfolioRepository;
+        this.enabled = enabled;
+        this.startingCash = toPaise(startingCash);
+        this.maxOrderValue = toPaise(maxOrderValue);
+        this.maxPositionQuantity = maxPositionQuantity;
+        this.priceBandBasisPoints = Math.round(priceBandPercent * 100);
+    }
+    
+    /**
+     * Rebuild buying power and open BUY and SELL quantities from recovered and
+     * archived trades and orders, once state has been rebuilt and before
+     * requests are served
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            tradeRepository.forEach(this::settle);
+            historyArchive.forEachTrade(trade -> {
+                // Skip trades archived just before a crash that are still in memory
+                if (!tradeRepository.existsById(trade.getTradeId())) {
+                    settle(trade);
+                }
+            });
+        }
+        for (Order order : orderRepository.findOpen()) {
+            int remaining = order.getRemainingQuantity();
+            RiskAccount account = account(order.getUserId());
+            if (order.getOrderType() == OrderType.SELL) {
+                account.addOpenSellQuantity(order.getInstrumentId(), remaining);
+            } else if (enabled) {
+                account.credit(-reservedPrice(order) * remaining);
+                account.addOpenBuyQuantity(order.getInstrumentId(), remaining);
+            }
+        }
+        if (!accounts.isEmpty()) {
+            log.info("Restored risk accounts for {} users", accounts.size());
+        }
+    }
+    
+    /**
+     * Check a new order against every limit and reserve buying power for a BUY,
+     * or count a SELL's quantity as committed; runs on the instrument's sequencer
+     *
+     * @param marketPrice last traded price the order was validated against
+     * @throws RiskLimitException if any limit would be breached; nothing is reserved
+     */
+    public void reserve(Order order, double marketPrice) {
+        if (enabled) {
+            checkLimitsAndReserve(order, marketPrice);
+        }
+        if (order.getOrderType() == OrderType.SELL) {
+            account(order.getUserId()).addOpenSellQuantity(order.getInstrumentId(), order.getQuantity());
+        }
+    }
+    
+    private void checkLimitsAndReserve(Order order, double marketPrice) {
+        long price = reservedPrice(order);
+        long value = price * order.getQuantity();
+        if (value > maxOrderValue) {
+            throw new RiskLimitException(String.format("Order value %s exceeds the limit of %s",
+                    amount(value), amount(maxOrderValue)));
+        }
+        
+        // A STOP_LIMIT order's limit price only has to be near the price that triggers it
+        if (order.getOrderStyle() == OrderStyle.LIMIT || order.getOrderStyle() == OrderStyle.STOP_LIMIT) {
+            boolean stop = order.getOrderStyle() == OrderStyle.STOP_LIMIT;
+            long reference = toPaise(stop ? order.getTriggerPrice() : marketPrice);
+            if (Math.abs(price - reference) * 10_000 > reference * priceBandBasisPoints) {
+                throw new RiskLimitException(String.format("Price %s is more than %s%% away from the %s price %s",
+                        amount(price), priceBandBasisPoints / 100.0, stop ? "trigger" : "last traded", amount(reference)));
+            }
+        }
+        
+        if (order.getOrderType() != OrderType.BUY) {
+            return;
+        }
+        RiskAccount account = account(order.getUserId());
+        long position = holdingQuantity(order) + account.getOpenBuyQuantity(order.getInstrumentId());
+        if (position + order.getQuantity() > maxPositionQuantity) {
+            throw new RiskLimitException(String.format(
+                    "Position limit exceeded. You hold or are buying %d shares of %s; the limit is %d",
+                    position, order.getSymbol(), maxPositionQuantity));
+        }
+        if (!account.tryReserve(value)) {
+            throw new RiskLimitException(String.format("Insufficient buying power. You have %s, but the order needs %s",
+                    amount(account.getBuyingPower()), amount(value)));
+        }
+        account.addOpenBuyQuantity(order.getInstrumentId(), order.getQuantity());
+    }
+    
+    /**
+     * Settle a fill: a BUY pays the fill price instead of the reserved price,
+     * a SELL credits its proceeds; runs on the instrument's sequencer
+     */
+    public void onFill(Order order, int quantity, double executionPrice) {
+        RiskAccount account = account(order.getUserId());
+        if (order.getOrderType() == OrderType.SELL) {
+            account.addOpenSellQuantity(order.getInstrumentId(), -quantity);
+        }
+        if (!enabled) {
+            return;
+        }
+        long fillPrice = toPaise(executionPrice);
+        if (order.getOrderType() == OrderType.BUY) {
+            account.credit((reservedPrice(order) - fillPrice) * quantity);
+            account.addOpenBuyQuantity(order.getInstrumentId(), -quantity);
+        } else {
+            account.credit(fillPrice * quantity);
+        }
+    }
+    
+    /**
+     * Release what a cancelled order still had reserved or committed; runs on the instrument's sequencer
+     */
+    public void onCancel(Order order) {
+        int remaining = order.getRemainingQuantity();
+        RiskAccount account = account(order.getUserId());
+        if (order.getOrderType() == OrderType.SELL) {
+            account.addOpenSellQuantity(order.getInstrumentId(), -remaining);
+            return;
+        }
+        if (!enabled) {
+            return;
+        }
+        account.credit(reservedPrice(order) * remaining);
+        account.addOpenBuyQuantity(order.getInstrumentId(), -remaining);
+    }
+    
+    /**
+     * Cash a user can still commit to new BUY orders; reading it never creates an account
+     */
+    public double getBuyingPower(String userId) {
+        RiskAccount account = accounts.get(userId);
+        return (account == null ? startingCash : account.getBuyingPower()) / 100.0;
+    }
+    
+    /**
+     * Quantity of an instrument a user has committed to open SELL orders; read on the instrument's sequencer
+     */
+    public long getOpenSellQuantity(String userId, int instrumentId) {
+        RiskAccount account = accounts.get(userId);
+        return account == null ? 0 : account.getOpenSellQuantity(instrumentId);
+    }
+    
+    private void settle(Trade trade) {
+        long value = toPaise(trade.getExecutionPrice()) * trade.getQuantity();
+        account(trade.getUserId()).credit(trade.getTradeType() == OrderType.BUY ? -value : value);
+    }
+    
+    /**
+     * Account for a user placing orders or being recovered; only these paths may create one
+     */
+    private RiskAccount account(String userId) {
+        return accounts.computeIfAbsent(userId, id -> new RiskAccount(startingCash));
+    }
+    
+    private int holdingQuantity(Order order) {
+        return portfolioRepository.findByUserIdAndInstrumentId(order.getUserId(), order.getInstrumentId())
+                .map(PortfolioHolding::getQuantity)
+                .orElse(0);
+    }
+    
+    /**
+     * Per-share price an order is valued at: a STOP order's trigger price (its
+     * execution price is only known once it triggers), otherwise its price
+     */
+    private static long reservedPrice(Order order) {
+        return toPaise(order.getOrderStyle() == OrderStyle.STOP ? order.getTriggerPrice() : order.getPrice());
+    }
+    
+    private static long toPaise(double rupees) {
+        return Math.round(rupees * 100);
+    }
+    
+    private static String amount(long paise) {
+        return String.format("%.2f", paise / 100.0);
+    }
+}
\ No newline at end of file
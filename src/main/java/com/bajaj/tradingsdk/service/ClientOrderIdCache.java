@@ -0,0 +1,195 @@
+package com.bajaj.tradingsdk.service;
+
+import com.bajaj.tradingsdk.dto.HistoryFilter;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers the ID of the order placed for each client order ID, so a
+ * retried request returns the original order instead of placing a new one.
+ * Only the ID is kept; the order itself is looked up when a retry arrives.
+ *
+ * Entries live for a fixed window and the cache holds at most a fixed number
+ * of them; both lookups and eviction are O(1). Because every entry lives for
+ * the same window, insertion order is expiry order, and eviction just pops
+ * the oldest entries off a queue. The cap counts queued entries, including
+ * released ones still waiting to be popped, so the queue never outgrows it.
+ * Once the cap is reached the oldest entries are evicted early, so a retry
+ * older than that is treated as a new order.
+ */
+@Component
+@Slf4j
+public class ClientOrderIdCache implements SmartInitializingSingleton {
+    
+    private static final String ORDER_ID_PREFIX = "ORD-";
+    
+    private final OrderRepository orderRepository;
+    private final long windowNanos;
+    private final int maxEntries;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> expiryQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    
+    public ClientOrderIdCache(OrderRepository orderRepository,
+                              @Value("${trading.dedup.window-seconds:600}") long windowSeconds,
+                              @Value("${trading.dedup.max-entries:1000000}") int maxEntries) {
+        this.orderRepository = orderRepository;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.maxEntries = maxEntries;
+    }
+    
+    /**
+     * Re-register recovered orders still inside the window, once state has been
+     * rebuilt and before requests are served
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalDateTime windowStart = LocalDateTime.now().minus(Duration.ofNanos(windowNanos));
+        // IDs are time-ordered, so only orders with IDs from the window's start are scanned
+        String fromId = HistoryFilter.builder().from(windowStart).build().fromId(ORDER_ID_PREFIX);
+        List<Order> recent = orderRepository.findWithClientOrderIdSince(fromId, windowStart).stream()
+                .sorted(Comparator.comparing(Order::getCreatedAt))
+                .toList();
+        
+        long now = System.nanoTime();
+        for (Order order : recent) {
+            long age = Duration.between(order.getCreatedAt(), LocalDateTime.now()).toNanos();
+            Entry entry = new Entry(key(order.getUserId(), order.getClientOrderId()), now - age + windowNanos, null);
+            entry.orderId = order.getOrderId();
+            entries.put(entry.key, entry);
+            enqueue(entry);
+        }
+        evict(now);
+        if (!recent.isEmpty()) {
+            log.info("Restored {} client order IDs", recent.size());
+        }
+    }
+    
+    /**
+     * Claim a client order ID for a new order.
+     *
+     * @param pending settled through {@link #complete} or {@link #release} once the order is placed or rejected
+     * @return null if the caller claimed the ID and must place the order, otherwise the
+     *         original order's ID, which completes once that order is placed
+     */
+    public CompletableFuture<String> claim(String userId, String clientOrderId, CompletableFuture<String> pending) {
+        long now = System.nanoTime();
+        String key = key(userId, clientOrderId);
+        Entry claim = new Entry(key, now + windowNanos, pending);
+        
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, claim);
+            if (existing == null) {
+                break;
+            }
+            if (!existing.isExpired(now)) {
+                return existing.original();
+            }
+            // Expired but not yet evicted
+            if (entries.replace(key, existing, claim)) {
+                break;
+            }
+        }
+        
+        enqueue(claim);
+        evict(now);
+        return null;
+    }
+    
+    /**
+     * Record the order placed for a claim and release retries waiting for it
+     */
+    public void complete(String userId, String clientOrderId, CompletableFuture<String> pending, String orderId) {
+        Entry entry = entries.get(key(userId, clientOrderId));
+        if (entry != null && entry.pending == pending) {
+            // Set the ID before dropping the future, see Entry.original()
+            entry.orderId = orderId;
+            entry.pending = null;
+        }
+        pending.complete(orderId);
+    }
+    
+    /**
+     * Give up a claim whose order was rejected, so the client can retry it;
+     * retries waiting for it fail with the same error
+     */
+    public void release(String userId, String clientOrderId, CompletableFuture<String> pending,
+                        RuntimeException error) {
+        entries.computeIfPresent(key(userId, clientOrderId), (key, entry) -> entry.pending == pending ? null : entry);
+        pending.completeExceptionally(error);
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Entries in the expiry queue, live or released
+     */
+    int queued() {
+        return queued.get();
+    }
+    
+    private void enqueue(Entry entry) {
+        expiryQueue.add(entry);
+        queued.incrementAndGet();
+    }
+    
+    private void evict(long now) {
+        Entry oldest;
+        while ((oldest = expiryQueue.peek()) != null && (oldest.isExpired(now) || queued.get() > maxEntries)) {
+            Entry evicted = expiryQueue.poll();
+            if (evicted != null) {
+                queued.decrementAndGet();
+                entries.remove(evicted.key, evicted);
+            }
+        }
+    }
+    
+    private static String key(String userId, String clientOrderId) {
+        return userId + '\u0000' + clientOrderId;
+    }
+    
+    private static class Entry {
+        final String key;
+        final long expiresAt;
+        volatile String orderId;                        // Set once the order is placed
+        volatile CompletableFuture<String> pending;     // Only while the order is being placed
+        
+        Entry(String key, long expiresAt, CompletableFuture<String> pending) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+            this.pending = pending;
+        }
+        
+        /**
+         * The original order's ID, completed once it is placed
+         */
+        CompletableFuture<String> original() {
+            // The ID is written before the future is dropped, so it is set once the future reads null
+            CompletableFuture<String> placing = pending;
+            return placing != null ? placing : CompletableFuture.completedFuture(orderId);
+        }
+        
+        boolean isExpired(long now) {
+            return expiresAt - now <= 0;
+        }
+    }
+}
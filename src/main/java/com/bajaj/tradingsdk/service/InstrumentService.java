@@ -1,6 +1,7 @@
 package com.bajaj.tradingsdk.service;
 
 import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.pnl.PnlEngine;
 import com.bajaj.tradingsdk.repository.InstrumentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +19,7 @@ import java.util.Optional;
 public class InstrumentService {
     
     private final InstrumentRepository instrumentRepository;
+    private final PnlEngine pnlEngine;
     
     /**
      * Get all available instruments
@@ -42,13 +44,44 @@ public class InstrumentService {
         return instrumentRepository.existsBySymbolAndExchange(symbol, exchange);
     }
     
+    /**
+     * Resolve the int ID used for allocation-free price reads
+     *
+     * @return the ID, or {@link InstrumentRepository#UNKNOWN_ID}
+     */
+    public int resolveId(String symbol, String exchange) {
+        return instrumentRepository.resolveId(symbol, exchange);
+    }
+    
+    /**
+     * Get the canonical symbol for an instrument ID
+     */
+    public String getSymbol(int instrumentId) {
+        return instrumentRepository.getSymbol(instrumentId);
+    }
+    
+    /**
+     * Get the canonical exchange for an instrument ID
+     */
+    public String getExchange(int instrumentId) {
+        return instrumentRepository.getExchange(instrumentId);
+    }
+    
+    /**
+     * Get current price for an instrument ID
+     *
+     * @return the price, or NaN if the instrument is unknown
+     */
+    public double getCurrentPrice(int instrumentId) {
+        return instrumentRepository.getPrice(instrumentId);
+    }
+    
     /**
      * Get current price for an instrument
      */
     public Double getCurrentPrice(String symbol, String exchange) {
-        return instrumentRepository.findBySymbolAndExchange(symbol, exchange)
-                .map(Instrument::getLastTradedPrice)
-                .orElse(null);
+        double price = getCurrentPrice(resolveId(symbol, exchange));
+        return Double.isNaN(price) ? null : price;
     }
     
     /**
@@ -56,6 +89,8 @@ public class InstrumentService {
      */
     public Instrument saveInstrument(Instrument instrument) {
         log.debug("Saving instrument: {}", instrument.getSymbol());
-        return instrumentRepository.save(instrument);
+        Instrument saved = instrumentRepository.save(instrument);
+        pnlEngine.onPriceChanged(resolveId(instrument.getSymbol(), instrument.getExchange()));
+        return saved;
     }
 }
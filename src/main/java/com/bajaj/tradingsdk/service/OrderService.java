@@ -1,22 +1,53 @@
 package com.bajaj.tradingsdk.service;
 
+import com.bajaj.tradingsdk.audit.OrderAuditLog;
+import com.bajaj.tradingsdk.dto.BatchOrderResult;
+import com.bajaj.tradingsdk.dto.CursorPage;
+import com.bajaj.tradingsdk.dto.HistoryFilter;
 import com.bajaj.tradingsdk.dto.OrderRequest;
+import com.bajaj.tradingsdk.engine.Fill;
+import com.bajaj.tradingsdk.engine.MarketOrderSlicer;
+import com.bajaj.tradingsdk.engine.MatchingEngine;
+import com.bajaj.tradingsdk.engine.OrderBook;
+import com.bajaj.tradingsdk.engine.OrderSequencer;
+import com.bajaj.tradingsdk.engine.TriggerEngine;
 import com.bajaj.tradingsdk.exception.InsufficientHoldingsException;
 import com.bajaj.tradingsdk.exception.OrderException;
 import com.bajaj.tradingsdk.exception.ResourceNotFoundException;
+import com.bajaj.tradingsdk.exception.RiskLimitException;
 import com.bajaj.tradingsdk.exception.ValidationException;
+import com.bajaj.tradingsdk.journal.HistoryArchive;
+import com.bajaj.tradingsdk.metrics.TradingMetrics;
+import com.bajaj.tradingsdk.metrics.TradingMetrics.Stage;
 import com.bajaj.tradingsdk.model.*;
 import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.risk.RiskEngine;
+import com.bajaj.tradingsdk.stream.EventStreamService;
+import com.bajaj.tradingsdk.util.IdGenerator;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 /**
- * Service for managing orders
+ * Service for managing orders.
+ *
+ * Everything that reads or changes execution state for an instrument (holdings
+ * and risk checks, the order book, trades and portfolio updates) runs on that
+ * instrument's {@link OrderSequencer} shard, so it is never interleaved with
+ * another order for the same instrument. Stop orders wait in the
+ * {@link TriggerEngine} and are executed on the same shard once triggered.
  */
 @Service
 @RequiredArgsConstructor
@@ -24,90 +55,327 @@ import java.util.UUID;
 public class OrderService {
     
     private final OrderRepository orderRepository;
+    private final HistoryArchive historyArchive;
     private final InstrumentService instrumentService;
     private final TradeService tradeService;
     private final PortfolioService portfolioService;
+    private final MatchingEngine matchingEngine;
+    private final MarketOrderSlicer marketOrderSlicer;
+    private final OrderSequencer orderSequencer;
+    private final TriggerEngine triggerEngine;
+    private final RiskEngine riskEngine;
+    private final IdGenerator idGenerator;
+    private final EventStreamService eventStreamService;
+    private final TradingMetrics metrics;
+    private final OrderAuditLog auditLog;
+    private final ClientOrderIdCache clientOrderIdCache;
     
-    // Mocked user ID (as per assignment - single hardcoded user)
-    private static final String MOCK_USER_ID = "USER001";
+    private static final String ORDER_ID_PREFIX = "ORD-";
+    
+    @PostConstruct
+    public void registerTriggerHandler() {
+        triggerEngine.setTriggerHandler(this::executeTriggered);
+    }
     
     /**
-     * Place a new order
+     * Place a new order. A request repeating a client order ID seen within the
+     * dedup window returns the original order instead.
      */
-    public Order placeOrder(OrderRequest request) {
-        log.info("Placing order: {} {} {} shares of {}", 
-                request.getOrderType(), request.getOrderStyle(), request.getQuantity(), request.getSymbol());
+    public Order placeOrder(String userId, OrderRequest request) {
+        if (request.getClientOrderId() == null) {
+            return placeNewOrder(userId, request);
+        }
+        
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> original = clientOrderIdCache.claim(userId, request.getClientOrderId(), pending);
+        if (original != null) {
+            log.debug("Replaying order for client order ID {}", request.getClientOrderId());
+            return awaitOriginal(userId, original);
+        }
+        
+        try {
+            Order order = placeNewOrder(userId, request);
+            clientOrderIdCache.complete(userId, request.getClientOrderId(), pending, order.getOrderId());
+            return order;
+        } catch (RuntimeException e) {
+            // Rejected orders can be retried with the same client order ID
+            clientOrderIdCache.release(userId, request.getClientOrderId(), pending, e);
+            throw e;
+        }
+    }
+    
+    private Order placeNewOrder(String userId, OrderRequest request) {
+        if (log.isDebugEnabled()) {
+            log.debug("Placing order: {} {} {} shares of {}",
+                    request.getOrderType(), request.getOrderStyle(), request.getQuantity(), request.getSymbol());
+        }
+        
+        long start = System.nanoTime();
+        
+        // Get current market price (NaN if the instrument does not exist)
+        int instrumentId = instrumentService.resolveId(request.getSymbol(), request.getExchange());
+        double marketPrice = instrumentService.getCurrentPrice(instrumentId);
+        long validationStart = metrics.recordStage(Stage.PRICE_LOOKUP, start);
         
         // Validate the order
-        validateOrder(request);
+        validateOrder(request, marketPrice);
         
-        // Get current market price
-        Double marketPrice = instrumentService.getCurrentPrice(request.getSymbol(), request.getExchange());
-        if (marketPrice == null) {
-            throw new ResourceNotFoundException("Instrument", "symbol", request.getSymbol());
+        Order order = createOrder(userId, request, instrumentId, marketPrice);
+        long submitted = metrics.recordStage(Stage.VALIDATION, validationStart);
+        Order placed = orderSequencer.execute(instrumentId, () -> {
+            metrics.recordStage(Stage.SEQUENCER_WAIT, submitted);
+            return placeOnSequencer(order, marketPrice, true);
+        });
+        metrics.recordPlacement(start);
+        return placed;
+    }
+    
+    /**
+     * Place a batch of orders.
+     *
+     * Each distinct instrument is looked up once, and the orders for an
+     * instrument are executed as a single task on its sequencer, so batches
+     * spanning several instruments execute in parallel across shards.
+     * Orders are validated and executed independently: a rejected order does
+     * not affect the others. Client order IDs are deduplicated as for single orders.
+     *
+     * @return one result per request, in request order
+     */
+    public List<BatchOrderResult> placeOrders(String userId, List<OrderRequest> requests) {
+        log.debug("Placing batch of {} orders", requests.size());
+        
+        BatchOrderResult[] results = new BatchOrderResult[requests.size()];
+        Map<Integer, Double> marketPrices = new HashMap<>();
+        Map<Integer, List<Integer>> indexesByInstrument = new LinkedHashMap<>();
+        Order[] orders = new Order[requests.size()];
+        Map<Integer, CompletableFuture<String>> claims = new HashMap<>();
+        Map<Integer, CompletableFuture<String>> replays = new HashMap<>();
+        
+        // Validate and create orders, resolving each instrument once
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequest request = requests.get(i);
+            if (request.getClientOrderId() != null) {
+                CompletableFuture<String> pending = new CompletableFuture<>();
+                CompletableFuture<String> original = clientOrderIdCache.claim(userId, request.getClientOrderId(), pending);
+                if (original != null) {
+                    replays.put(i, original);
+                    continue;
+                }
+                claims.put(i, pending);
+            }
+            try {
+                int instrumentId = instrumentService.resolveId(request.getSymbol(), request.getExchange());
+                double marketPrice = marketPrices.computeIfAbsent(instrumentId, instrumentService::getCurrentPrice);
+                
+                validateOrder(request, marketPrice);
+                orders[i] = createOrder(userId, request, instrumentId, marketPrice);
+                indexesByInstrument.computeIfAbsent(instrumentId, id -> new ArrayList<>()).add(i);
+            } catch (RuntimeException e) {
+                results[i] = rejected(i, e);
+            }
         }
         
-        // Determine execution price
-        Double executionPrice = request.getOrderStyle() == OrderStyle.MARKET 
-                ? marketPrice 
-                : request.getPrice();
+        // Execute each instrument's orders as one sequencer task
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        indexesByInstrument.forEach((instrumentId, indexes) -> {
+            double marketPrice = marketPrices.get(instrumentId);
+            pending.add(orderSequencer.submit(instrumentId, () -> {
+                boolean sellsCovered = sellsCoveredByHoldings(orders, indexes);
+                for (int i : indexes) {
+                    try {
+                        results[i] = BatchOrderResult.success(i, placeOnSequencer(orders[i], marketPrice, !sellsCovered));
+                    } catch (RuntimeException e) {
+                        results[i] = rejected(i, e);
+                    }
+                }
+                return null;
+            }));
+        });
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
         
-        // Create the order
-        Order order = Order.builder()
-                .orderId("ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
-                .symbol(request.getSymbol().toUpperCase())
-                .exchange(request.getExchange().toUpperCase())
+        // Settle claims before resolving replays, which may be of orders in this batch
+        claims.forEach((i, claim) -> {
+            String clientOrderId = requests.get(i).getClientOrderId();
+            if (results[i].isSuccess()) {
+                clientOrderIdCache.complete(userId, clientOrderId, claim, orders[i].getOrderId());
+            } else {
+                clientOrderIdCache.release(userId, clientOrderId, claim, new OrderException(results[i].getError()));
+            }
+        });
+        replays.forEach((i, original) -> {
+            try {
+                results[i] = BatchOrderResult.success(i, awaitOriginal(userId, original));
+            } catch (RuntimeException e) {
+                results[i] = rejected(i, e);
+            }
+        });
+        
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * Create a NEW order for a validated request
+     */
+    private Order createOrder(String userId, OrderRequest request, int instrumentId, double marketPrice) {
+        // Determine execution price; a STOP order's is set when it triggers
+        Double executionPrice = switch (request.getOrderStyle()) {
+            case MARKET -> marketPrice;
+            case STOP -> null;
+            default -> request.getPrice();
+        };
+        boolean stop = request.getOrderStyle() == OrderStyle.STOP || request.getOrderStyle() == OrderStyle.STOP_LIMIT;
+        
+        return Order.builder()
+                .orderId(idGenerator.nextId(ORDER_ID_PREFIX))
+                .clientOrderId(request.getClientOrderId())
+                .symbol(instrumentService.getSymbol(instrumentId))
+                .exchange(instrumentService.getExchange(instrumentId))
+                .instrumentId(instrumentId)
                 .orderType(request.getOrderType())
                 .orderStyle(request.getOrderStyle())
                 .quantity(request.getQuantity())
                 .price(executionPrice)
+                .triggerPrice(stop ? request.getTriggerPrice() : null)
                 .status(OrderStatus.NEW)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
-                .userId(MOCK_USER_ID)
+                .userId(userId)
                 .build();
+    }
+    
+    /**
+     * Wait for the order originally placed for a client order ID and look it up, rethrowing its rejection
+     */
+    private Order awaitOriginal(String userId, CompletableFuture<String> original) {
+        try {
+            return getOrder(userId, original.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Check holdings and risk limits, save and execute an order; runs on the instrument's sequencer
+     */
+    private Order placeOnSequencer(Order order, double marketPrice, boolean checkHoldings) {
+        // For SELL orders, check if user has enough holdings
+        if (checkHoldings) {
+            validateHoldings(order);
+        }
+        
+        // Check risk limits and reserve buying power for BUY orders
+        long riskStart = System.nanoTime();
+        riskEngine.reserve(order, marketPrice);
         
         // Save the order
-        order = orderRepository.save(order);
-        log.info("Order created with ID: {}", order.getOrderId());
+        long saveStart = metrics.recordStage(Stage.RISK, riskStart);
+        orderRepository.save(order);
+        log.debug("Order created with ID: {}", order.getOrderId());
         
         // Simulate order placement
         order.setStatus(OrderStatus.PLACED);
         order.setUpdatedAt(LocalDateTime.now());
-        orderRepository.save(order);
+        saveAndPublish(order);
+        statusChanged(order);
+        long executionStart = metrics.recordStage(Stage.SAVE, saveStart);
         
-        // For MARKET orders, execute immediately (simulation)
-        if (request.getOrderStyle() == OrderStyle.MARKET) {
-            executeOrder(order, marketPrice);
+        // MARKET orders execute immediately (simulation); LIMIT orders go to the book,
+        // stop orders wait for their trigger
+        switch (order.getOrderStyle()) {
+            case MARKET -> executeOrder(order, marketPrice);
+            case LIMIT -> matchLimitOrder(order);
+            case STOP, STOP_LIMIT -> triggerEngine.add(order);
         }
+        metrics.recordStage(Stage.EXECUTION, executionStart);
         
         return order;
     }
     
     /**
-     * Get order by ID
+     * Execute a stop order whose trigger price was crossed; runs on the instrument's sequencer.
+     * A STOP order executes at the current price, a STOP_LIMIT order is matched like a LIMIT order.
      */
-    public Order getOrder(String orderId) {
+    private void executeTriggered(Order order) {
+        log.debug("Stop order {} triggered", order.getOrderId());
+        order.setTriggeredAt(LocalDateTime.now());
+        order.setUpdatedAt(order.getTriggeredAt());
+        
+        if (!holdingCovers(order, order.getRemainingQuantity())) {
+            cancelUncovered(order);
+            return;
+        }
+        
+        if (order.getOrderStyle() == OrderStyle.STOP) {
+            order.setPrice(instrumentService.getCurrentPrice(order.getInstrumentId()));
+            executeOrder(order, order.getPrice());
+        } else {
+            saveAndPublish(order);
+            matchLimitOrder(order);
+        }
+    }
+    
+    /**
+     * Get one of a user's orders by ID, in memory or archived. Other users' orders are reported as not found.
+     */
+    public Order getOrder(String userId, String orderId) {
         log.debug("Fetching order: {}", orderId);
-        return orderRepository.findById(orderId)
+        return orderRepository.findByUserIdAndId(userId, orderId)
+                .or(() -> historyArchive.findOrder(userId, orderId))
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "orderId", orderId));
     }
     
     /**
-     * Get all orders for current user
+     * Get all of a user's orders still held in memory (archived orders are only in the paged history)
      */
-    public List<Order> getAllOrders() {
-        return orderRepository.findByUserId(MOCK_USER_ID);
+    public List<Order> getAllOrders(String userId) {
+        return orderRepository.findByUserId(userId);
     }
     
     /**
-     * Cancel an order
+     * Get a page of a user's orders, newest first
+     *
+     * @param status only orders in this status, or null for all
+     * @param cursor nextCursor of the previous page, or null for the first page
      */
-    public Order cancelOrder(String orderId) {
-        log.info("Cancelling order: {}", orderId);
-        
-        Order order = getOrder(orderId);
+    public CursorPage<Order> getOrders(String userId, HistoryFilter filter, OrderStatus status, String cursor, int limit) {
+        if (limit < 1 || limit > CursorPage.MAX_LIMIT) {
+            throw new ValidationException("Limit must be between 1 and " + CursorPage.MAX_LIMIT);
+        }
+        return CursorPage.of(findOrders(userId, filter, status, cursor), limit, Order::getOrderId);
+    }
+    
+    /**
+     * Stream all of a user's matching orders, newest first, without collecting them
+     */
+    public Stream<Order> streamOrders(String userId, HistoryFilter filter, OrderStatus status) {
+        return findOrders(userId, filter, status, null);
+    }
+    
+    private Stream<Order> findOrders(String userId, HistoryFilter filter, OrderStatus status, String cursor) {
+        String fromId = filter.fromId(ORDER_ID_PREFIX);
+        String beforeId = filter.beforeId(ORDER_ID_PREFIX, cursor);
+        return historyArchive.mergeOrders(orderRepository.streamByUserId(userId, fromId, beforeId), userId, fromId, beforeId)
+                .filter(order -> (status == null || order.getStatus() == status)
+                        && filter.matches(order.getSymbol(), order.getExchange(), order.getCreatedAt()));
+    }
+    
+    /**
+     * Cancel one of a user's orders
+     */
+    public Order cancelOrder(String userId, String orderId) {
+        log.debug("Cancelling order: {}", orderId);
         
+        Order order = getOrder(userId, orderId);
+        return orderSequencer.execute(order.getInstrumentId(), () -> cancelOnSequencer(order));
+    }
+    
+    /**
+     * Pull an order from the book and mark it cancelled; runs on the instrument's sequencer
+     */
+    private Order cancelOnSequencer(Order order) {
         if (order.getStatus() == OrderStatus.EXECUTED) {
             throw new OrderException("Cannot cancel an executed order");
         }
@@ -116,18 +384,26 @@ public class OrderService {
             throw new OrderException("Order is already cancelled");
         }
         
+        // Stop orders wait in the trigger engine; once triggered, STOP_LIMIT orders rest like LIMIT orders
+        if (order.getOrderStyle() != OrderStyle.MARKET && !triggerEngine.cancel(order)) {
+            matchingEngine.getBook(order.getInstrumentId()).cancel(order.getOrderId());
+        }
+        riskEngine.onCancel(order);
+        
         order.setStatus(OrderStatus.CANCELLED);
         order.setUpdatedAt(LocalDateTime.now());
         
-        return orderRepository.save(order);
+        Order saved = saveAndPublish(order);
+        statusChanged(saved);
+        return saved;
     }
     
     /**
      * Validate order request
      */
-    private void validateOrder(OrderRequest request) {
+    private void validateOrder(OrderRequest request, double marketPrice) {
         // Check if instrument exists
-        if (!instrumentService.instrumentExists(request.getSymbol(), request.getExchange())) {
+        if (Double.isNaN(marketPrice)) {
             throw new ResourceNotFoundException("Instrument", "symbol", 
                     request.getSymbol() + " on " + request.getExchange());
         }
@@ -137,73 +413,188 @@ public class OrderService {
             throw new ValidationException("Quantity must be greater than 0");
         }
         
-        // Validate price for LIMIT orders
-        if (request.getOrderStyle() == OrderStyle.LIMIT) {
+        // Validate price for LIMIT and STOP_LIMIT orders
+        if (request.getOrderStyle() == OrderStyle.LIMIT || request.getOrderStyle() == OrderStyle.STOP_LIMIT) {
             if (request.getPrice() == null || request.getPrice() <= 0) {
-                throw new ValidationException("Price is required for LIMIT orders and must be greater than 0");
+                throw new ValidationException("Price is required for " + request.getOrderStyle()
+                        + " orders and must be greater than 0");
             }
         }
         
-        // For SELL orders, check if user has enough holdings
-        if (request.getOrderType() == OrderType.SELL) {
-            if (!portfolioService.hasEnoughHoldings(MOCK_USER_ID, request.getSymbol(), 
-                    request.getExchange(), request.getQuantity())) {
-                int currentHolding = portfolioService.getHoldingQuantity(MOCK_USER_ID, 
-                        request.getSymbol(), request.getExchange());
-                throw new InsufficientHoldingsException(
-                        String.format("Insufficient holdings. You have %d shares of %s, but trying to sell %d", 
-                                currentHolding, request.getSymbol(), request.getQuantity()));
+        // Validate trigger price for stop orders
+        if (request.getOrderStyle() == OrderStyle.STOP || request.getOrderStyle() == OrderStyle.STOP_LIMIT) {
+            if (request.getTriggerPrice() == null || request.getTriggerPrice() <= 0) {
+                throw new ValidationException("Trigger price is required for " + request.getOrderStyle()
+                        + " orders and must be greater than 0");
             }
         }
     }
     
     /**
-     * Execute an order (simulation)
+     * Check once whether a batch's SELL orders for one instrument are all covered
+     * by current holdings; runs on the instrument's sequencer.
+     *
+     * What is available to sell (the holding less open SELL quantity) only
+     * goes down when a SELL is placed, and a batch BUY that fills against the
+     * user's resting SELL adds back what it removes, so if the batch's total
+     * SELL quantity fits in what is available no individual SELL in it can
+     * fail the holdings check.
      */
-    private void executeOrder(Order order, double executionPrice) {
-        log.info("Executing order: {} at price {}", order.getOrderId(), executionPrice);
+    private boolean sellsCoveredByHoldings(Order[] orders, List<Integer> indexes) {
+        Map<String, Integer> sellQuantityByUser = new HashMap<>();
+        for (int i : indexes) {
+            if (orders[i].getOrderType() == OrderType.SELL) {
+                sellQuantityByUser.merge(orders[i].getUserId(), orders[i].getQuantity(), Integer::sum);
+            }
+        }
         
-        // Create a trade
-        tradeService.createTrade(
-                order.getOrderId(),
-                order.getSymbol(),
-                order.getExchange(),
-                order.getOrderType(),
-                order.getQuantity(),
-                executionPrice,
-                order.getUserId()
-        );
-        
-        // Update portfolio
+        int instrumentId = orders[indexes.get(0)].getInstrumentId();
+        return sellQuantityByUser.entrySet().stream().allMatch(entry ->
+                availableToSell(entry.getKey(), instrumentId) >= entry.getValue());
+    }
+    
+    private BatchOrderResult rejected(int index, RuntimeException e) {
+        if (e instanceof ValidationException || e instanceof ResourceNotFoundException
+                || e instanceof InsufficientHoldingsException || e instanceof OrderException
+                || e instanceof RiskLimitException) {
+            return BatchOrderResult.failure(index, e.getMessage());
+        }
+        log.error("Unexpected error placing batch order {}", index, e);
+        return BatchOrderResult.failure(index, "An unexpected error occurred");
+    }
+    
+    /**
+     * Check that a SELL order is covered by the part of the user's holding not
+     * already committed to their open SELL orders
+     */
+    private void validateHoldings(Order order) {
+        if (order.getOrderType() == OrderType.SELL
+                && availableToSell(order.getUserId(), order.getInstrumentId()) < order.getQuantity()) {
+            int currentHolding = portfolioService.getHoldingQuantity(order.getUserId(), order.getInstrumentId());
+            throw new InsufficientHoldingsException(String.format(
+                    "Insufficient holdings. You have %d shares of %s, %d of them in open SELL orders, but trying to sell %d",
+                    currentHolding, order.getSymbol(),
+                    riskEngine.getOpenSellQuantity(order.getUserId(), order.getInstrumentId()), order.getQuantity()));
+        }
+    }
+    
+    private long availableToSell(String userId, int instrumentId) {
+        return portfolioService.getHoldingQuantity(userId, instrumentId) - riskEngine.getOpenSellQuantity(userId, instrumentId);
+    }
+    
+    /**
+     * Whether the user still holds the shares for a fill of a SELL order; always true for a BUY.
+     * Checked on the instrument's sequencer right before the fill.
+     */
+    private boolean holdingCovers(Order order, int quantity) {
+        return order.getOrderType() != OrderType.SELL
+                || portfolioService.hasEnoughHoldings(order.getUserId(), order.getInstrumentId(), quantity);
+    }
+    
+    /**
+     * Cancel an open SELL order whose holding no longer covers it (e.g. after the
+     * holding was edited directly), instead of filling it; runs on the instrument's sequencer
+     */
+    private void cancelUncovered(Order order) {
+        log.warn("Cancelling order {}: insufficient holdings", order.getOrderId());
+        riskEngine.onCancel(order);
+        order.setStatus(OrderStatus.CANCELLED);
+        order.setUpdatedAt(LocalDateTime.now());
+        saveAndPublish(order);
+        statusChanged(order);
+    }
+    
+    /**
+     * Match a LIMIT order against the instrument's order book.
+     * Both sides of every fill are executed; any remainder rests in the book.
+     */
+    private void matchLimitOrder(Order order) {
+        if (!holdingCovers(order, order.getRemainingQuantity())) {
+            cancelUncovered(order);
+            return;
+        }
+        OrderBook book = matchingEngine.getBook(order.getInstrumentId());
+        
+        // A resting SELL the holding no longer covers is pulled and cancelled rather than filled
+        List<Fill> fills = book.match(order, order.getRemainingQuantity(), (resting, quantity) -> {
+            if (holdingCovers(resting, quantity)) {
+                return true;
+            }
+            cancelUncovered(resting);
+            return false;
+        });
+        for (Fill fill : fills) {
+            if (log.isDebugEnabled()) {
+                log.debug("Matched order {} against {}: {} @ {}", order.getOrderId(),
+                        fill.getRestingOrder().getOrderId(), fill.getQuantity(), fill.getPrice());
+            }
+            applyFill(order, fill.getQuantity(), fill.getPrice());
+            applyFill(fill.getRestingOrder(), fill.getQuantity(), fill.getPrice());
+        }
+    }
+    
+    /**
+     * Execute an order in full (simulation), in slices of at most the configured
+     * quantity; every slice after the first executes at the then current price
+     */
+    private void executeOrder(Order order, double executionPrice) {
+        if (!holdingCovers(order, order.getRemainingQuantity())) {
+            cancelUncovered(order);
+            return;
+        }
+        applyFill(order, marketOrderSlicer.nextSlice(order.getRemainingQuantity()), executionPrice);
+        while (order.getRemainingQuantity() > 0) {
+            double currentPrice = instrumentService.getCurrentPrice(order.getInstrumentId());
+            applyFill(order, marketOrderSlicer.nextSlice(order.getRemainingQuantity()), currentPrice);
+        }
+    }
+    
+    /**
+     * Apply a (possibly partial) fill to an order: book the trade, update the
+     * portfolio and the order's filled quantity and average fill price, and mark
+     * it PARTIALLY_FILLED or, once its full quantity is filled, EXECUTED
+     */
+    private void applyFill(Order order, int quantity, double executionPrice) {
+        // Update portfolio first: removing shares the user does not hold fails before anything is booked
+        long portfolioStart = System.nanoTime();
         if (order.getOrderType() == OrderType.BUY) {
-            portfolioService.addToPortfolio(
-                    order.getUserId(),
-                    order.getSymbol(),
-                    order.getExchange(),
-                    order.getQuantity(),
-                    executionPrice
-            );
+            portfolioService.addToPortfolio(order.getUserId(), order.getInstrumentId(), quantity, executionPrice);
         } else {
-            portfolioService.removeFromPortfolio(
-                    order.getUserId(),
-                    order.getSymbol(),
-                    order.getExchange(),
-                    order.getQuantity()
-            );
+            portfolioService.removeFromPortfolio(order.getUserId(), order.getInstrumentId(), quantity);
         }
+        riskEngine.onFill(order, quantity, executionPrice);
+        long tradeStart = metrics.recordStage(Stage.PORTFOLIO, portfolioStart);
+        
+        // Create a trade
+        tradeService.createTrade(order, quantity, executionPrice);
+        metrics.recordStage(Stage.TRADE, tradeStart);
         
         // Update order status
-        order.setStatus(OrderStatus.EXECUTED);
+        order.addFill(quantity, executionPrice);
+        OrderStatus status = order.getRemainingQuantity() > 0 ? OrderStatus.PARTIALLY_FILLED : OrderStatus.EXECUTED;
+        boolean changed = order.getStatus() != status;
+        order.setStatus(status);
         order.setUpdatedAt(LocalDateTime.now());
-        orderRepository.save(order);
-        
-        log.info("Order {} executed successfully", order.getOrderId());
+        saveAndPublish(order);
+        if (changed) {
+            statusChanged(order);
+        }
+    }
+    
+    /**
+     * Count and audit an order that just reached its current status
+     */
+    private void statusChanged(Order order) {
+        metrics.countOrder(order);
+        auditLog.orderEvent(order);
     }
     
     /**
-     * Get mock user ID
+     * Save an order and push its new state to the user's open streams
      */
-    public String getMockUserId() {
-        return MOCK_USER_ID;
+    private Order saveAndPublish(Order order) {
+        Order saved = orderRepository.save(order);
+        eventStreamService.publishOrder(saved);
+        return saved;
     }
 }
@@ -1,6 +1,11 @@
 package com.bajaj.tradingsdk.service;
 
+import com.bajaj.tradingsdk.dto.PortfolioSummary;
+import com.bajaj.tradingsdk.exception.InsufficientHoldingsException;
+import com.bajaj.tradingsdk.exception.ResourceNotFoundException;
 import com.bajaj.tradingsdk.model.PortfolioHolding;
+import com.bajaj.tradingsdk.pnl.PnlEngine;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
 import com.bajaj.tradingsdk.repository.PortfolioRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,7 +15,12 @@ import java.util.List;
 import java.util.Optional;
 
 /**
- * Service for managing portfolio holdings
+ * Service for managing portfolio holdings.
+ *
+ * Quantity and average price changes are applied atomically per user and
+ * instrument through {@link PortfolioRepository#update}, so concurrent fills
+ * never lose updates. Every change is reported to the {@link PnlEngine}, which
+ * serves valued portfolio reads.
  */
 @Service
 @RequiredArgsConstructor
@@ -19,126 +29,156 @@ public class PortfolioService {
     
     private final PortfolioRepository portfolioRepository;
     private final InstrumentService instrumentService;
+    private final PnlEngine pnlEngine;
     
     /**
      * Get all portfolio holdings for a user
      */
     public List<PortfolioHolding> getPortfolio(String userId) {
         log.debug("Fetching portfolio for user: {}", userId);
-        List<PortfolioHolding> holdings = portfolioRepository.findByUserId(userId);
-        
-        // Update current values based on latest prices
-        holdings.forEach(this::updateCurrentValue);
-        
-        return holdings;
+        return pnlEngine.getSnapshot(userId).getHoldings();
+    }
+    
+    /**
+     * Get aggregate P&L for a user, valued at the same prices as {@link #getPortfolio}
+     */
+    public PortfolioSummary getSummary(String userId) {
+        return pnlEngine.getSnapshot(userId).getSummary();
     }
     
     /**
      * Get specific holding
      */
     public Optional<PortfolioHolding> getHolding(String userId, String symbol, String exchange) {
-        return portfolioRepository.findByUserIdAndSymbolAndExchange(userId, symbol, exchange);
+        return portfolioRepository.findByUserIdAndInstrumentId(userId, instrumentService.resolveId(symbol, exchange))
+                .map(this::withCurrentValue);
     }
     
     /**
      * Add to portfolio (on BUY)
      */
-    public PortfolioHolding addToPortfolio(String userId, String symbol, String exchange, 
-                                           int quantity, double price) {
-        log.debug("Adding to portfolio: {} {} shares of {} at {}", userId, quantity, symbol, price);
-        
-        Optional<PortfolioHolding> existingHolding = 
-                portfolioRepository.findByUserIdAndSymbolAndExchange(userId, symbol, exchange);
+    public PortfolioHolding addToPortfolio(String userId, int instrumentId, int quantity, double price) {
+        if (log.isDebugEnabled()) {
+            log.debug("Adding to portfolio: {} {} shares of instrument {} at {}", userId, quantity, instrumentId, price);
+        }
         
-        PortfolioHolding holding;
-        if (existingHolding.isPresent()) {
+        PortfolioHolding holding = portfolioRepository.update(userId, instrumentId, existing -> {
+            if (existing == null) {
+                // Create new holding
+                return PortfolioHolding.builder()
+                        .symbol(instrumentService.getSymbol(instrumentId))
+                        .exchange(instrumentService.getExchange(instrumentId))
+                        .instrumentId(instrumentId)
+                        .quantity(quantity)
+                        .averagePrice(price)
+                        .userId(userId)
+                        .build();
+            }
+            
             // Update existing holding - calculate new average price
-            holding = existingHolding.get();
-            int newQuantity = holding.getQuantity() + quantity;
-            double newAveragePrice = ((holding.getQuantity() * holding.getAveragePrice()) + 
+            int newQuantity = existing.getQuantity() + quantity;
+            double newAveragePrice = ((existing.getQuantity() * existing.getAveragePrice()) + 
                                       (quantity * price)) / newQuantity;
-            holding.setQuantity(newQuantity);
-            holding.setAveragePrice(newAveragePrice);
-        } else {
-            // Create new holding
-            holding = PortfolioHolding.builder()
-                    .symbol(symbol)
-                    .exchange(exchange)
-                    .quantity(quantity)
-                    .averagePrice(price)
-                    .userId(userId)
+            return existing.toBuilder()
+                    .quantity(newQuantity)
+                    .averagePrice(newAveragePrice)
                     .build();
-        }
+        });
+        pnlEngine.onHoldingChanged(userId, instrumentId);
         
-        updateCurrentValue(holding);
-        return portfolioRepository.save(holding);
+        return withCurrentValue(holding);
     }
     
     /**
      * Remove from portfolio (on SELL)
+     *
+     * @return the remaining holding, or null once it is sold out
+     * @throws InsufficientHoldingsException if the user holds fewer shares; nothing is changed
      */
-    public PortfolioHolding removeFromPortfolio(String userId, String symbol, String exchange, 
-                                                 int quantity) {
-        log.debug("Removing from portfolio: {} {} shares of {}", userId, quantity, symbol);
-        
-        Optional<PortfolioHolding> existingHolding = 
-                portfolioRepository.findByUserIdAndSymbolAndExchange(userId, symbol, exchange);
-        
-        if (existingHolding.isEmpty()) {
-            return null;
+    public PortfolioHolding removeFromPortfolio(String userId, int instrumentId, int quantity) {
+        if (log.isDebugEnabled()) {
+            log.debug("Removing from portfolio: {} {} shares of instrument {}", userId, quantity, instrumentId);
         }
         
-        PortfolioHolding holding = existingHolding.get();
-        int newQuantity = holding.getQuantity() - quantity;
+        PortfolioHolding holding = portfolioRepository.update(userId, instrumentId, existing -> {
+            int held = existing == null ? 0 : existing.getQuantity();
+            if (held < quantity) {
+                throw new InsufficientHoldingsException(String.format(
+                        "Insufficient holdings. You have %d shares of %s, but trying to sell %d",
+                        held, instrumentService.getSymbol(instrumentId), quantity));
+            }
+            
+            // Remove holding completely once nothing is left
+            int newQuantity = held - quantity;
+            return newQuantity == 0 ? null : existing.toBuilder().quantity(newQuantity).build();
+        });
+        pnlEngine.onHoldingChanged(userId, instrumentId);
         
-        if (newQuantity <= 0) {
-            // Remove holding completely
-            portfolioRepository.delete(userId, symbol, exchange);
-            return null;
-        } else {
-            holding.setQuantity(newQuantity);
-            updateCurrentValue(holding);
-            return portfolioRepository.save(holding);
-        }
+        return holding == null ? null : withCurrentValue(holding);
     }
     
     /**
      * Check if user has enough holdings for a sell order
      */
-    public boolean hasEnoughHoldings(String userId, String symbol, String exchange, int quantity) {
-        return portfolioRepository.findByUserIdAndSymbolAndExchange(userId, symbol, exchange)
-                .map(holding -> holding.getQuantity() >= quantity)
-                .orElse(false);
+    public boolean hasEnoughHoldings(String userId, int instrumentId, int quantity) {
+        return getHoldingQuantity(userId, instrumentId) >= quantity;
     }
     
     /**
      * Get current holding quantity
      */
-    public int getHoldingQuantity(String userId, String symbol, String exchange) {
-        return portfolioRepository.findByUserIdAndSymbolAndExchange(userId, symbol, exchange)
+    public int getHoldingQuantity(String userId, int instrumentId) {
+        return portfolioRepository.findByUserIdAndInstrumentId(userId, instrumentId)
                 .map(PortfolioHolding::getQuantity)
                 .orElse(0);
     }
     
     /**
-     * Update current value based on latest price
+     * Get current holding quantity by symbol and exchange
+     */
+    public int getHoldingQuantity(String userId, String symbol, String exchange) {
+        return getHoldingQuantity(userId, instrumentService.resolveId(symbol, exchange));
+    }
+    
+    /**
+     * Copy a holding with its value based on the latest price
      */
-    private void updateCurrentValue(PortfolioHolding holding) {
-        Double currentPrice = instrumentService.getCurrentPrice(holding.getSymbol(), holding.getExchange());
-        if (currentPrice != null) {
-            holding.setCurrentPrice(currentPrice);
-            holding.setCurrentValue(holding.getQuantity() * currentPrice);
-            double investedValue = holding.getQuantity() * holding.getAveragePrice();
-            holding.setProfitLoss(holding.getCurrentValue() - investedValue);
-            holding.setProfitLossPercentage((holding.getProfitLoss() / investedValue) * 100);
+    private PortfolioHolding withCurrentValue(PortfolioHolding holding) {
+        double currentPrice = instrumentService.getCurrentPrice(holding.getInstrumentId());
+        if (Double.isNaN(currentPrice)) {
+            return holding.toBuilder().build();
         }
+        
+        double currentValue = holding.getQuantity() * currentPrice;
+        double investedValue = holding.getQuantity() * holding.getAveragePrice();
+        return holding.toBuilder()
+                .currentPrice(currentPrice)
+                .currentValue(currentValue)
+                .profitLoss(currentValue - investedValue)
+                .profitLossPercentage(((currentValue - investedValue) / investedValue) * 100)
+                .build();
     }
     
     /**
-     * Save a portfolio holding directly
+     * Save a portfolio holding directly, resolving its instrument from the symbol and exchange
      */
     public PortfolioHolding saveHolding(PortfolioHolding holding) {
-        updateCurrentValue(holding);
-        return portfolioRepository.save(holding);
+        int instrumentId = instrumentService.resolveId(holding.getSymbol(), holding.getExchange());
+        if (instrumentId == InstrumentRepository.UNKNOWN_ID) {
+            throw new ResourceNotFoundException("Instrument", "symbol",
+                    holding.getSymbol() + " on " + holding.getExchange());
+        }
+        
+        PortfolioHolding stored = portfolioRepository.save(holding.toBuilder()
+                .instrumentId(instrumentId)
+                .symbol(instrumentService.getSymbol(instrumentId))
+                .exchange(instrumentService.getExchange(instrumentId))
+                .currentPrice(null)
+                .currentValue(null)
+                .profitLoss(null)
+                .profitLossPercentage(null)
+                .build());
+        pnlEngine.onHoldingChanged(stored.getUserId(), instrumentId);
+        return withCurrentValue(stored);
     }
 }
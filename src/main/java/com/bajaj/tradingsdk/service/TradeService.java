@@ -1,15 +1,24 @@
 package com.bajaj.tradingsdk.service;
 
-import com.bajaj.tradingsdk.model.OrderType;
+import com.bajaj.tradingsdk.dto.CursorPage;
+import com.bajaj.tradingsdk.dto.HistoryFilter;
+import com.bajaj.tradingsdk.exception.ValidationException;
+import com.bajaj.tradingsdk.journal.HistoryArchive;
+import com.bajaj.tradingsdk.model.Order;
 import com.bajaj.tradingsdk.model.Trade;
 import com.bajaj.tradingsdk.repository.TradeRepository;
+import com.bajaj.tradingsdk.stream.EventStreamService;
+import com.bajaj.tradingsdk.util.IdGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 /**
  * Service for managing trades
@@ -20,15 +29,46 @@ import java.util.UUID;
 public class TradeService {
     
     private final TradeRepository tradeRepository;
+    private final HistoryArchive historyArchive;
+    private final IdGenerator idGenerator;
+    private final EventStreamService eventStreamService;
+    
+    private static final String TRADE_ID_PREFIX = "TRD-";
     
     /**
-     * Get all trades for a user
+     * Get all of a user's trades still held in memory (archived trades are only in the paged history)
      */
     public List<Trade> getTradesForUser(String userId) {
         log.debug("Fetching trades for user: {}", userId);
         return tradeRepository.findByUserId(userId);
     }
     
+    /**
+     * Get a page of a user's trades, newest first
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     */
+    public CursorPage<Trade> getTrades(String userId, HistoryFilter filter, String cursor, int limit) {
+        if (limit < 1 || limit > CursorPage.MAX_LIMIT) {
+            throw new ValidationException("Limit must be between 1 and " + CursorPage.MAX_LIMIT);
+        }
+        return CursorPage.of(findTrades(userId, filter, cursor), limit, Trade::getTradeId);
+    }
+    
+    /**
+     * Stream all of a user's matching trades, newest first, without collecting them
+     */
+    public Stream<Trade> streamTrades(String userId, HistoryFilter filter) {
+        return findTrades(userId, filter, null);
+    }
+    
+    private Stream<Trade> findTrades(String userId, HistoryFilter filter, String cursor) {
+        String fromId = filter.fromId(TRADE_ID_PREFIX);
+        String beforeId = filter.beforeId(TRADE_ID_PREFIX, cursor);
+        return historyArchive.mergeTrades(tradeRepository.streamByUserId(userId, fromId, beforeId), userId, fromId, beforeId)
+                .filter(trade -> filter.matches(trade.getSymbol(), trade.getExchange(), trade.getExecutedAt()));
+    }
+    
     /**
      * Get all trades
      */
@@ -37,32 +77,54 @@ public class TradeService {
     }
     
     /**
-     * Get trades for a specific order
+     * Get an order's trades in execution order, in memory or archived
      */
-    public List<Trade> getTradesForOrder(String orderId) {
-        return tradeRepository.findByOrderId(orderId);
+    public List<Trade> getTradesForOrder(Order order) {
+        List<Trade> trades = tradeRepository.findByOrderId(order.getOrderId());
+        if (!historyArchive.isEnabled()) {
+            return trades;
+        }
+        
+        // Every trade of the order executed between its creation and its last update
+        HistoryFilter lifetime = HistoryFilter.builder()
+                .from(order.getCreatedAt())
+                .to(order.getUpdatedAt() != null ? order.getUpdatedAt().plusNanos(1) : null)
+                .build();
+        String fromId = lifetime.fromId(TRADE_ID_PREFIX);
+        String beforeId = lifetime.beforeId(TRADE_ID_PREFIX, null);
+        Map<String, Trade> byId = new TreeMap<>();
+        historyArchive.mergeTrades(Stream.empty(), order.getUserId(), fromId, beforeId)
+                .filter(trade -> trade.getOrderId().equals(order.getOrderId()))
+                .forEach(trade -> byId.put(trade.getTradeId(), trade));
+        if (byId.isEmpty()) {
+            return trades;
+        }
+        trades.forEach(trade -> byId.put(trade.getTradeId(), trade));
+        return new ArrayList<>(byId.values());
     }
     
     /**
      * Create a new trade (when order is executed)
      */
-    public Trade createTrade(String orderId, String symbol, String exchange, 
-                             OrderType tradeType, int quantity, double executionPrice, String userId) {
-        log.debug("Creating trade for order: {}", orderId);
+    public Trade createTrade(Order order, int quantity, double executionPrice) {
+        log.debug("Creating trade for order: {}", order.getOrderId());
         
         Trade trade = Trade.builder()
-                .tradeId("TRD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
-                .orderId(orderId)
-                .symbol(symbol)
-                .exchange(exchange)
-                .tradeType(tradeType)
+                .tradeId(idGenerator.nextId(TRADE_ID_PREFIX))
+                .orderId(order.getOrderId())
+                .symbol(order.getSymbol())
+                .exchange(order.getExchange())
+                .instrumentId(order.getInstrumentId())
+                .tradeType(order.getOrderType())
                 .quantity(quantity)
                 .executionPrice(executionPrice)
                 .totalValue(quantity * executionPrice)
                 .executedAt(LocalDateTime.now())
-                .userId(userId)
+                .userId(order.getUserId())
                 .build();
         
-        return tradeRepository.save(trade);
+        Trade saved = tradeRepository.save(trade);
+        eventStreamService.publishTrade(saved);
+        return saved;
     }
 }
@@ -0,0 +1,282 @@
+package com.bajaj.tradingsdk.stream;
+
+import com.bajaj.tradingsdk.dto.OrderResponse;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.Trade;
+import com.bajaj.tradingsdk.pnl.PnlEngine;
+import com.bajaj.tradingsdk.pnl.PortfolioListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service that pushes order status changes, trades and portfolio P&L to
+ * connected clients over Server-Sent Events.
+ *
+ * Publishing never blocks the caller (usually a sequencer shard): events are
+ * conflated into each connection's {@link Subscription} and written out by a
+ * small pool of dispatcher threads, one connection at a time, so a slow client
+ * only delays its own events. Publishing for a user with no open connection
+ * is a single map lookup.
+ *
+ * A connection whose write takes longer than {@code trading.stream.send-timeout-ms},
+ * or whose oldest pending event has waited twice that, is closed. If its dispatcher is
+ * still blocked in the write, the pool gets a thread in its place until the
+ * write returns, so stalled clients never hold up the others.
+ */
+@Service
+@Slf4j
+public class EventStreamService implements PortfolioListener {
+    
+    private final PnlEngine pnlEngine;
+    private final int queueCapacity;
+    private final int dispatcherThreads;
+    private final long heartbeatSeconds;
+    private final long sendTimeoutMillis;
+    private final long timeoutMillis;
+    
+    private final Map<String, Set<Subscription>> subscriptionsByUser = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor dispatcher;
+    private ScheduledExecutorService scheduler;
+    private int handedOffDispatches;    // Guarded by this
+    
+    public EventStreamService(PnlEngine pnlEngine,
+                              @Value("${trading.stream.queue-capacity:1024}") int queueCapacity,
+                              @Value("${trading.stream.dispatcher-threads:2}") int dispatcherThreads,
+                              @Value("${trading.stream.heartbeat-seconds:15}") long heartbeatSeconds,
+                              @Value("${trading.stream.send-timeout-ms:10000}") long sendTimeoutMillis,
+                              @Value("${trading.stream.timeout-minutes:30}") long timeoutMinutes) {
+        this.pnlEngine = pnlEngine;
+        this.queueCapacity = queueCapacity;
+        this.dispatcherThreads = Math.max(1, dispatcherThreads);
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+    }
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        dispatcher = new ThreadPoolExecutor(dispatcherThreads, dispatcherThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "stream-dispatcher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stream-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Heartbeats keep proxies from closing idle streams and surface dead connections
+        scheduler.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        long checkMillis = Math.max(1, sendTimeoutMillis / 4);
+        scheduler.scheduleWithFixedDelay(this::closeStalled, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+        pnlEngine.addListener(this);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        scheduler.shutdownNow();
+        // Stop publishing before the dispatcher goes away
+        subscriptionsByUser.values().forEach(subscriptions ->
+                subscriptions.forEach(subscription -> subscription.close(null)));
+        subscriptionsByUser.clear();
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Open a stream for a user. The current portfolio is sent first.
+     */
+    public SseEmitter subscribe(String userId) {
+        return subscribe(userId, new SseEmitter(timeoutMillis));
+    }
+    
+    SseEmitter subscribe(String userId, SseEmitter emitter) {
+        Subscription subscription = new Subscription(userId, emitter, queueCapacity);
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(error -> unsubscribe(subscription));
+        
+        subscriptionsByUser.compute(userId, (id, subscriptions) -> {
+            Set<Subscription> updated = subscriptions == null ? new CopyOnWriteArraySet<>() : subscriptions;
+            updated.add(subscription);
+            return updated;
+        });
+        log.info("Stream opened for user {}", userId);
+        
+        if (subscription.offerPortfolioChanged()) {
+            dispatcher.execute(() -> dispatch(subscription));
+        }
+        return emitter;
+    }
+    
+    /**
+     * Push an order's current state to its user's streams
+     */
+    public void publishOrder(Order order) {
+        Set<Subscription> subscriptions = subscriptionsByUser.get(order.getUserId());
+        if (subscriptions == null) {
+            return;
+        }
+        
+        // Copied now: the order keeps changing after this call
+        OrderResponse update = OrderResponse.fromOrder(order);
+        for (Subscription subscription : subscriptions) {
+            if (subscription.offerOrder(update)) {
+                dispatcher.execute(() -> dispatch(subscription));
+            }
+        }
+    }
+    
+    /**
+     * Push a new trade to its user's streams
+     */
+    public void publishTrade(Trade trade) {
+        Set<Subscription> subscriptions = subscriptionsByUser.get(trade.getUserId());
+        if (subscriptions == null) {
+            return;
+        }
+        
+        for (Subscription subscription : subscriptions) {
+            if (subscription.offerTrade(trade)) {
+                dispatcher.execute(() -> dispatch(subscription));
+            }
+        }
+    }
+    
+    @Override
+    public void onPortfolioChanged(String userId) {
+        Set<Subscription> subscriptions = subscriptionsByUser.get(userId);
+        if (subscriptions == null) {
+            return;
+        }
+        
+        for (Subscription subscription : subscriptions) {
+            if (subscription.offerPortfolioChanged()) {
+                dispatcher.execute(() -> dispatch(subscription));
+            }
+        }
+    }
+    
+    /**
+     * Number of open streams across all users
+     */
+    public int getSubscriptionCount() {
+        return subscriptionsByUser.values().stream().mapToInt(Set::size).sum();
+    }
+    
+    private void closeStalled() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        subscriptionsByUser.values().forEach(subscriptions -> subscriptions.forEach(subscription -> {
+            if (subscription.isStalled(now, timeoutNanos)) {
+                log.info("Closing stalled stream for user {}", subscription.getUserId());
+                unsubscribe(subscription);
+                subscription.close(null);
+                if (subscription.isHandedOff()) {
+                    resizeDispatcher(1);
+                }
+            }
+        }));
+    }
+    
+    /**
+     * Add or remove a stand-in for a dispatcher blocked in a closed stream's write
+     */
+    private synchronized void resizeDispatcher(int delta) {
+        // The dispatcher may finish its write before the closing thread adds the stand-in
+        handedOffDispatches += delta;
+        int size = dispatcherThreads + Math.max(0, handedOffDispatches);
+        // The core size may never exceed the maximum
+        if (delta > 0) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+    
+    private void sendHeartbeats() {
+        subscriptionsByUser.values().forEach(subscriptions -> subscriptions.forEach(subscription -> {
+            if (subscription.offerHeartbeat()) {
+                dispatcher.execute(() -> dispatch(subscription));
+            }
+        }));
+    }
+    
+    /**
+     * Write a subscription's pending events; runs on a dispatcher thread
+     */
+    private void dispatch(Subscription subscription) {
+        Subscription.Pending pending = subscription.take();
+        if (pending == null) {
+            return;
+        }
+        try {
+            if (pending.resync) {
+                send(subscription, SseEmitter.event().name("resync")
+                        .data("Events were dropped; reload orders and trades"));
+            }
+            for (OrderResponse order : pending.orders.values()) {
+                send(subscription, SseEmitter.event().name("order").id(order.getOrderId())
+                        .data(order, MediaType.APPLICATION_JSON));
+            }
+            for (Trade trade : pending.trades) {
+                send(subscription, SseEmitter.event().name("trade").id(trade.getTradeId())
+                        .data(trade, MediaType.APPLICATION_JSON));
+            }
+            if (pending.portfolioChanged) {
+                send(subscription, SseEmitter.event().name("portfolio")
+                        .data(pnlEngine.getSnapshot(subscription.getUserId()), MediaType.APPLICATION_JSON));
+            }
+            if (pending.heartbeat) {
+                send(subscription, SseEmitter.event().comment("heartbeat"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away, the emitter already completed or the stream was closed as stalled
+            log.debug("Closing stream for user {}: {}", subscription.getUserId(), e.getMessage());
+            unsubscribe(subscription);
+            subscription.close(e);
+        }
+        
+        if (subscription.finishDispatch()) {
+            dispatcher.execute(() -> dispatch(subscription));
+        } else if (subscription.isHandedOff()) {
+            // This thread's stand-in is no longer needed
+            resizeDispatcher(-1);
+        }
+    }
+    
+    private static void send(Subscription subscription, SseEmitter.SseEventBuilder event) throws IOException {
+        if (subscription.isClosed()) {
+            throw new IllegalStateException("Stream closed");
+        }
+        subscription.getEmitter().send(event);
+    }
+    
+    private void unsubscribe(Subscription subscription) {
+        subscriptionsByUser.computeIfPresent(subscription.getUserId(), (userId, subscriptions) -> {
+            subscriptions.remove(subscription);
+            return subscriptions.isEmpty() ? null : subscriptions;
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,221 @@
+package com.bajaj.tradingsdk.stream;
+
+import com.bajaj.tradingsdk.dto.OrderResponse;
+import com.bajaj.tradingsdk.model.Trade;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One client connection and the events waiting to be sent to it.
+ *
+ * Pending events are conflated: only the latest state of each order is kept,
+ * and portfolio changes are a single flag (the snapshot is read when the
+ * event is sent). Trades cannot be conflated, so if orders and trades
+ * together exceed the capacity the queue is dropped and the client is told to
+ * resync instead of the engine waiting for it.
+ *
+ * A subscription is stalled when a write to the client has taken longer than
+ * the send timeout, or its oldest pending event has waited twice that (events
+ * may first queue behind other clients' stalled writes, which are cut off
+ * after one timeout); {@link #close} then stops it without waiting on the
+ * write.
+ */
+class Subscription {
+    
+    private final String userId;
+    private final SseEmitter emitter;
+    private final int capacity;
+    
+    // Guarded by this
+    private Pending pending = new Pending();
+    private boolean scheduled;
+    private long pendingSince;          // nanoTime of the oldest event not yet taken, 0 if none
+    private Thread sender;              // Dispatcher writing to the client, null between dispatches
+    private long sendingSince;
+    private boolean closed;
+    private boolean handedOff;          // Closed while another thread was writing
+    private Throwable closeReason;
+    
+    Subscription(String userId, SseEmitter emitter, int capacity) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.capacity = capacity;
+    }
+    
+    String getUserId() {
+        return userId;
+    }
+    
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+    
+    /**
+     * @return true if the caller must schedule this subscription for dispatch
+     */
+    synchronized boolean offerOrder(OrderResponse order) {
+        if (closed) {
+            return false;
+        }
+        pending.orders.put(order.getOrderId(), order);
+        checkCapacity();
+        return schedule();
+    }
+    
+    synchronized boolean offerTrade(Trade trade) {
+        if (closed) {
+            return false;
+        }
+        pending.trades.add(trade);
+        checkCapacity();
+        return schedule();
+    }
+    
+    synchronized boolean offerPortfolioChanged() {
+        if (closed) {
+            return false;
+        }
+        pending.portfolioChanged = true;
+        return schedule();
+    }
+    
+    synchronized boolean offerHeartbeat() {
+        if (closed) {
+            return false;
+        }
+        pending.heartbeat = true;
+        return schedule();
+    }
+    
+    /**
+     * Take everything queued so far; only called by the dispatcher that owns the schedule
+     *
+     * @return the pending events, or null once closed
+     */
+    synchronized Pending take() {
+        if (closed) {
+            return null;
+        }
+        sender = Thread.currentThread();
+        sendingSince = System.nanoTime();
+        pendingSince = 0;
+        Pending taken = pending;
+        pending = new Pending();
+        return taken;
+    }
+    
+    /**
+     * Release the schedule after a dispatch, completing the emitter if the
+     * subscription was closed meanwhile
+     *
+     * @return true if more events arrived meanwhile and the subscription must be dispatched again
+     */
+    boolean finishDispatch() {
+        Throwable reason;
+        synchronized (this) {
+            sender = null;
+            // Drop an interrupt from close(), which is only sent while sender is this thread
+            Thread.interrupted();
+            if (!closed) {
+                scheduled = !pending.isEmpty();
+                return scheduled;
+            }
+            reason = closeReason;
+        }
+        complete(reason);
+        return false;
+    }
+    
+    /**
+     * Stop sending to the client. The emitter is completed now if no dispatch
+     * is running; otherwise the writing thread is interrupted and completes it
+     * in {@link #finishDispatch} once its write returns, as completing waits
+     * for the write.
+     *
+     * @param reason the error to complete with, or null to complete normally
+     */
+    void close(Throwable reason) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            closeReason = reason;
+            pending = new Pending();
+            if (sender != null) {
+                if (sender != Thread.currentThread()) {
+                    handedOff = true;
+                    sender.interrupt();
+                }
+                return;
+            }
+        }
+        complete(reason);
+    }
+    
+    synchronized boolean isClosed() {
+        return closed;
+    }
+    
+    /**
+     * @return true if a dispatcher was still writing to the client when it was closed
+     */
+    synchronized boolean isHandedOff() {
+        return handedOff;
+    }
+    
+    /**
+     * @return true if a write has taken longer than the timeout, or the oldest pending event twice that
+     */
+    synchronized boolean isStalled(long now, long timeoutNanos) {
+        if (closed) {
+            return false;
+        }
+        return (sender != null && now - sendingSince > timeoutNanos)
+                || (pendingSince != 0 && now - pendingSince > 2 * timeoutNanos);
+    }
+    
+    private void complete(Throwable reason) {
+        if (reason == null) {
+            emitter.complete();
+        } else {
+            emitter.completeWithError(reason);
+        }
+    }
+    
+    private boolean schedule() {
+        if (pendingSince == 0) {
+            pendingSince = System.nanoTime();
+        }
+        if (scheduled) {
+            return false;
+        }
+        scheduled = true;
+        return true;
+    }
+    
+    private void checkCapacity() {
+        if (pending.orders.size() + pending.trades.size() > capacity) {
+            pending.orders.clear();
+            pending.trades.clear();
+            pending.resync = true;
+            pending.portfolioChanged = true;
+        }
+    }
+    
+    static class Pending {
+        final Map<String, OrderResponse> orders = new LinkedHashMap<>();
+        final List<Trade> trades = new ArrayList<>();
+        boolean portfolioChanged;
+        boolean resync;
+        boolean heartbeat;
+        
+        boolean isEmpty() {
+            return orders.isEmpty() && trades.isEmpty() && !portfolioChanged && !resync && !heartbeat;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.bajaj.tradingsdk.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free, time-ordered unique ID generator (Snowflake layout).
+ *
+ * Each 64-bit ID packs {@code [41 bits millis since 2024-01-01][10 bits node][12 bits sequence]}.
+ * The timestamp and sequence are advanced together with a single CAS, so IDs
+ * are strictly increasing per node. When more than 4096 IDs are requested in
+ * one millisecond, or the clock steps backwards, the generator borrows the
+ * next millisecond instead of waiting, and the clock catches up.
+ *
+ * IDs are formatted as a prefix plus 16 upper-case hex digits, so string
+ * order matches generation order.
+ */
+@Component
+public class IdGenerator {
+    
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    
+    private final long nodeBits;
+    
+    // timestamp << SEQUENCE_BITS | sequence of the last ID handed out
+    private final AtomicLong lastState = new AtomicLong();
+    
+    public IdGenerator(@Value("${trading.node-id:0}") int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("trading.node-id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+    
+    /**
+     * Next unique ID as a number
+     */
+    public long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            // Sequence overflow carries into the timestamp, i.e. borrows the next millisecond
+            long next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+    
+    /**
+     * Make every later ID sort above one already handed out, e.g. the highest
+     * ID recovered from the journal, in case the clock is now behind it (an NTP
+     * step back, or milliseconds borrowed before a restart). IDs not in this
+     * generator's format are ignored.
+     */
+    public void advancePast(String id) {
+        if (id == null || id.length() < 16) {
+            return;
+        }
+        long value;
+        try {
+            value = Long.parseUnsignedLong(id, id.length() - 16, id.length(), 16);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        long state = (value >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS | (value & SEQUENCE_MASK);
+        lastState.accumulateAndGet(state, Math::max);
+    }
+    
+    /**
+     * Next unique ID formatted with the given prefix, e.g. {@code ORD-0001A2B3C4D5E6F7}
+     */
+    public String nextId(String prefix) {
+        return format(prefix, nextId());
+    }
+    
+    /**
+     * Smallest ID with the given prefix that any node can generate at or after a time
+     */
+    public static String firstIdAt(String prefix, long epochMillis) {
+        long millis = Math.max(0, epochMillis - EPOCH_MILLIS);
+        return format(prefix, millis << (NODE_BITS + SEQUENCE_BITS));
+    }
+    
+    static String format(String prefix, long id) {
+        int length = prefix.length();
+        byte[] chars = new byte[length + 16];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (byte) prefix.charAt(i);
+        }
+        for (int i = chars.length - 1; i >= length; i--) {
+            chars[i] = HEX_DIGITS[(int) (id & 0xF)];
+            id >>>= 4;
+        }
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+}
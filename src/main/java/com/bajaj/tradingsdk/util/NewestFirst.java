@@ -0,0 +1,148 @@
+package com.bajaj.tradingsdk.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily merges sources that each yield records newest first (descending ID)
+ * into one newest-first stream, dropping repeated IDs.
+ *
+ * A source with a known highest ID is only opened once the merge reaches that
+ * ID, so sources lying entirely below the part of the result that is read are
+ * never opened.
+ */
+public final class NewestFirst<T> implements Iterator<T> {
+    
+    private final Function<T, String> idOf;
+    private final PriorityQueue<Cursor<T>> cursors = new PriorityQueue<>();
+    private String lastId;
+    private T next;
+    
+    private NewestFirst(Function<T, String> idOf, List<Source<T>> sources) {
+        this.idOf = idOf;
+        for (Source<T> source : sources) {
+            Cursor<T> cursor = new Cursor<>(source.opener);
+            if (source.highestId == null) {
+                open(cursor);
+            } else {
+                cursor.key = source.highestId;
+                cursors.add(cursor);
+            }
+        }
+    }
+    
+    public static <T> Stream<T> merge(Function<T, String> idOf, List<Source<T>> sources) {
+        Iterator<T> merged = new NewestFirst<>(idOf, sources);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+    
+    public static <T> Stream<T> merge(Function<T, String> idOf, Stream<T> first, Stream<T> second) {
+        List<Source<T>> sources = new ArrayList<>(2);
+        sources.add(Source.of(first));
+        sources.add(Source.of(second));
+        return merge(idOf, sources);
+    }
+    
+    @Override
+    public boolean hasNext() {
+        while (next == null && !cursors.isEmpty()) {
+            Cursor<T> cursor = cursors.poll();
+            if (cursor.iterator == null) {
+                open(cursor);
+                continue;
+            }
+            T record = cursor.head;
+            if (advance(cursor)) {
+                cursors.add(cursor);
+            }
+            String id = idOf.apply(record);
+            if (!id.equals(lastId)) {
+                lastId = id;
+                next = record;
+            }
+        }
+        return next != null;
+    }
+    
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T record = next;
+        next = null;
+        return record;
+    }
+    
+    private void open(Cursor<T> cursor) {
+        cursor.iterator = cursor.opener.get();
+        if (advance(cursor)) {
+            cursors.add(cursor);
+        }
+    }
+    
+    private boolean advance(Cursor<T> cursor) {
+        if (!cursor.iterator.hasNext()) {
+            return false;
+        }
+        cursor.head = cursor.iterator.next();
+        cursor.key = idOf.apply(cursor.head);
+        return true;
+    }
+    
+    /**
+     * Records newest first, opened on demand
+     */
+    public static final class Source<T> {
+        
+        private final String highestId;
+        private final Supplier<Iterator<T>> opener;
+        
+        private Source(String highestId, Supplier<Iterator<T>> opener) {
+            this.highestId = highestId;
+            this.opener = opener;
+        }
+        
+        /**
+         * A source that is only opened when the merge reaches {@code highestId}
+         */
+        public static <T> Source<T> of(String highestId, Supplier<Iterator<T>> opener) {
+            return new Source<>(highestId, opener);
+        }
+        
+        /**
+         * A source that is read from the start
+         */
+        public static <T> Source<T> of(Stream<T> stream) {
+            return new Source<>(null, stream::iterator);
+        }
+    }
+    
+    private static final class Cursor<T> implements Comparable<Cursor<T>> {
+        
+        private final Supplier<Iterator<T>> opener;
+        private Iterator<T> iterator;
+        private T head;
+        private String key;     // ID of head, or the highest ID of an unopened source
+        
+        private Cursor(Supplier<Iterator<T>> opener) {
+            this.opener = opener;
+        }
+        
+        @Override
+        public int compareTo(Cursor<T> other) {
+            // Highest key first
+            return other.key.compareTo(key);
+        }
+    }
+}
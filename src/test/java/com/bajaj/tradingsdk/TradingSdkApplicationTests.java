@@ -1,21 +1,40 @@
 package com.bajaj.tradingsdk;
 
+import com.bajaj.tradingsdk.dto.BatchOrderResult;
+import com.bajaj.tradingsdk.dto.CursorPage;
+import com.bajaj.tradingsdk.dto.HistoryFilter;
 import com.bajaj.tradingsdk.dto.OrderRequest;
+import com.bajaj.tradingsdk.dto.PortfolioSummary;
+import com.bajaj.tradingsdk.exception.InsufficientHoldingsException;
+import com.bajaj.tradingsdk.exception.ResourceNotFoundException;
+import com.bajaj.tradingsdk.exception.ValidationException;
+import com.bajaj.tradingsdk.marketdata.MarketDataService;
 import com.bajaj.tradingsdk.model.*;
+import com.bajaj.tradingsdk.pnl.PnlEngine;
+import com.bajaj.tradingsdk.pnl.PortfolioSnapshot;
+import com.bajaj.tradingsdk.repository.OrderRepository;
 import com.bajaj.tradingsdk.service.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "trading.journal.enabled=false")
 class TradingSdkApplicationTests {
     
+    private static final String USER_ID = "USER001";
+    
     @Autowired
     private InstrumentService instrumentService;
     
@@ -28,6 +47,18 @@ class TradingSdkApplicationTests {
     @Autowired
     private PortfolioService portfolioService;
     
+    @Autowired
+    private MarketDataService marketDataService;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private PnlEngine pnlEngine;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     @Test
     void contextLoads() {
         assertNotNull(instrumentService);
@@ -64,7 +95,7 @@ class TradingSdkApplicationTests {
                 .quantity(10)
                 .build();
         
-        Order order = orderService.placeOrder(request);
+        Order order = orderService.placeOrder(USER_ID, request);
         
         assertNotNull(order);
         assertNotNull(order.getOrderId());
@@ -85,7 +116,7 @@ class TradingSdkApplicationTests {
                 .price(1200.00)
                 .build();
         
-        Order order = orderService.placeOrder(request);
+        Order order = orderService.placeOrder(USER_ID, request);
         
         assertNotNull(order);
         assertEquals(OrderStatus.PLACED, order.getStatus());
@@ -103,8 +134,8 @@ class TradingSdkApplicationTests {
                 .quantity(20)
                 .build();
         
-        Order createdOrder = orderService.placeOrder(request);
-        Order fetchedOrder = orderService.getOrder(createdOrder.getOrderId());
+        Order createdOrder = orderService.placeOrder(USER_ID, request);
+        Order fetchedOrder = orderService.getOrder(USER_ID, createdOrder.getOrderId());
         
         assertEquals(createdOrder.getOrderId(), fetchedOrder.getOrderId());
     }
@@ -112,17 +143,47 @@ class TradingSdkApplicationTests {
     @Test
     @DisplayName("Should fetch portfolio holdings")
     void testGetPortfolio() {
-        String userId = orderService.getMockUserId();
-        List<PortfolioHolding> holdings = portfolioService.getPortfolio(userId);
+        List<PortfolioHolding> holdings = portfolioService.getPortfolio(USER_ID);
         
         assertNotNull(holdings);
         assertFalse(holdings.isEmpty());
     }
     
+    @Test
+    @DisplayName("Should serve cached P&L until a held instrument ticks or a holding changes")
+    void testIncrementalPnl() {
+        String userId = "PNL_USER";
+        int hcl = instrumentService.resolveId("HCLTECH", "NSE");
+        int bajaj = instrumentService.resolveId("BAJFINANCE", "NSE");
+        portfolioService.addToPortfolio(userId, hcl, 10, 1000.00);
+        portfolioService.addToPortfolio(userId, bajaj, 5, 2000.00);
+        marketDataService.publishPrice("HCLTECH", "NSE", 1100.00);
+        marketDataService.publishPrice("BAJFINANCE", "NSE", 1900.00);
+        
+        PortfolioSnapshot first = pnlEngine.getSnapshot(userId);
+        assertSame(first, pnlEngine.getSnapshot(userId));
+        PortfolioSummary summary = portfolioService.getSummary(userId);
+        assertEquals(2, summary.getHoldingCount());
+        assertEquals(20_000.00, summary.getInvestedValue(), 0.0001);
+        assertEquals(20_500.00, summary.getCurrentValue(), 0.0001);
+        assertEquals(500.00, summary.getProfitLoss(), 0.0001);
+        
+        // A tick for an instrument the user doesn't hold keeps the snapshot
+        marketDataService.publishPrice("SBIN", "NSE", 630.00);
+        assertSame(first, pnlEngine.getSnapshot(userId));
+        
+        marketDataService.publishPrice("HCLTECH", "NSE", 1200.00);
+        assertNotSame(first, pnlEngine.getSnapshot(userId));
+        assertEquals(21_500.00, portfolioService.getSummary(userId).getCurrentValue(), 0.0001);
+        
+        portfolioService.removeFromPortfolio(userId, bajaj, 5);
+        assertEquals(1, portfolioService.getPortfolio(userId).size());
+        assertEquals(2_000.00, portfolioService.getSummary(userId).getProfitLoss(), 0.0001);
+    }
+    
     @Test
     @DisplayName("Should fetch trades after order execution")
     void testGetTrades() {
-        String userId = orderService.getMockUserId();
         
         // Place a market order (which gets executed immediately)
         OrderRequest request = OrderRequest.builder()
@@ -133,10 +194,374 @@ class TradingSdkApplicationTests {
                 .quantity(15)
                 .build();
         
-        orderService.placeOrder(request);
+        orderService.placeOrder(USER_ID, request);
         
-        List<Trade> trades = tradeService.getTradesForUser(userId);
+        List<Trade> trades = tradeService.getTradesForUser(USER_ID);
         assertNotNull(trades);
         assertFalse(trades.isEmpty());
     }
+    
+    @Test
+    @DisplayName("Should page filtered order and trade history newest first")
+    void testHistoryPagination() {
+        LocalDateTime start = LocalDateTime.now().minusSeconds(1);
+        List<String> placed = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            placed.add(0, orderService.placeOrder(USER_ID, OrderRequest.builder()
+                    .symbol("ICICIBANK").exchange("NSE").orderType(OrderType.BUY)
+                    .orderStyle(OrderStyle.MARKET).quantity(1 + i).build()).getOrderId());
+        }
+        HistoryFilter filter = HistoryFilter.builder().symbol("icicibank").from(start).build();
+        
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<Order> page = orderService.getOrders(USER_ID, filter, OrderStatus.EXECUTED, cursor, 2);
+            page.getItems().forEach(order -> paged.add(order.getOrderId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(placed, paged);
+        assertEquals(3, pages);
+        
+        CursorPage<Trade> trades = tradeService.getTrades(USER_ID, filter, null, 100);
+        assertEquals(5, trades.getItems().size());
+        assertEquals(5, trades.getItems().get(0).getQuantity());
+        assertNull(trades.getNextCursor());
+        
+        HistoryFilter future = HistoryFilter.builder().symbol("ICICIBANK").from(LocalDateTime.now().plusMinutes(1)).build();
+        assertEquals(0, orderService.streamOrders(USER_ID, future, null).count());
+        assertThrows(ValidationException.class, () -> orderService.getOrders(USER_ID, filter, null, null, 0));
+    }
+    
+    @Test
+    @DisplayName("Should match crossing LIMIT orders with partial fills")
+    void testLimitOrdersMatchInBook() {
+        orderService.placeOrder(USER_ID, OrderRequest.builder()
+                .symbol("GOLDBEES").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.MARKET).quantity(10).build());
+        
+        Order sell = orderService.placeOrder(USER_ID, OrderRequest.builder()
+                .symbol("GOLDBEES").exchange("NSE").orderType(OrderType.SELL)
+                .orderStyle(OrderStyle.LIMIT).quantity(10).price(52.00).build());
+        assertEquals(OrderStatus.PLACED, sell.getStatus());
+        
+        Order buy = orderService.placeOrder(USER_ID, OrderRequest.builder()
+                .symbol("GOLDBEES").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.LIMIT).quantity(4).price(53.00).build());
+        
+        assertEquals(OrderStatus.EXECUTED, buy.getStatus());
+        assertEquals(4, buy.getFilledQuantity());
+        assertEquals(52.00, tradeService.getTradesForOrder(buy).get(0).getExecutionPrice());
+        
+        Order restingSell = orderService.getOrder(USER_ID, sell.getOrderId());
+        assertEquals(OrderStatus.PARTIALLY_FILLED, restingSell.getStatus());
+        assertEquals(4, restingSell.getFilledQuantity());
+        assertEquals(6, restingSell.getRemainingQuantity());
+        assertEquals(52.00, restingSell.getAverageFillPrice());
+        
+        // The rest stays open until cancelled
+        assertEquals(OrderStatus.CANCELLED, orderService.cancelOrder(USER_ID, sell.getOrderId()).getStatus());
+    }
+    
+    @Test
+    @DisplayName("Should fill large MARKET orders in slices with a volume-weighted average price")
+    void testMarketOrderSlices() {
+        int instrumentId = instrumentService.resolveId("NIFTYBEES", "NSE");
+        double price = instrumentService.getCurrentPrice(instrumentId);
+        
+        Order order = orderService.placeOrder(USER_ID, OrderRequest.builder()
+                .symbol("NIFTYBEES").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.MARKET).quantity(2_500).build());
+        
+        assertEquals(OrderStatus.EXECUTED, order.getStatus());
+        assertEquals(0, order.getRemainingQuantity());
+        List<Trade> trades = tradeService.getTradesForOrder(order);
+        assertEquals(List.of(1_000, 1_000, 500), trades.stream().map(Trade::getQuantity).toList());
+        double tradedValue = trades.stream().mapToDouble(trade -> trade.getQuantity() * trade.getExecutionPrice()).sum();
+        assertEquals(tradedValue / 2_500, order.getAverageFillPrice(), 1e-9);
+        assertEquals(price, order.getAverageFillPrice(), 1e-9);
+    }
+    
+    @Test
+    @DisplayName("Should hold stop orders until a tick crosses their trigger price")
+    void testStopOrdersTrigger() {
+        Order stop = orderService.placeOrder(USER_ID, OrderRequest.builder()
+                .symbol("WIPRO").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.STOP).quantity(3).triggerPrice(420.00).build());
+        Order stopLimit = orderService.placeOrder(USER_ID, OrderRequest.builder()
+                .symbol("WIPRO").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.STOP_LIMIT).quantity(2).triggerPrice(421.00).price(400.00).build());
+        Order farStop = orderService.placeOrder(USER_ID, OrderRequest.builder()
+                .symbol("WIPRO").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.STOP).quantity(1).triggerPrice(450.00).build());
+        
+        assertEquals(OrderStatus.PLACED, stop.getStatus());
+        assertNull(stop.getTriggeredAt());
+        assertThrows(ValidationException.class, () -> orderService.placeOrder(USER_ID, OrderRequest.builder()
+                .symbol("WIPRO").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.STOP).quantity(1).build()));
+        
+        marketDataService.publishPrice("WIPRO", "NSE", 421.50);
+        // Runs on the instrument's sequencer after the triggered orders
+        assertEquals(OrderStatus.CANCELLED, orderService.cancelOrder(USER_ID, farStop.getOrderId()).getStatus());
+        
+        Order executed = orderService.getOrder(USER_ID, stop.getOrderId());
+        assertEquals(OrderStatus.EXECUTED, executed.getStatus());
+        assertNotNull(executed.getTriggeredAt());
+        assertEquals(421.50, tradeService.getTradesForOrder(stop).get(0).getExecutionPrice());
+        
+        // A triggered STOP_LIMIT order rests in the book like a LIMIT order
+        Order resting = orderService.getOrder(USER_ID, stopLimit.getOrderId());
+        assertEquals(OrderStatus.PLACED, resting.getStatus());
+        assertNotNull(resting.getTriggeredAt());
+        assertEquals(OrderStatus.CANCELLED, orderService.cancelOrder(USER_ID, stopLimit.getOrderId()).getStatus());
+        
+        marketDataService.publishPrice("WIPRO", "NSE", 460.00);
+        assertEquals(OrderStatus.CANCELLED, orderService.getOrder(USER_ID, farStop.getOrderId()).getStatus());
+        assertTrue(tradeService.getTradesForOrder(farStop).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should never oversell a holding under concurrent SELL orders")
+    void testConcurrentSellsDoNotOversell() throws Exception {
+        orderService.placeOrder(USER_ID, OrderRequest.builder()
+                .symbol("HDFC").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.MARKET).quantity(10).build());
+        int startingQuantity = portfolioService.getHoldingQuantity(USER_ID, "HDFC", "NSE");
+        
+        OrderRequest sell = OrderRequest.builder()
+                .symbol("HDFC").exchange("NSE").orderType(OrderType.SELL)
+                .orderStyle(OrderStyle.MARKET).quantity(1).build();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < startingQuantity + 10; i++) {
+            results.add(executor.submit(() -> {
+                try {
+                    orderService.placeOrder(USER_ID, sell);
+                    return true;
+                } catch (InsufficientHoldingsException e) {
+                    return false;
+                }
+            }));
+        }
+        
+        int executed = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                executed++;
+            }
+        }
+        executor.shutdown();
+        
+        assertEquals(startingQuantity, executed);
+        assertEquals(0, portfolioService.getHoldingQuantity(USER_ID, "HDFC", "NSE"));
+        assertTrue(portfolioService.getPortfolio(USER_ID).stream()
+                .noneMatch(holding -> holding.getSymbol().equals("HDFC")));
+    }
+    
+    @Test
+    @DisplayName("Should not sell shares already committed to open SELL orders, nor fill a SELL the holding no longer covers")
+    void testOpenSellsCommitHoldings() {
+        String seller = "USER003";
+        orderService.placeOrder(seller, OrderRequest.builder()
+                .symbol("BAJFINANCE").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.MARKET).quantity(10).build());
+        Order resting = orderService.placeOrder(seller, OrderRequest.builder()
+                .symbol("BAJFINANCE").exchange("NSE").orderType(OrderType.SELL)
+                .orderStyle(OrderStyle.LIMIT).quantity(6).price(7000.00).build());
+        Order stop = orderService.placeOrder(seller, OrderRequest.builder()
+                .symbol("BAJFINANCE").exchange("NSE").orderType(OrderType.SELL)
+                .orderStyle(OrderStyle.STOP).quantity(4).triggerPrice(6000.00).build());
+        
+        OrderRequest sellOne = OrderRequest.builder()
+                .symbol("BAJFINANCE").exchange("NSE").orderType(OrderType.SELL)
+                .orderStyle(OrderStyle.MARKET).quantity(1).build();
+        assertThrows(InsufficientHoldingsException.class, () -> orderService.placeOrder(seller, sellOne));
+        orderService.cancelOrder(seller, stop.getOrderId());
+        assertEquals(OrderStatus.EXECUTED, orderService.placeOrder(seller, sellOne).getStatus());
+        
+        // The holding is cut below the resting SELL behind the engine's back: the SELL is cancelled, not filled
+        portfolioService.saveHolding(PortfolioHolding.builder().userId(seller).symbol("BAJFINANCE").exchange("NSE")
+                .quantity(2).averagePrice(6789.00).build());
+        Order buy = orderService.placeOrder("USER004", OrderRequest.builder()
+                .symbol("BAJFINANCE").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.LIMIT).quantity(6).price(7000.00).build());
+        
+        assertEquals(OrderStatus.PLACED, buy.getStatus());
+        assertEquals(OrderStatus.CANCELLED, orderService.getOrder(seller, resting.getOrderId()).getStatus());
+        assertTrue(tradeService.getTradesForOrder(resting).isEmpty());
+        assertEquals(2, portfolioService.getHoldingQuantity(seller, "BAJFINANCE", "NSE"));
+        orderService.cancelOrder("USER004", buy.getOrderId());
+    }
+    
+    @Test
+    @DisplayName("Should apply concurrent fills to one holding without lost updates")
+    void testConcurrentFillsUpdateHoldingAtomically() throws Exception {
+        String userId = "CONCURRENT_USER";
+        int instrumentId = instrumentService.resolveId("WIPRO", "NSE");
+        int threads = 8;
+        int fillsPerThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        
+        // Concurrent BUY fills at two prices
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            double price = t % 2 == 0 ? 100.00 : 200.00;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < fillsPerThread; i++) {
+                    portfolioService.addToPortfolio(userId, instrumentId, 1, price);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        
+        PortfolioHolding holding = portfolioService.getHolding(userId, "WIPRO", "NSE").orElseThrow();
+        assertEquals(threads * fillsPerThread, holding.getQuantity());
+        assertEquals(150.00, holding.getAveragePrice(), 0.0001);
+        
+        // Concurrent SELL fills for the whole quantity
+        futures.clear();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < fillsPerThread; i++) {
+                    portfolioService.removeFromPortfolio(userId, instrumentId, 1);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        
+        assertTrue(portfolioService.getHolding(userId, "WIPRO", "NSE").isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should place a batch of orders and report each result in request order")
+    void testPlaceBatchOrders() {
+        int infyHolding = portfolioService.getHoldingQuantity(USER_ID, "INFY", "NSE");
+        
+        List<BatchOrderResult> results = orderService.placeOrders(USER_ID, List.of(
+                OrderRequest.builder().symbol("BANKBEES").exchange("NSE").orderType(OrderType.BUY)
+                        .orderStyle(OrderStyle.MARKET).quantity(5).build(),
+                OrderRequest.builder().symbol("UNKNOWN").exchange("NSE").orderType(OrderType.BUY)
+                        .orderStyle(OrderStyle.MARKET).quantity(5).build(),
+                OrderRequest.builder().symbol("INFY").exchange("NSE").orderType(OrderType.SELL)
+                        .orderStyle(OrderStyle.MARKET).quantity(1).build(),
+                OrderRequest.builder().symbol("INFY").exchange("NSE").orderType(OrderType.SELL)
+                        .orderStyle(OrderStyle.MARKET).quantity(infyHolding).build(),
+                OrderRequest.builder().symbol("BANKBEES").exchange("NSE").orderType(OrderType.BUY)
+                        .orderStyle(OrderStyle.LIMIT).quantity(5).price(400.00).build()));
+        
+        assertEquals(5, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(OrderStatus.EXECUTED, results.get(0).getOrder().getStatus());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertFalse(results.get(3).isSuccess());
+        assertTrue(results.get(3).getError().startsWith("Insufficient holdings"));
+        assertTrue(results.get(4).isSuccess());
+        assertEquals(OrderStatus.PLACED, results.get(4).getOrder().getStatus());
+        assertEquals(infyHolding - 1, portfolioService.getHoldingQuantity(USER_ID, "INFY", "NSE"));
+    }
+    
+    @Test
+    @DisplayName("Should return the original order when a client order ID is replayed")
+    void testClientOrderIdReplay() {
+        OrderRequest request = OrderRequest.builder().clientOrderId("retry-1")
+                .symbol("RELIANCE").exchange("BSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.MARKET).quantity(2).build();
+        
+        Order first = orderService.placeOrder(USER_ID, request);
+        Order replay = orderService.placeOrder(USER_ID, request);
+        
+        assertEquals(first.getOrderId(), replay.getOrderId());
+        assertEquals("retry-1", replay.getClientOrderId());
+        assertEquals(1, tradeService.getTradesForOrder(first).size());
+        
+        // A rejected order does not hold on to its client order ID
+        OrderRequest oversell = OrderRequest.builder().clientOrderId("retry-2")
+                .symbol("RELIANCE").exchange("BSE").orderType(OrderType.SELL)
+                .orderStyle(OrderStyle.MARKET).quantity(1_000).build();
+        assertThrows(InsufficientHoldingsException.class, () -> orderService.placeOrder(USER_ID, oversell));
+        oversell.setQuantity(1);
+        assertEquals(OrderStatus.EXECUTED, orderService.placeOrder(USER_ID, oversell).getStatus());
+        
+        // Duplicates within a batch resolve to the same order
+        List<BatchOrderResult> results = orderService.placeOrders(USER_ID, List.of(
+                OrderRequest.builder().clientOrderId("retry-3").symbol("RELIANCE").exchange("BSE")
+                        .orderType(OrderType.BUY).orderStyle(OrderStyle.MARKET).quantity(1).build(),
+                OrderRequest.builder().clientOrderId("retry-3").symbol("RELIANCE").exchange("BSE")
+                        .orderType(OrderType.BUY).orderStyle(OrderStyle.MARKET).quantity(1).build(),
+                request));
+        assertEquals(results.get(0).getOrder().getOrderId(), results.get(1).getOrder().getOrderId());
+        assertEquals(first.getOrderId(), results.get(2).getOrder().getOrderId());
+    }
+    
+    @Test
+    @DisplayName("Should keep each user's orders, holdings and client order IDs apart")
+    void testUsersAreIsolated() {
+        String otherUser = "USER002";
+        OrderRequest request = OrderRequest.builder().clientOrderId("isolated-1")
+                .symbol("BANKBEES").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.MARKET).quantity(3).build();
+        
+        Order theirs = orderService.placeOrder(otherUser, request);
+        Order mine = orderService.placeOrder(USER_ID, request);
+        
+        // The same client order ID is a new order for another user
+        assertNotEquals(theirs.getOrderId(), mine.getOrderId());
+        assertEquals(otherUser, theirs.getUserId());
+        assertEquals(3, portfolioService.getHoldingQuantity(otherUser, "BANKBEES", "NSE"));
+        assertTrue(orderService.getAllOrders(USER_ID).stream()
+                .noneMatch(order -> order.getOrderId().equals(theirs.getOrderId())));
+        assertThrows(ResourceNotFoundException.class, () -> orderService.getOrder(USER_ID, theirs.getOrderId()));
+        assertThrows(ResourceNotFoundException.class, () -> orderService.cancelOrder(USER_ID, theirs.getOrderId()));
+        assertEquals(theirs.getOrderId(), orderService.getOrder(otherUser, theirs.getOrderId()).getOrderId());
+    }
+    
+    @Test
+    @DisplayName("Should record order counts, stage latencies and repository sizes")
+    void testOrderMetrics() {
+        double executed = meterRegistry.get("trading.orders")
+                .tags("status", "EXECUTED", "style", "MARKET").counter().count();
+        long placements = meterRegistry.get("trading.order.latency").timer().count();
+        
+        orderService.placeOrder(USER_ID, OrderRequest.builder()
+                .symbol("TATAMOTORS").exchange("NSE").orderType(OrderType.BUY)
+                .orderStyle(OrderStyle.MARKET).quantity(1).build());
+        
+        assertEquals(executed + 1, meterRegistry.get("trading.orders")
+                .tags("status", "EXECUTED", "style", "MARKET").counter().count());
+        assertEquals(placements + 1, meterRegistry.get("trading.order.latency").timer().count());
+        for (String stage : List.of("price_lookup", "validation", "sequencer_wait", "risk", "save", "execution", "trade", "portfolio")) {
+            assertTrue(meterRegistry.get("trading.order.stage").tag("stage", stage).timer().count() > 0, stage);
+        }
+        assertEquals(orderRepository.count(),
+                meterRegistry.get("trading.repository.size").tag("repository", "orders").gauge().value());
+    }
+    
+    @Test
+    @DisplayName("Should apply market data ticks to the instrument price table")
+    void testMarketDataUpdatesPrice() {
+        int instrumentId = instrumentService.resolveId("tcs", "bse");
+        long ticks = marketDataService.getTicksApplied();
+        
+        marketDataService.publishPrice("TCS", "BSE", 3612.35);
+        
+        assertEquals(instrumentId, instrumentService.resolveId("TCS", "BSE"));
+        assertEquals(3612.35, instrumentService.getCurrentPrice(instrumentId));
+        assertEquals(3612.35, instrumentService.getInstrument("TCS", "BSE").orElseThrow().getLastTradedPrice());
+        assertTrue(Double.isNaN(instrumentService.getCurrentPrice(instrumentService.resolveId("UNKNOWN", "NSE"))));
+        assertEquals(ticks + 1, marketDataService.getTicksApplied());
+        assertThrows(IllegalArgumentException.class, () -> marketDataService.publishPrice("UNKNOWN", "NSE", 1.0));
+    }
 }
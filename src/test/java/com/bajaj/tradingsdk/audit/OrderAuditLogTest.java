@@ -0,0 +1,38 @@
+package com.bajaj.tradingsdk.audit;
+
+import com.bajaj.tradingsdk.util.IdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderAuditLogTest {
+    
+    @Test
+    @DisplayName("Should sample about the configured fraction of consecutive order IDs")
+    void testSampleRate() {
+        IdGenerator idGenerator = new IdGenerator(0);
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            orderIds.add(idGenerator.nextId("ORD-"));
+        }
+        
+        assertEquals(0, sampled(new OrderAuditLog(0.0), orderIds));
+        assertEquals(orderIds.size(), sampled(new OrderAuditLog(1.0), orderIds));
+        assertEquals(5_000, sampled(new OrderAuditLog(0.25), orderIds), 500);
+    }
+    
+    @Test
+    @DisplayName("Should reject a sample rate outside 0-1")
+    void testInvalidSampleRate() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderAuditLog(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new OrderAuditLog(Double.NaN));
+    }
+    
+    private static long sampled(OrderAuditLog auditLog, List<String> orderIds) {
+        return orderIds.stream().filter(auditLog::isSampled).count();
+    }
+}
@@ -0,0 +1,103 @@
+package com.bajaj.tradingsdk.engine;
+
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderStyle;
+import com.bajaj.tradingsdk.model.OrderType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderBookTest {
+    
+    private final OrderBook book = new OrderBook(0);
+    
+    @Test
+    @DisplayName("Should rest a non-crossing LIMIT order")
+    void testRestNonCrossingOrder() {
+        List<Fill> fills = book.match(limit("B1", OrderType.BUY, 10, 100.00), 10);
+        
+        assertTrue(fills.isEmpty());
+        assertEquals(100.00, book.getBestBid());
+        assertNull(book.getBestAsk());
+        assertEquals(10, book.getQuantityAt(OrderType.BUY, 100.00));
+    }
+    
+    @Test
+    @DisplayName("Should match best price first, then earliest order at that price")
+    void testPriceTimePriority() {
+        book.match(limit("S1", OrderType.SELL, 5, 101.00), 5);
+        book.match(limit("S2", OrderType.SELL, 5, 100.50), 5);
+        book.match(limit("S3", OrderType.SELL, 5, 100.50), 5);
+        
+        List<Fill> fills = book.match(limit("B1", OrderType.BUY, 12, 101.00), 12);
+        
+        assertEquals(3, fills.size());
+        assertEquals("S2", fills.get(0).getRestingOrder().getOrderId());
+        assertEquals(100.50, fills.get(0).getPrice());
+        assertEquals("S3", fills.get(1).getRestingOrder().getOrderId());
+        assertEquals("S1", fills.get(2).getRestingOrder().getOrderId());
+        assertEquals(2, fills.get(2).getQuantity());
+        assertEquals(3, book.getQuantityAt(OrderType.SELL, 101.00));
+        assertNull(book.getBestBid());
+    }
+    
+    @Test
+    @DisplayName("Should pull resting orders that fail the fill check and match the next")
+    void testFillCheckPullsRestingOrder() {
+        book.match(limit("S1", OrderType.SELL, 5, 100.00), 5);
+        book.match(limit("S2", OrderType.SELL, 5, 100.00), 5);
+        
+        List<Fill> fills = book.match(limit("B1", OrderType.BUY, 4, 100.00), 4,
+                (resting, quantity) -> !resting.getOrderId().equals("S1"));
+        
+        assertEquals(1, fills.size());
+        assertEquals("S2", fills.get(0).getRestingOrder().getOrderId());
+        assertFalse(book.contains("S1"));
+        assertEquals(1, book.getQuantityAt(OrderType.SELL, 100.00));
+    }
+    
+    @Test
+    @DisplayName("Should rest the unfilled remainder of a partially filled order")
+    void testPartialFillRestsRemainder() {
+        book.match(limit("S1", OrderType.SELL, 4, 100.00), 4);
+        
+        List<Fill> fills = book.match(limit("B1", OrderType.BUY, 10, 100.00), 10);
+        
+        assertEquals(1, fills.size());
+        assertEquals(4, fills.get(0).getQuantity());
+        assertEquals(100.00, book.getBestBid());
+        assertEquals(6, book.getQuantityAt(OrderType.BUY, 100.00));
+        assertTrue(book.contains("B1"));
+        assertFalse(book.contains("S1"));
+    }
+    
+    @Test
+    @DisplayName("Should skip cancelled orders when matching")
+    void testCancelledOrdersAreSkipped() {
+        book.match(limit("S1", OrderType.SELL, 5, 100.00), 5);
+        book.match(limit("S2", OrderType.SELL, 5, 100.00), 5);
+        
+        assertTrue(book.cancel("S1"));
+        assertFalse(book.cancel("S1"));
+        
+        List<Fill> fills = book.match(limit("B1", OrderType.BUY, 5, 100.00), 5);
+        
+        assertEquals(1, fills.size());
+        assertEquals("S2", fills.get(0).getRestingOrder().getOrderId());
+        assertEquals(0, book.getRestingOrderCount());
+        assertNull(book.getBestAsk());
+    }
+    
+    private static Order limit(String orderId, OrderType side, int quantity, double price) {
+        return Order.builder()
+                .orderId(orderId)
+                .orderType(side)
+                .orderStyle(OrderStyle.LIMIT)
+                .quantity(quantity)
+                .price(price)
+                .build();
+    }
+}
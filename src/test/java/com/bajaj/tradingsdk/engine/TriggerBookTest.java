@@ -0,0 +1,74 @@
+package com.bajaj.tradingsdk.engine;
+
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderStyle;
+import com.bajaj.tradingsdk.model.OrderType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TriggerBookTest {
+    
+    private final TriggerBook book = new TriggerBook();
+    
+    @Test
+    @DisplayName("Should fire only the stops a tick crosses, nearest trigger first")
+    void testFiresCrossedStops() {
+        book.add(stop("B1", OrderType.BUY, 105.00));
+        book.add(stop("B2", OrderType.BUY, 102.00));
+        book.add(stop("B3", OrderType.BUY, 110.00));
+        book.add(stop("S1", OrderType.SELL, 95.00));
+        
+        assertFalse(book.onTick(101.00));
+        assertTrue(book.onTick(106.00));
+        
+        assertEquals(List.of("B2", "B1"), ids(book.takeTriggered()));
+        assertEquals(2, book.getPendingCount());
+        assertFalse(book.onTick(109.99));
+        assertTrue(book.onTick(95.00));
+        assertEquals(List.of("S1"), ids(book.takeTriggered()));
+    }
+    
+    @Test
+    @DisplayName("Should coalesce ticks until fired, keeping the extreme price")
+    void testCoalescesTicks() {
+        book.add(stop("B1", OrderType.BUY, 105.00));
+        book.add(stop("B2", OrderType.BUY, 108.00));
+        
+        assertTrue(book.onTick(105.00));
+        // Already scheduled; the spike is still recorded
+        assertFalse(book.onTick(108.50));
+        assertFalse(book.onTick(105.50));
+        
+        assertEquals(List.of("B1", "B2"), ids(book.takeTriggered()));
+        assertTrue(book.takeTriggered().isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should not fire a cancelled stop")
+    void testCancel() {
+        book.add(stop("S1", OrderType.SELL, 95.00));
+        book.add(stop("S2", OrderType.SELL, 95.00));
+        
+        assertTrue(book.cancel("S1"));
+        assertFalse(book.cancel("S1"));
+        assertTrue(book.onTick(90.00));
+        
+        assertEquals(List.of("S2"), ids(book.takeTriggered()));
+        assertFalse(book.contains("S2"));
+    }
+    
+    private static List<String> ids(List<Order> orders) {
+        return orders.stream().map(Order::getOrderId).collect(Collectors.toList());
+    }
+    
+    private static Order stop(String orderId, OrderType type, double triggerPrice) {
+        return Order.builder()
+                .orderId(orderId).orderType(type).orderStyle(OrderStyle.STOP)
+                .quantity(10).triggerPrice(triggerPrice).build();
+    }
+}
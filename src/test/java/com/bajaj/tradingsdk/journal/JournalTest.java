@@ -0,0 +1,128 @@
+package com.bajaj.tradingsdk.journal;
+
+import com.bajaj.tradingsdk.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    @DisplayName("Should replay records from a previous run in write order")
+    void testReplayAfterRestart() throws Exception {
+        Order order = Order.builder()
+                .orderId("ORD-1").symbol("TCS").exchange("NSE")
+                .orderType(OrderType.BUY).orderStyle(OrderStyle.LIMIT)
+                .quantity(10).filledQuantity(4).averageFillPrice(3890.50).price(3890.50)
+                .status(OrderStatus.PARTIALLY_FILLED)
+                .createdAt(LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_789))
+                .userId("USER001")
+                .build();
+        Trade trade = Trade.builder()
+                .tradeId("TRD-1").orderId("ORD-1").symbol("TCS").exchange("NSE")
+                .tradeType(OrderType.BUY).quantity(4).executionPrice(3890.50).totalValue(15562.00)
+                .executedAt(LocalDateTime.now()).userId("USER001")
+                .build();
+        
+        Journal journal = open();
+        journal.appendOrder(order);
+        journal.appendTrade(trade);
+        journal.appendHolding(PortfolioHolding.builder()
+                .userId("USER001").symbol("TCS").exchange("NSE").quantity(4).averagePrice(3890.50).build());
+        journal.appendHoldingDelete("USER001", "TCS", "NSE");
+        journal.close();
+        
+        Journal restarted = open();
+        RecordingHandler handler = new RecordingHandler();
+        assertEquals(4, restarted.replay(handler));
+        restarted.close();
+        
+        assertEquals(List.of("order", "trade", "holding", "delete"), handler.events);
+        assertEquals(order, handler.order);
+        assertNull(handler.order.getUpdatedAt());
+        assertEquals(trade, handler.trade);
+        assertEquals(4, handler.holding.getQuantity());
+    }
+    
+    @Test
+    @DisplayName("Should roll over to new segments and replay across them")
+    void testReplayAcrossSegments() throws Exception {
+        Journal journal = new Journal(true, directory.toString(), 1, 1);
+        journal.open();
+        int records = 60_000;
+        for (int i = 0; i < records; i++) {
+            journal.appendHolding(PortfolioHolding.builder()
+                    .userId("USER" + i).symbol("INFY").exchange("NSE").quantity(i).averagePrice(1500.0).build());
+        }
+        journal.close();
+        
+        Journal restarted = open();
+        RecordingHandler handler = new RecordingHandler();
+        assertEquals(records, restarted.replay(handler));
+        restarted.close();
+        
+        assertEquals(records - 1, handler.holding.getQuantity());
+    }
+    
+    private Journal open() {
+        Journal journal = new Journal(true, directory.toString(), 4, 1);
+        journal.open();
+        return journal;
+    }
+    
+    private static class RecordingHandler implements JournalHandler {
+        
+        private final List<String> events = new ArrayList<>();
+        private Order order;
+        private Trade trade;
+        private PortfolioHolding holding;
+        
+        @Override
+        public void onOrder(Order order) {
+            events.add("order");
+            this.order = order;
+        }
+        
+        @Override
+        public void onTrade(Trade trade) {
+            events.add("trade");
+            this.trade = trade;
+        }
+        
+        @Override
+        public void onHolding(PortfolioHolding holding) {
+            events.add("holding");
+            this.holding = holding;
+        }
+        
+        @Override
+        public void onHoldingDeleted(String userId, String symbol, String exchange) {
+            events.add("delete");
+        }
+        
+        @Override
+        public void onInstrument(Instrument instrument) {
+            events.add("instrument");
+        }
+        
+        @Override
+        public void onOrderEvicted(String orderId) {
+            events.add("order-evict");
+        }
+        
+        @Override
+        public void onTradeEvicted(String tradeId) {
+            events.add("trade-evict");
+        }
+    }
+}
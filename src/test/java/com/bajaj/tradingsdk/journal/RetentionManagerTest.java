@@ -0,0 +1,208 @@
+package com.bajaj.tradingsdk.journal;
+
+import com.bajaj.tradingsdk.engine.MatchingEngine;
+import com.bajaj.tradingsdk.engine.OrderSequencer;
+import com.bajaj.tradingsdk.engine.TriggerEngine;
+import com.bajaj.tradingsdk.model.*;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import com.bajaj.tradingsdk.repository.TradeRepository;
+import com.bajaj.tradingsdk.util.IdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetentionManagerTest {
+    
+    private static final LocalDateTime LAST_WEEK = LocalDateTime.now().minusDays(7);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    @DisplayName("Should move finished orders and old trades to the archive and still serve them")
+    void testArchiveAndQuery() throws Exception {
+        Node node = new Node().withInstruments();
+        for (int i = 0; i < 600; i++) {
+            node.orders.save(node.order(i, OrderStatus.EXECUTED, LAST_WEEK));
+            node.trades.save(node.trade(i, LAST_WEEK));
+        }
+        node.orders.save(node.order(600, OrderStatus.PLACED, LAST_WEEK));
+        node.orders.save(node.order(601, OrderStatus.EXECUTED, LocalDateTime.now()));
+        
+        assertEquals(1200, node.retention.archiveBefore(LocalDateTime.now().minusDays(1)));
+        
+        assertEquals(2, node.orders.count());
+        assertEquals(0, node.trades.count());
+        assertEquals(600, node.archive.getOrderCount());
+        
+        Order archived = node.archive.findOrder("USER001", orderId(17)).orElseThrow();
+        assertEquals(OrderStatus.EXECUTED, archived.getStatus());
+        assertEquals(node.instruments.resolveId("INFY", "NSE"), archived.getInstrumentId());
+        assertTrue(node.archive.findOrder("USER002", orderId(17)).isEmpty());
+        
+        // Archived and in-memory orders merge newest first, across blocks
+        List<String> all = node.archive.mergeOrders(node.orders.streamByUserId("USER001", null, null), "USER001", null, null)
+                .map(Order::getOrderId)
+                .collect(Collectors.toList());
+        assertEquals(602, all.size());
+        assertEquals(orderId(601), all.get(0));
+        assertEquals(orderId(0), all.get(601));
+        
+        List<String> page = node.archive.mergeTrades(node.trades.streamByUserId("USER001", null, null), "USER001",
+                        tradeId(250), tradeId(260))
+                .map(Trade::getTradeId)
+                .collect(Collectors.toList());
+        assertEquals(10, page.size());
+        assertEquals(tradeId(259), page.get(0));
+        node.close();
+    }
+    
+    @Test
+    @DisplayName("Should merge the segments of many passes and drop merged-away files left by a crash")
+    void testSegmentsMerge() throws Exception {
+        Node first = new Node().withInstruments();
+        for (int i = 0; i < 25; i++) {
+            first.orders.save(first.order(i, OrderStatus.EXECUTED, LAST_WEEK));
+            first.retention.archiveBefore(LocalDateTime.now().minusDays(1));
+        }
+        // Two merges of ten passes each, plus the last five passes
+        assertEquals(7, first.archive.getSegmentCount());
+        assertEquals(25, first.archive.getOrderCount());
+        // Stop without closing the archive, as a crash would, so the merged-away files remain
+        first.journal.close();
+        first.orderSequencer.shutdown();
+        
+        Node second = new Node();
+        assertEquals(7, second.archive.getSegmentCount());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(7, files.filter(path -> path.toString().endsWith(".orders")).count());
+        }
+        assertEquals(25, second.archive.getOrderCount());
+        assertEquals(orderId(13), second.archive.findOrder("USER001", orderId(13)).orElseThrow().getOrderId());
+        assertEquals(25, second.archive.mergeOrders(Stream.empty(), "USER001", null, null).count());
+        second.close();
+    }
+    
+    @Test
+    @DisplayName("Should not bring archived records back into memory on restart")
+    void testArchivedRecordsStayArchivedAfterRestart() throws Exception {
+        Node first = new Node().withInstruments();
+        first.orders.save(first.order(1, OrderStatus.CANCELLED, LAST_WEEK));
+        first.orders.save(first.order(2, OrderStatus.PLACED, LAST_WEEK));
+        first.trades.save(first.trade(1, LAST_WEEK));
+        first.retention.archiveBefore(LocalDateTime.now().minusDays(1));
+        first.close();
+        
+        Node second = new Node();
+        second.recover();
+        
+        assertEquals(1, second.orders.count());
+        assertTrue(second.orders.findById(orderId(2)).isPresent());
+        assertEquals(0, second.trades.count());
+        assertEquals(OrderStatus.CANCELLED, second.archive.findOrder("USER001", orderId(1)).orElseThrow().getStatus());
+        assertEquals(1, second.archive.getTradeCount());
+        second.close();
+    }
+    
+    @Test
+    @DisplayName("Should not reissue recovered or archived IDs when the clock is behind them after a restart")
+    void testIdsStayUniqueWithClockBehind() throws Exception {
+        // IDs an hour ahead of the clock stand in for a clock stepped back before the restart
+        long ahead = System.currentTimeMillis() + 3_600_000;
+        Node first = new Node().withInstruments();
+        Order archived = first.order(1, OrderStatus.EXECUTED, LAST_WEEK);
+        archived.setOrderId(IdGenerator.firstIdAt("ORD-", ahead + 1));
+        first.orders.save(archived);
+        first.orders.save(first.order(2, OrderStatus.PLACED, LAST_WEEK));
+        Trade trade = first.trade(1, LocalDateTime.now());
+        trade.setTradeId(IdGenerator.firstIdAt("TRD-", ahead));
+        first.trades.save(trade);
+        // Archiving only seeks up to the cutoff's IDs, so the cutoff must be past these
+        first.retention.archiveBefore(LocalDateTime.now().plusHours(2));
+        first.close();
+        
+        Node second = new Node();
+        second.recover();
+        second.close();
+        
+        assertFalse(second.orders.existsById(archived.getOrderId()));
+        assertTrue(second.idGenerator.nextId("ORD-").compareTo(archived.getOrderId()) > 0);
+        assertTrue(second.idGenerator.nextId("TRD-").compareTo(trade.getTradeId()) > 0);
+    }
+    
+    private static String orderId(int i) {
+        return String.format("ORD-%016X", i);
+    }
+    
+    private static String tradeId(int i) {
+        return String.format("TRD-%016X", i);
+    }
+    
+    /**
+     * One application run: journal, repositories, archive and retention over the same directory
+     */
+    private class Node {
+        
+        final Journal journal = new Journal(true, directory.toString(), 1, 1);
+        final OrderRepository orders = new OrderRepository(journal);
+        final TradeRepository trades = new TradeRepository(journal);
+        final PortfolioRepository portfolio = new PortfolioRepository(journal);
+        final InstrumentRepository instruments = new InstrumentRepository(journal);
+        final OrderSequencer orderSequencer = new OrderSequencer(1, 1024);
+        final SnapshotManager snapshots = new SnapshotManager(journal, orders, trades, portfolio, instruments, true, 3600);
+        final HistoryArchive archive = new HistoryArchive(journal, instruments, true);
+        final RetentionManager retention = new RetentionManager(archive, orders, trades, 1440, 60);
+        final IdGenerator idGenerator = new IdGenerator(0);
+        
+        Node() {
+            journal.open();
+            archive.open();
+        }
+        
+        Node withInstruments() {
+            instruments.save(Instrument.builder()
+                    .symbol("INFY").exchange("NSE").instrumentType(InstrumentType.EQUITY).lastTradedPrice(1500.0).build());
+            return this;
+        }
+        
+        void recover() {
+            new JournalRecovery(journal, snapshots, instruments, orders, trades, portfolio, new MatchingEngine(),
+                    new TriggerEngine(orderSequencer, instruments), archive, idGenerator).recover();
+        }
+        
+        Order order(int i, OrderStatus status, LocalDateTime time) {
+            return Order.builder()
+                    .orderId(orderId(i)).symbol("INFY").exchange("NSE").instrumentId(instruments.resolveId("INFY", "NSE"))
+                    .orderType(OrderType.BUY).orderStyle(OrderStyle.LIMIT)
+                    .quantity(10).price(1500.0).status(status)
+                    .createdAt(time).updatedAt(time).userId("USER001")
+                    .build();
+        }
+        
+        Trade trade(int i, LocalDateTime time) {
+            return Trade.builder()
+                    .tradeId(tradeId(i)).orderId(orderId(i)).symbol("INFY").exchange("NSE")
+                    .instrumentId(instruments.resolveId("INFY", "NSE"))
+                    .tradeType(OrderType.BUY).quantity(10).executionPrice(1500.0).totalValue(15000.0)
+                    .executedAt(time).userId("USER001")
+                    .build();
+        }
+        
+        void close() throws InterruptedException {
+            archive.close();
+            journal.close();
+            orderSequencer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.bajaj.tradingsdk.journal;
+
+import com.bajaj.tradingsdk.engine.MatchingEngine;
+import com.bajaj.tradingsdk.engine.OrderSequencer;
+import com.bajaj.tradingsdk.engine.TriggerEngine;
+import com.bajaj.tradingsdk.model.*;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import com.bajaj.tradingsdk.repository.TradeRepository;
+import com.bajaj.tradingsdk.util.IdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotManagerTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    @DisplayName("Should restore from the latest snapshot plus the journal tail")
+    void testSnapshotPlusJournalTail() throws Exception {
+        Node first = new Node().withInstruments();
+        first.portfolio.save(first.holding("INFY", 100));
+        first.portfolio.save(first.holding("TCS", 25));
+        Order order = first.order("ORD-1", OrderStatus.PLACED);
+        first.orders.save(order);
+        
+        first.snapshots.takeSnapshot();
+        
+        // Changes after the snapshot live only in the journal tail
+        order.setStatus(OrderStatus.EXECUTED);
+        first.orders.save(order);
+        first.orders.save(first.order("ORD-2", OrderStatus.PLACED));
+        Order stop = first.order("ORD-3", OrderStatus.PLACED);
+        stop.setOrderStyle(OrderStyle.STOP_LIMIT);
+        stop.setTriggerPrice(1600.0);
+        first.orders.save(stop);
+        first.portfolio.delete("USER001", first.instruments.resolveId("TCS", "NSE"));
+        first.close();
+        
+        Node second = new Node();
+        second.recover();
+        second.close();
+        
+        assertEquals(1567.25, second.instruments.findBySymbolAndExchange("INFY", "NSE").orElseThrow().getLastTradedPrice());
+        assertEquals(OrderStatus.EXECUTED, second.orders.findById("ORD-1").orElseThrow().getStatus());
+        assertEquals(1, second.portfolio.findByUserId("USER001").size());
+        assertEquals(100, second.portfolio.findByUserIdAndInstrumentId("USER001",
+                second.instruments.resolveId("INFY", "NSE")).orElseThrow().getQuantity());
+        assertTrue(second.matchingEngine.getBook(second.instruments.resolveId("INFY", "NSE")).contains("ORD-2"));
+        assertEquals(1600.0, second.orders.findById("ORD-3").orElseThrow().getTriggerPrice());
+        assertFalse(second.matchingEngine.getBook(second.instruments.resolveId("INFY", "NSE")).contains("ORD-3"));
+        assertEquals(1, second.triggerEngine.getPendingCount());
+    }
+    
+    @Test
+    @DisplayName("Should cancel open orders whose execution a restart cut short")
+    void testInterruptedOrdersCancelled() throws Exception {
+        Node first = new Node().withInstruments();
+        Order market = first.order("ORD-1", OrderStatus.PARTIALLY_FILLED);
+        market.setOrderStyle(OrderStyle.MARKET);
+        market.setFilledQuantity(4);
+        first.orders.save(market);
+        Order stop = first.order("ORD-2", OrderStatus.PLACED);
+        stop.setOrderStyle(OrderStyle.STOP);
+        stop.setTriggerPrice(1550.0);
+        stop.setTriggeredAt(LocalDateTime.now());
+        first.orders.save(stop);
+        first.orders.save(first.order("ORD-3", OrderStatus.NEW));
+        first.orders.save(first.order("ORD-4", OrderStatus.PLACED));
+        first.close();
+        
+        Node second = new Node();
+        second.recover();
+        second.close();
+        
+        assertEquals(1, second.orders.findOpen().size());
+        assertTrue(second.matchingEngine.getBook(second.instruments.resolveId("INFY", "NSE")).contains("ORD-4"));
+        assertEquals(0, second.triggerEngine.getPendingCount());
+        
+        // The cancels were journaled
+        Node third = new Node();
+        third.recover();
+        third.close();
+        for (String orderId : new String[] {"ORD-1", "ORD-2", "ORD-3"}) {
+            assertEquals(OrderStatus.CANCELLED, third.orders.findById(orderId).orElseThrow().getStatus());
+        }
+        assertEquals(4, third.orders.findById("ORD-1").orElseThrow().getFilledQuantity());
+    }
+    
+    @Test
+    @DisplayName("Should recover instruments and holdings from the journal alone")
+    void testJournalOnlyRecovery() throws Exception {
+        Node first = new Node().withInstruments();
+        first.portfolio.save(first.holding("TCS", 25));
+        first.close();
+        
+        Node second = new Node();
+        second.recover();
+        second.close();
+        
+        int tcs = second.instruments.resolveId("TCS", "NSE");
+        assertEquals(3500.00, second.instruments.getPrice(tcs));
+        PortfolioHolding holding = second.portfolio.findByUserIdAndInstrumentId("USER001", tcs).orElseThrow();
+        assertEquals(25, holding.getQuantity());
+        assertSame(second.instruments.getSymbol(tcs), holding.getSymbol());
+    }
+    
+    @Test
+    @DisplayName("Should delete journal segments covered by a snapshot")
+    void testSnapshotTruncatesJournal() throws Exception {
+        new Node().close();
+        new Node().close();
+        Node node = new Node().withInstruments();
+        node.portfolio.save(node.holding("INFY", 100));
+        
+        node.snapshots.takeSnapshot();
+        
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(path -> path.toString().endsWith(".journal")).count());
+        }
+        node.close();
+    }
+    
+    /**
+     * One application run: journal, repositories and snapshot manager over the same directory
+     */
+    private class Node {
+        
+        final Journal journal = new Journal(true, directory.toString(), 1, 1);
+        final OrderRepository orders = new OrderRepository(journal);
+        final TradeRepository trades = new TradeRepository(journal);
+        final PortfolioRepository portfolio = new PortfolioRepository(journal);
+        final InstrumentRepository instruments = new InstrumentRepository(journal);
+        final MatchingEngine matchingEngine = new MatchingEngine();
+        final OrderSequencer orderSequencer = new OrderSequencer(1, 1024);
+        final TriggerEngine triggerEngine = new TriggerEngine(orderSequencer, instruments);
+        final SnapshotManager snapshots = new SnapshotManager(journal, orders, trades, portfolio, instruments, true, 3600);
+        
+        Node() {
+            journal.open();
+        }
+        
+        Node withInstruments() {
+            instruments.save(instrument("INFY", 1567.25));
+            instruments.save(instrument("TCS", 3500.00));
+            return this;
+        }
+        
+        void recover() {
+            new JournalRecovery(journal, snapshots, instruments, orders, trades, portfolio, matchingEngine, triggerEngine,
+                    HistoryArchive.disabled(), new IdGenerator(0)).recover();
+        }
+        
+        PortfolioHolding holding(String symbol, int quantity) {
+            return PortfolioHolding.builder()
+                    .userId("USER001").symbol(symbol).exchange("NSE").instrumentId(instruments.resolveId(symbol, "NSE"))
+                    .quantity(quantity).averagePrice(1500.0).build();
+        }
+        
+        Order order(String orderId, OrderStatus status) {
+            return Order.builder()
+                    .orderId(orderId).symbol("INFY").exchange("NSE").instrumentId(instruments.resolveId("INFY", "NSE"))
+                    .orderType(OrderType.BUY).orderStyle(OrderStyle.LIMIT)
+                    .quantity(10).price(1500.0).status(status)
+                    .createdAt(LocalDateTime.now()).userId("USER001")
+                    .build();
+        }
+        
+        private Instrument instrument(String symbol, double price) {
+            return Instrument.builder()
+                    .symbol(symbol).exchange("NSE").instrumentType(InstrumentType.EQUITY).lastTradedPrice(price).build();
+        }
+        
+        void close() throws InterruptedException {
+            journal.close();
+            orderSequencer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bajaj.tradingsdk.marketdata;
+
+import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.model.InstrumentType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketDataSourceTest {
+    
+    @TempDir
+    Path dir;
+    
+    private final List<Instrument> universe = List.of(
+            instrument("RELIANCE", 2500.00),
+            instrument("TCS", 3500.00));
+    
+    @Test
+    @DisplayName("Synthetic source should walk prices on the tick grid until stopped")
+    void testSyntheticSource() throws Exception {
+        SyntheticMarketDataSource source = new SyntheticMarketDataSource(0, 42);
+        int[] ticks = new int[universe.size()];
+        double[] lastPrices = new double[universe.size()];
+        
+        source.run(universe, (index, price) -> {
+            ticks[index]++;
+            lastPrices[index] = price;
+            if (ticks[0] + ticks[1] == 100_000) {
+                source.stop();
+            }
+        });
+        
+        assertEquals(100_000, ticks[0] + ticks[1]);
+        for (int i = 0; i < universe.size(); i++) {
+            assertTrue(ticks[i] > 0);
+            assertTrue(lastPrices[i] > 0);
+            assertEquals(0.0, Math.abs(lastPrices[i] / 0.05 - Math.round(lastPrices[i] / 0.05)), 1e-6);
+        }
+    }
+    
+    @Test
+    @DisplayName("File source should replay known instruments and skip the rest")
+    void testFileReplaySource() throws Exception {
+        Path file = dir.resolve("ticks.csv");
+        Files.writeString(file, """
+                # symbol,exchange,price
+                RELIANCE,NSE,2501.50
+                UNKNOWN,NSE,10.00
+                tcs,nse,3499.00
+                
+                TCS,NSE,not-a-price
+                RELIANCE,NSE,2502.00
+                """);
+        List<double[]> ticks = new ArrayList<>();
+        
+        new FileReplayMarketDataSource(file, 0, false)
+                .run(universe, (index, price) -> ticks.add(new double[]{index, price}));
+        
+        assertEquals(3, ticks.size());
+        assertArrayEquals(new double[]{0, 2501.50}, ticks.get(0));
+        assertArrayEquals(new double[]{1, 3499.00}, ticks.get(1));
+        assertArrayEquals(new double[]{0, 2502.00}, ticks.get(2));
+    }
+    
+    private static Instrument instrument(String symbol, double price) {
+        return Instrument.builder()
+                .symbol(symbol)
+                .exchange("NSE")
+                .instrumentType(InstrumentType.EQUITY)
+                .lastTradedPrice(price)
+                .build();
+    }
+}
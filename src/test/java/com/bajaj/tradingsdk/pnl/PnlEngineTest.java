@@ -0,0 +1,114 @@
+package com.bajaj.tradingsdk.pnl;
+
+import com.bajaj.tradingsdk.dto.PortfolioSummary;
+import com.bajaj.tradingsdk.journal.Journal;
+import com.bajaj.tradingsdk.model.Instrument;
+import com.bajaj.tradingsdk.model.InstrumentType;
+import com.bajaj.tradingsdk.model.PortfolioHolding;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PnlEngineTest {
+    
+    private final PortfolioRepository portfolioRepository = new PortfolioRepository(Journal.disabled());
+    private final InstrumentRepository instrumentRepository = new InstrumentRepository(Journal.disabled());
+    private final PnlEngine pnlEngine = new PnlEngine(portfolioRepository, instrumentRepository);
+    
+    private final int infy = instrument("INFY", 1500.00);
+    private final int tcs = instrument("TCS", 3500.00);
+    
+    @Test
+    @DisplayName("Should move P&L by price and quantity deltas and stop tracking sold-out holdings")
+    void testIncrementalValuation() {
+        hold(infy, 10, 1400.00);
+        hold(tcs, 2, 3600.00);
+        PortfolioSummary summary = pnlEngine.getSnapshot("USER001").getSummary();
+        assertEquals(21_200.00, summary.getInvestedValue(), 0.0001);
+        assertEquals(22_000.00, summary.getCurrentValue(), 0.0001);
+        
+        tick(infy, 1550.00);
+        tick(tcs, 3400.00);
+        assertEquals(22_300.00, pnlEngine.getSnapshot("USER001").getSummary().getCurrentValue(), 0.0001);
+        
+        // A fill changes only that holding's contribution
+        hold(infy, 20, 1475.00);
+        summary = pnlEngine.getSnapshot("USER001").getSummary();
+        assertEquals(36_700.00, summary.getInvestedValue(), 0.0001);
+        assertEquals(37_800.00, summary.getCurrentValue(), 0.0001);
+        assertEquals(1_100.00, summary.getProfitLoss(), 0.0001);
+        
+        // Sold out: further ticks no longer touch the account
+        portfolioRepository.delete("USER001", tcs);
+        pnlEngine.onHoldingChanged("USER001", tcs);
+        PortfolioSnapshot snapshot = pnlEngine.getSnapshot("USER001");
+        assertEquals(1, snapshot.getHoldings().size());
+        assertEquals(31_000.00, snapshot.getSummary().getCurrentValue(), 0.0001);
+        tick(tcs, 3000.00);
+        assertSame(snapshot, pnlEngine.getSnapshot("USER001"));
+        
+        portfolioRepository.delete("USER001", infy);
+        pnlEngine.onHoldingChanged("USER001", infy);
+        summary = pnlEngine.getSnapshot("USER001").getSummary();
+        assertEquals(0, summary.getHoldingCount());
+        assertEquals(0.00, summary.getCurrentValue());
+    }
+    
+    @Test
+    @DisplayName("Should notify listeners once per change burst until the snapshot is read")
+    void testConflatedNotifications() {
+        hold(infy, 10, 1400.00);
+        pnlEngine.getSnapshot("USER001");
+        List<String> notified = new CopyOnWriteArrayList<>();
+        pnlEngine.addListener(notified::add);
+        
+        tick(infy, 1510.00);
+        tick(infy, 1520.00);
+        hold(infy, 15, 1450.00);
+        assertEquals(List.of("USER001"), notified);
+        
+        pnlEngine.getSnapshot("USER001");
+        tick(infy, 1530.00);
+        assertEquals(List.of("USER001", "USER001"), notified);
+    }
+    
+    @Test
+    @DisplayName("Should answer unknown users with an empty snapshot and hand out copies")
+    void testUnknownUserAndCopies() {
+        PortfolioSnapshot unknown = pnlEngine.getSnapshot("NOBODY");
+        assertTrue(unknown.getHoldings().isEmpty());
+        assertEquals(0, unknown.getSummary().getHoldingCount());
+        
+        hold(infy, 10, 1400.00);
+        PortfolioSnapshot snapshot = pnlEngine.getSnapshot("USER001");
+        snapshot.getHoldings().get(0).setQuantity(999);
+        snapshot.getSummary().setCurrentValue(0.00);
+        assertEquals(10, pnlEngine.getSnapshot("USER001").getHoldings().get(0).getQuantity());
+        assertEquals(15_000.00, pnlEngine.getSnapshot("USER001").getSummary().getCurrentValue(), 0.0001);
+        assertEquals(10, portfolioRepository.findByUserIdAndInstrumentId("USER001", infy).orElseThrow().getQuantity());
+    }
+    
+    private int instrument(String symbol, double price) {
+        instrumentRepository.save(Instrument.builder().symbol(symbol).exchange("NSE")
+                .instrumentType(InstrumentType.EQUITY).lastTradedPrice(price).build());
+        return instrumentRepository.resolveId(symbol, "NSE");
+    }
+    
+    private void hold(int instrumentId, int quantity, double averagePrice) {
+        portfolioRepository.save(PortfolioHolding.builder().userId("USER001").instrumentId(instrumentId)
+                .symbol(instrumentRepository.getSymbol(instrumentId)).exchange("NSE")
+                .quantity(quantity).averagePrice(averagePrice).build());
+        pnlEngine.onHoldingChanged("USER001", instrumentId);
+    }
+    
+    private void tick(int instrumentId, double price) {
+        instrumentRepository.updatePrice(instrumentId, price);
+        pnlEngine.onPriceChanged(instrumentId);
+    }
+}
@@ -0,0 +1,113 @@
+package com.bajaj.tradingsdk.repository;
+
+import com.bajaj.tradingsdk.journal.Journal;
+import com.bajaj.tradingsdk.model.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactRecordTest {
+    
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 3, 15, 9, 15, 30, 123_456_789);
+    
+    private final OrderRepository orders = new OrderRepository(Journal.disabled());
+    private final TradeRepository trades = new TradeRepository(Journal.disabled());
+    
+    @Test
+    @DisplayName("Should read back finished orders unchanged, nulls included, and keep open orders live")
+    void testOrderRoundTrip() {
+        Order open = order("ORD-1", OrderStatus.PARTIALLY_FILLED);
+        Order executed = order("ORD-2", OrderStatus.EXECUTED);
+        executed.setClientOrderId("client-7");
+        executed.setOrderStyle(OrderStyle.STOP_LIMIT);
+        executed.setTriggerPrice(1490.5);
+        executed.setTriggeredAt(TIME.plusSeconds(5));
+        executed.setAverageFillPrice(1499.95);
+        Order cancelled = order("ORD-3", OrderStatus.CANCELLED);
+        cancelled.setPrice(null);
+        cancelled.setFilledQuantity(null);
+        cancelled.setUpdatedAt(null);
+        orders.save(open);
+        orders.save(executed);
+        orders.save(cancelled);
+        
+        assertSame(open, orders.findById("ORD-1").orElseThrow());
+        assertEquals(executed, orders.findById("ORD-2").orElseThrow());
+        assertNotSame(executed, orders.findById("ORD-2").orElseThrow());
+        assertEquals(cancelled, orders.findByUserIdAndId("USER001", "ORD-3").orElseThrow());
+        
+        // An order that finishes is held compact from then on, and only then evictable
+        assertFalse(orders.evict(open));
+        open.setStatus(OrderStatus.EXECUTED);
+        orders.save(open);
+        assertEquals(open, orders.findById("ORD-1").orElseThrow());
+        
+        List<String> newestFirst = orders.streamByUserId("USER001", null, null)
+                .map(Order::getOrderId)
+                .collect(Collectors.toList());
+        assertEquals(List.of("ORD-3", "ORD-2", "ORD-1"), newestFirst);
+        assertTrue(orders.evict(open));
+        assertEquals(2, orders.count());
+    }
+    
+    @Test
+    @DisplayName("Should read back trades unchanged through every index")
+    void testTradeRoundTrip() {
+        Trade trade = Trade.builder()
+                .tradeId("TRD-1").orderId("ORD-1").symbol("INFY").exchange("NSE").instrumentId(3)
+                .tradeType(OrderType.SELL).quantity(250).executionPrice(1499.95).totalValue(374_987.5)
+                .executedAt(TIME).userId("USER001")
+                .build();
+        trades.save(trade);
+        
+        assertEquals(trade, trades.findById("TRD-1").orElseThrow());
+        assertEquals(List.of(trade), trades.findByOrderId("ORD-1"));
+        assertEquals(List.of(trade), trades.findByUserId("USER001"));
+        assertTrue(trades.existsById("TRD-1"));
+        assertTrue(trades.evict(trade));
+        assertTrue(trades.findByOrderId("ORD-1").isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should select open, archivable and recent client orders without reading every order")
+    void testSelections() {
+        Order open = order("ORD-1", OrderStatus.PLACED);
+        open.setClientOrderId("client-1");
+        Order old = order("ORD-2", OrderStatus.EXECUTED);
+        Order recent = order("ORD-3", OrderStatus.CANCELLED);
+        recent.setClientOrderId("client-3");
+        recent.setCreatedAt(TIME.plusHours(1));
+        recent.setUpdatedAt(TIME.plusHours(1));
+        orders.save(open);
+        orders.save(old);
+        orders.save(recent);
+        trades.save(Trade.builder().tradeId("TRD-1").orderId("ORD-2").userId("USER001").executedAt(TIME).build());
+        trades.save(Trade.builder().tradeId("TRD-2").orderId("ORD-3").userId("USER001")
+                .executedAt(TIME.plusHours(1)).build());
+        
+        assertEquals(List.of(open), orders.findOpen());
+        LocalDateTime cutoff = TIME.plusMinutes(30);
+        assertEquals(List.of("ORD-2"), orders.findFinishedBefore("ORD-9", cutoff).stream()
+                .map(Order::getOrderId).collect(Collectors.toList()));
+        assertTrue(orders.findFinishedBefore("ORD-2", cutoff).isEmpty());
+        assertEquals(List.of("TRD-1"), trades.findExecutedBefore("TRD-9", cutoff).stream()
+                .map(Trade::getTradeId).collect(Collectors.toList()));
+        assertEquals(List.of("ORD-3"), orders.findWithClientOrderIdSince("ORD-0", cutoff).stream()
+                .map(Order::getOrderId).collect(Collectors.toList()));
+        assertEquals(2, orders.findWithClientOrderIdSince("ORD-0", TIME).size());
+    }
+    
+    private static Order order(String orderId, OrderStatus status) {
+        return Order.builder()
+                .orderId(orderId).symbol("INFY").exchange("NSE").instrumentId(3)
+                .orderType(OrderType.BUY).orderStyle(OrderStyle.LIMIT)
+                .quantity(200).filledQuantity(120).price(1500.0).status(status)
+                .createdAt(TIME).updatedAt(TIME.plusNanos(1)).userId("USER001")
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.bajaj.tradingsdk.risk;
+
+import com.bajaj.tradingsdk.exception.RiskLimitException;
+import com.bajaj.tradingsdk.journal.HistoryArchive;
+import com.bajaj.tradingsdk.journal.Journal;
+import com.bajaj.tradingsdk.model.*;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import com.bajaj.tradingsdk.repository.TradeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RiskEngineTest {
+    
+    private final OrderRepository orderRepository = new OrderRepository(Journal.disabled());
+    private final TradeRepository tradeRepository = new TradeRepository(Journal.disabled());
+    private final PortfolioRepository portfolioRepository = new PortfolioRepository(Journal.disabled());
+    
+    // 10,000 cash, orders up to 5,000, 100 shares per instrument, 10% price band
+    private final RiskEngine riskEngine = new RiskEngine(orderRepository, tradeRepository,
+            HistoryArchive.disabled(), portfolioRepository, true, 10_000, 5_000, 100, 10);
+    
+    @Test
+    @DisplayName("Should reserve buying power for BUY orders and settle it on fills and cancels")
+    void testBuyingPower() {
+        Order limitBuy = order(OrderType.BUY, OrderStyle.LIMIT, 40, 100.00);
+        riskEngine.reserve(limitBuy, 100.00);
+        assertEquals(6_000.00, riskEngine.getBuyingPower("USER001"));
+        
+        // Filled below the limit: the difference comes back
+        riskEngine.onFill(limitBuy, 10, 95.00);
+        assertEquals(6_050.00, riskEngine.getBuyingPower("USER001"));
+        limitBuy.setFilledQuantity(10);
+        riskEngine.onCancel(limitBuy);
+        assertEquals(9_050.00, riskEngine.getBuyingPower("USER001"));
+        
+        riskEngine.onFill(order(OrderType.SELL, OrderStyle.MARKET, 10, 100.00), 10, 100.00);
+        assertEquals(10_050.00, riskEngine.getBuyingPower("USER001"));
+        
+        riskEngine.reserve(order(OrderType.BUY, OrderStyle.MARKET, 25, 200.00), 200.00);
+        riskEngine.reserve(order(OrderType.BUY, OrderStyle.MARKET, 25, 200.00), 200.00);
+        RiskLimitException e = assertThrows(RiskLimitException.class,
+                () -> riskEngine.reserve(order(OrderType.BUY, OrderStyle.MARKET, 1, 100.00), 100.00));
+        assertTrue(e.getMessage().startsWith("Insufficient buying power"));
+        assertEquals(50.00, riskEngine.getBuyingPower("USER001"));
+        assertEquals(10_000.00, riskEngine.getBuyingPower("USER002"));
+    }
+    
+    @Test
+    @DisplayName("Should reject orders over the order value limit or outside the price band")
+    void testOrderLimits() {
+        assertThrows(RiskLimitException.class,
+                () -> riskEngine.reserve(order(OrderType.SELL, OrderStyle.MARKET, 51, 100.00), 100.00));
+        assertThrows(RiskLimitException.class,
+                () -> riskEngine.reserve(order(OrderType.BUY, OrderStyle.LIMIT, 1, 111.00), 100.00));
+        assertThrows(RiskLimitException.class,
+                () -> riskEngine.reserve(order(OrderType.SELL, OrderStyle.LIMIT, 1, 89.00), 100.00));
+        
+        riskEngine.reserve(order(OrderType.BUY, OrderStyle.LIMIT, 1, 110.00), 100.00);
+        // A STOP_LIMIT order's band is around its trigger price
+        Order stopLimit = order(OrderType.BUY, OrderStyle.STOP_LIMIT, 1, 150.00);
+        stopLimit.setTriggerPrice(145.00);
+        riskEngine.reserve(stopLimit, 100.00);
+        assertEquals(9_740.00, riskEngine.getBuyingPower("USER001"));
+    }
+    
+    @Test
+    @DisplayName("Should limit holdings plus open BUY quantity per instrument")
+    void testPositionLimit() {
+        portfolioRepository.save(PortfolioHolding.builder().userId("USER001").instrumentId(7)
+                .symbol("INFY").exchange("NSE").quantity(60).averagePrice(10.00).build());
+        riskEngine.reserve(order(OrderType.BUY, OrderStyle.LIMIT, 30, 10.00), 10.00);
+        
+        assertThrows(RiskLimitException.class,
+                () -> riskEngine.reserve(order(OrderType.BUY, OrderStyle.LIMIT, 11, 10.00), 10.00));
+        riskEngine.reserve(order(OrderType.BUY, OrderStyle.LIMIT, 10, 10.00), 10.00);
+        // Other instruments have their own limit
+        Order other = order(OrderType.BUY, OrderStyle.LIMIT, 100, 10.00);
+        other.setInstrumentId(8);
+        riskEngine.reserve(other, 10.00);
+    }
+    
+    @Test
+    @DisplayName("Should count open SELL quantity until it is filled or cancelled")
+    void testOpenSellQuantity() {
+        Order sell = order(OrderType.SELL, OrderStyle.LIMIT, 10, 100.00);
+        riskEngine.reserve(sell, 100.00);
+        riskEngine.onFill(sell, 4, 100.00);
+        assertEquals(6, riskEngine.getOpenSellQuantity("USER001", 7));
+        
+        sell.setFilledQuantity(4);
+        riskEngine.onCancel(sell);
+        assertEquals(0, riskEngine.getOpenSellQuantity("USER001", 7));
+    }
+    
+    @Test
+    @DisplayName("Should restore buying power from recovered trades and open orders")
+    void testRestore() {
+        tradeRepository.save(Trade.builder().tradeId("TRD-1").orderId("ORD-1").userId("USER001")
+                .tradeType(OrderType.BUY).quantity(10).executionPrice(200.00).build());
+        tradeRepository.save(Trade.builder().tradeId("TRD-2").orderId("ORD-2").userId("USER001")
+                .tradeType(OrderType.SELL).quantity(5).executionPrice(220.00).build());
+        Order resting = order(OrderType.BUY, OrderStyle.LIMIT, 20, 100.00);
+        resting.setStatus(OrderStatus.PLACED);
+        resting.setFilledQuantity(5);
+        orderRepository.save(resting);
+        Order restingSell = order(OrderType.SELL, OrderStyle.LIMIT, 8, 100.00);
+        restingSell.setStatus(OrderStatus.PARTIALLY_FILLED);
+        restingSell.setFilledQuantity(3);
+        orderRepository.save(restingSell);
+        
+        riskEngine.afterSingletonsInstantiated();
+        
+        assertEquals(10_000.00 - 2_000.00 + 1_100.00 - 1_500.00, riskEngine.getBuyingPower("USER001"));
+        assertThrows(RiskLimitException.class,
+                () -> riskEngine.reserve(order(OrderType.BUY, OrderStyle.LIMIT, 86, 10.00), 10.00));
+        assertEquals(5, riskEngine.getOpenSellQuantity("USER001", 7));
+    }
+    
+    private Order order(OrderType type, OrderStyle style, int quantity, double price) {
+        return Order.builder().orderId("ORD-" + System.nanoTime()).userId("USER001").instrumentId(7).symbol("INFY")
+                .orderType(type).orderStyle(style).quantity(quantity).price(price).build();
+    }
+}
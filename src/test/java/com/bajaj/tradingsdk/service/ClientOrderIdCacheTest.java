@@ -0,0 +1,85 @@
+package com.bajaj.tradingsdk.service;
+
+import com.bajaj.tradingsdk.journal.Journal;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.repository.OrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientOrderIdCacheTest {
+    
+    private final OrderRepository orderRepository = new OrderRepository(Journal.disabled());
+    
+    @Test
+    @DisplayName("Should evict the oldest client order IDs once the cap is reached")
+    void testMaxEntries() {
+        ClientOrderIdCache cache = new ClientOrderIdCache(orderRepository, 600, 2);
+        
+        assertNull(cache.claim("USER001", "A", new CompletableFuture<>()));
+        assertNull(cache.claim("USER001", "B", new CompletableFuture<>()));
+        assertNull(cache.claim("USER001", "C", new CompletableFuture<>()));
+        
+        assertEquals(2, cache.size());
+        assertNull(cache.claim("USER001", "A", new CompletableFuture<>()));
+        assertNotNull(cache.claim("USER001", "C", new CompletableFuture<>()));
+        // Scoped per user
+        assertNull(cache.claim("USER002", "C", new CompletableFuture<>()));
+    }
+    
+    @Test
+    @DisplayName("Should hand retries the original order ID and count released claims against the cap")
+    void testCompleteAndRelease() {
+        ClientOrderIdCache cache = new ClientOrderIdCache(orderRepository, 600, 2);
+        
+        CompletableFuture<String> placing = new CompletableFuture<>();
+        assertNull(cache.claim("USER001", "A", placing));
+        CompletableFuture<String> retry = cache.claim("USER001", "A", new CompletableFuture<>());
+        assertFalse(retry.isDone());
+        cache.complete("USER001", "A", placing, "ORD-1");
+        assertEquals("ORD-1", retry.join());
+        assertEquals("ORD-1", cache.claim("USER001", "A", new CompletableFuture<>()).join());
+        
+        // Rejected claims leave the cache, and their queue entries still count towards the cap
+        for (int i = 0; i < 100; i++) {
+            CompletableFuture<String> rejected = new CompletableFuture<>();
+            assertNull(cache.claim("USER001", "B", rejected));
+            cache.release("USER001", "B", rejected, new IllegalStateException("Rejected"));
+            assertTrue(rejected.isCompletedExceptionally());
+        }
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.queued());
+    }
+    
+    @Test
+    @DisplayName("Should forget client order IDs after the window")
+    void testWindow() {
+        ClientOrderIdCache cache = new ClientOrderIdCache(orderRepository, 0, 100);
+        
+        assertNull(cache.claim("USER001", "A", new CompletableFuture<>()));
+        assertNull(cache.claim("USER001", "A", new CompletableFuture<>()));
+        assertEquals(0, cache.size());
+    }
+    
+    @Test
+    @DisplayName("Should restore recent client order IDs from recovered orders")
+    void testRestore() {
+        orderRepository.save(order("ORD-1", "A", LocalDateTime.now().minusSeconds(30)));
+        orderRepository.save(order("ORD-2", "B", LocalDateTime.now().minusMinutes(20)));
+        ClientOrderIdCache cache = new ClientOrderIdCache(orderRepository, 600, 100);
+        
+        cache.afterSingletonsInstantiated();
+        
+        assertEquals("ORD-1", cache.claim("USER001", "A", new CompletableFuture<>()).join());
+        assertNull(cache.claim("USER001", "B", new CompletableFuture<>()));
+    }
+    
+    private static Order order(String orderId, String clientOrderId, LocalDateTime createdAt) {
+        return Order.builder()
+                .orderId(orderId).clientOrderId(clientOrderId).userId("USER001").createdAt(createdAt).build();
+    }
+}
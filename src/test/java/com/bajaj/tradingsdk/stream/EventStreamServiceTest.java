@@ -0,0 +1,179 @@
+package com.bajaj.tradingsdk.stream;
+
+import com.bajaj.tradingsdk.dto.OrderResponse;
+import com.bajaj.tradingsdk.journal.Journal;
+import com.bajaj.tradingsdk.model.Order;
+import com.bajaj.tradingsdk.model.OrderStatus;
+import com.bajaj.tradingsdk.model.Trade;
+import com.bajaj.tradingsdk.pnl.PnlEngine;
+import com.bajaj.tradingsdk.repository.InstrumentRepository;
+import com.bajaj.tradingsdk.repository.PortfolioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventStreamServiceTest {
+    
+    private final PnlEngine pnlEngine = new PnlEngine(
+            new PortfolioRepository(Journal.disabled()), new InstrumentRepository(Journal.disabled()));
+    private EventStreamService service;
+    
+    @AfterEach
+    void stop() throws InterruptedException {
+        service.stop();
+    }
+    
+    @Test
+    @DisplayName("Should conflate order updates while a client is slow, without blocking publishers")
+    void testConflation() throws Exception {
+        RecordingEmitter emitter = start(16);
+        
+        // The initial portfolio event is stuck in the client; everything below queues up
+        publishOrder("ORD-1", OrderStatus.PLACED);
+        publishOrder("ORD-2", OrderStatus.PLACED);
+        publishOrder("ORD-1", OrderStatus.EXECUTED);
+        service.publishTrade(Trade.builder().tradeId("TRD-1").orderId("ORD-1").userId("USER001").build());
+        pnlEngine.onHoldingChanged("USER001", 0);
+        pnlEngine.onHoldingChanged("USER001", 0);
+        emitter.release();
+        
+        assertEquals(List.of("portfolio", "order", "order", "trade", "portfolio"), emitter.awaitNames(5));
+        OrderResponse first = (OrderResponse) emitter.events.get(1).data;
+        assertEquals("ORD-1", first.getOrderId());
+        assertEquals(OrderStatus.EXECUTED, first.getStatus());
+        assertEquals("ORD-2", ((OrderResponse) emitter.events.get(2).data).getOrderId());
+    }
+    
+    @Test
+    @DisplayName("Should drop a slow client's backlog and ask it to resync once the queue is full")
+    void testOverflowResync() throws Exception {
+        RecordingEmitter emitter = start(2);
+        
+        // One more than the queue holds
+        for (int i = 0; i < 3; i++) {
+            service.publishTrade(Trade.builder().tradeId("TRD-" + i).userId("USER001").build());
+        }
+        emitter.release();
+        
+        assertEquals(List.of("portfolio", "resync", "portfolio"), emitter.awaitNames(3));
+    }
+    
+    @Test
+    @DisplayName("Should close a stalled client's stream without holding up other clients")
+    void testStalledClient() throws Exception {
+        service = new EventStreamService(pnlEngine, 16, 1, 15, 200, 30);
+        service.start();
+        RecordingEmitter stalled = new RecordingEmitter();
+        service.subscribe("USER001", stalled);
+        stalled.awaitFirstSend();
+        
+        // The only dispatcher thread is stuck in the stalled client's write
+        RecordingEmitter healthy = new RecordingEmitter();
+        healthy.release();
+        service.subscribe("USER002", healthy);
+        service.publishOrder(Order.builder().orderId("ORD-1").userId("USER001").status(OrderStatus.PLACED).build());
+        assertEquals(List.of("portfolio"), healthy.awaitNames(1));
+        assertEquals(1, service.getSubscriptionCount());
+        
+        service.publishTrade(Trade.builder().tradeId("TRD-1").userId("USER002").build());
+        assertEquals(List.of("portfolio", "trade"), healthy.awaitNames(2));
+        
+        // The stalled write finally returns: nothing more is sent and the stream completes
+        stalled.release();
+        assertTrue(stalled.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("portfolio"), stalled.awaitNames(1));
+    }
+    
+    private RecordingEmitter start(int queueCapacity) throws InterruptedException {
+        service = new EventStreamService(pnlEngine, queueCapacity, 1, 15, 10_000, 30);
+        service.start();
+        RecordingEmitter emitter = new RecordingEmitter();
+        service.subscribe("USER001", emitter);
+        emitter.awaitFirstSend();
+        return emitter;
+    }
+    
+    private void publishOrder(String orderId, OrderStatus status) {
+        service.publishOrder(Order.builder().orderId(orderId).userId("USER001").status(status).build());
+    }
+    
+    /**
+     * Records sent events; the first send blocks until released, like a client that stopped reading,
+     * and ignores interrupts, like a write the container won't abandon
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        
+        final List<Event> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    released.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> parts = builder.build();
+            String header = parts.stream().map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .filter(String.class::isInstance).map(String.class::cast).collect(Collectors.joining());
+            Object data = parts.stream().map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .filter(part -> !(part instanceof String)).findFirst().orElse(null);
+            events.add(new Event(header.substring("event:".length(), header.indexOf('\n')), data));
+        }
+        
+        @Override
+        public void complete() {
+            super.complete();
+            completed.countDown();
+        }
+        
+        void awaitFirstSend() throws InterruptedException {
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+        }
+        
+        void release() {
+            released.countDown();
+        }
+        
+        List<String> awaitNames(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (events.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            // Nothing else should follow
+            Thread.sleep(50);
+            return events.stream().map(event -> event.name).collect(Collectors.toList());
+        }
+    }
+    
+    private static class Event {
+        final String name;
+        final Object data;
+        
+        Event(String name, Object data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.bajaj.tradingsdk.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdGeneratorTest {
+    
+    @Test
+    @DisplayName("Should generate unique, increasing IDs across threads")
+    void testUniqueAndIncreasing() throws Exception {
+        IdGenerator generator = new IdGenerator(7);
+        int threads = 4;
+        int perThread = 200_000;
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                long[] ids = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+        
+        Set<Long> seen = new HashSet<>();
+        for (Future<long[]> future : futures) {
+            long[] ids = future.get();
+            for (int i = 0; i < ids.length; i++) {
+                assertTrue(i == 0 || ids[i] > ids[i - 1], "IDs must increase within a thread");
+                assertEquals(7, (ids[i] >>> IdGenerator.SEQUENCE_BITS) & IdGenerator.MAX_NODE_ID);
+                assertTrue(seen.add(ids[i]), "Duplicate ID");
+            }
+        }
+        executor.shutdown();
+    }
+    
+    @Test
+    @DisplayName("Should format IDs as fixed-width hex that sorts in generation order")
+    void testFormat() {
+        assertEquals("ORD-00000000000000FF", IdGenerator.format("ORD-", 0xFF));
+        assertEquals("TRD-7FFFFFFFFFFFFFFF", IdGenerator.format("TRD-", Long.MAX_VALUE));
+        
+        IdGenerator generator = new IdGenerator(0);
+        String first = generator.nextId("ORD-");
+        String second = generator.nextId("ORD-");
+        assertEquals(20, first.length());
+        assertTrue(first.compareTo(second) < 0);
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(IdGenerator.MAX_NODE_ID + 1));
+    }
+    
+    @Test
+    @DisplayName("Should only generate IDs above one it was advanced past, even from the future")
+    void testAdvancePast() {
+        IdGenerator generator = new IdGenerator(3);
+        String future = IdGenerator.firstIdAt("ORD-", System.currentTimeMillis() + 60_000);
+        generator.advancePast(future);
+        generator.advancePast("ORD-1");
+        generator.advancePast(null);
+        
+        String next = generator.nextId("ORD-");
+        assertTrue(next.compareTo(future) > 0);
+        assertTrue(generator.nextId("ORD-").compareTo(next) > 0);
+    }
+}